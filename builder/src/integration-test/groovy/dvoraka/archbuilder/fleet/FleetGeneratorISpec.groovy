@@ -0,0 +1,118 @@
+package dvoraka.archbuilder.fleet
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import dvoraka.archbuilder.BuilderProperties
+import dvoraka.archbuilder.exception.GeneratorException
+import dvoraka.archbuilder.generate.BaseISpec
+import dvoraka.archbuilder.generate.MainGenerator
+import dvoraka.archbuilder.module.ModuleRegistry
+import dvoraka.archbuilder.springconfig.SpringConfigGenerator
+import org.springframework.beans.factory.annotation.Autowired
+import org.yaml.snakeyaml.error.YAMLException
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class FleetGeneratorISpec extends BaseISpec {
+
+    @Autowired
+    MainGenerator mainGenerator
+    @Autowired
+    SpringConfigGenerator configGenerator
+    @Autowired
+    BuilderProperties properties
+    @Autowired
+    ObjectMapper objectMapper
+
+    FleetGenerator fleetGenerator
+    Path tempDir
+
+
+    def setup() {
+        fleetGenerator = new FleetGenerator(mainGenerator, ModuleRegistry.defaults(properties, configGenerator))
+        tempDir = Files.createTempDirectory('fleet')
+    }
+
+    def cleanup() {
+        tempDir.toFile().deleteDir()
+    }
+
+    def "fleet is generated from a CSV manifest"() {
+        given:
+            Path manifestFile = tempDir.resolve('fleet.csv')
+            manifestFile.text = '''\
+                # services
+                module,rootDirName,packageName,serviceName,defaultString
+                microservice,order-service,test.order,Order,Basic
+                rest-microservice,user-service,test.user,User,
+                '''.stripIndent()
+            Path output = tempDir.resolve('out')
+        when:
+            FleetReport report = fleetGenerator.generate(FleetManifest.read(manifestFile, objectMapper), output, 2)
+        then:
+            report.isSuccess()
+            report.getResults()*.getName() == ['order-service', 'user-service']
+            report.getResults().every { it.getFiles() > 0 }
+            Files.exists(output.resolve('order-service/build.gradle'))
+            Files.exists(output.resolve('user-service/build.gradle'))
+            Files.walk(output.resolve('order-service')).anyMatch { it.endsWith('BasicOrderService.java') }
+            report.format().contains('order-service')
+    }
+
+    def "YAML and JSON manifests"() {
+        given:
+            Path yaml = tempDir.resolve('fleet.yml')
+            yaml.text = '''\
+                - rootDirName: a-service
+                  serviceName: A
+                  packageName: test.a
+                - module: rest-microservice
+                  rootDirName: b-service
+                  properties:
+                    defaultString: Basic
+                '''.stripIndent()
+            Path json = tempDir.resolve('fleet.json')
+            json.text = '[{"rootDirName": "a-service", "serviceName": "A", "packageName": "test.a"},' +
+                    ' {"module": "rest-microservice", "rootDirName": "b-service",' +
+                    ' "properties": {"defaultString": "Basic"}}]'
+        when:
+            FleetManifest yamlManifest = FleetManifest.read(yaml, objectMapper)
+            FleetManifest jsonManifest = FleetManifest.read(json, objectMapper)
+        then:
+            [yamlManifest, jsonManifest].every { manifest ->
+                manifest.getRequests()*.getRootDirName() == ['a-service', 'b-service'] &&
+                        manifest.getRequests()*.getModule() == [ModuleRegistry.DEFAULT_MODULE, 'rest-microservice'] &&
+                        manifest.getRequests()[1].getProperties() == [defaultString: 'Basic']
+            }
+    }
+
+    def "YAML manifest can't create classes"() {
+        given:
+            Path yaml = tempDir.resolve('fleet.yml')
+            yaml.text = '- !!java.io.File [/tmp]\n'
+        when:
+            FleetManifest.read(yaml, objectMapper)
+        then:
+            GeneratorException e = thrown(GeneratorException)
+            e.getCause() instanceof YAMLException
+    }
+
+    def "failed services are reported"() {
+        given:
+            Path manifestFile = tempDir.resolve('fleet.csv')
+            manifestFile.text = '''\
+                module,rootDirName,packageName,serviceName
+                microservice,same-service,test.same,Same
+                microservice,same-service,test.other,Other
+                unknown,other-service,test.other,Other
+                '''.stripIndent()
+        when:
+            FleetReport report = fleetGenerator.generate(
+                    FleetManifest.read(manifestFile, objectMapper), tempDir.resolve('out'), 1)
+        then:
+            report.getFailed() == 2
+            report.getResults()[0].isSuccess()
+            report.getResults()[1].getError().contains('Duplicate')
+            report.getResults()[2].getError().contains('Unknown module')
+    }
+}
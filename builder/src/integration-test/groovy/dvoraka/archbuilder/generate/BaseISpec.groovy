@@ -20,8 +20,12 @@ class BaseISpec extends Specification implements JavaHelper, JavaTestingHelper {
     Directory srcBase
     Directory srcBaseAbs
 
+    GenerationContext context
+
 
     def setup() {
+        context = new GenerationContext()
+
         root = new Directory.Builder(rootDirName, DirType.ROOT)
                 .parent(null)
                 .build()
@@ -37,6 +41,7 @@ class BaseISpec extends Specification implements JavaHelper, JavaTestingHelper {
     }
 
     def cleanup() {
+        context.close()
         removeFiles(rootDirName)
     }
 
@@ -48,4 +53,9 @@ class BaseISpec extends Specification implements JavaHelper, JavaTestingHelper {
     void removeFiles(String rootDirName) {
         Utils.removeFiles(rootDirName)
     }
+
+    @Override
+    Class<?> loadClass(String className) {
+        return context.loadClass(className)
+    }
 }
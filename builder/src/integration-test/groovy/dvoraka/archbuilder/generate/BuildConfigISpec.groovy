@@ -29,7 +29,7 @@ class BuildConfigISpec extends BaseISpec {
                     .text(template.getText())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
         then:
             notThrown(Exception)
             Files.exists(dirService.getFilePath(buildGradle))
@@ -45,7 +45,7 @@ class BuildConfigISpec extends BaseISpec {
                     .text(template.getText())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
         then:
             notThrown(Exception)
             Files.exists(dirService.getFilePath(settingsGradle))
@@ -49,7 +49,7 @@ class CustomTypeISpec extends BaseISpec {
                     .text(javaFile.toString())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(customType.getTypeName())
         then:
             notThrown(Exception)
@@ -74,7 +74,7 @@ class CustomTypeISpec extends BaseISpec {
                     .text(template.getSource())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(customType.getTypeName())
         then:
             notThrown(Exception)
@@ -105,7 +105,7 @@ class CustomTypeISpec extends BaseISpec {
                     .text(template.getSource())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(customType.getTypeName())
         then:
             notThrown(Exception)
@@ -28,7 +28,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestSimpleClass')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -50,7 +50,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestNewSimpleClass')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -73,7 +73,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('AbstractTestObject')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -91,7 +91,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('AbstractTestObject')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -112,7 +112,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestObject')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -133,7 +133,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestTimer')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -151,7 +151,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestTimer')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -173,7 +173,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestClass1m')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -195,7 +195,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -218,7 +218,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test' + abs.getFilename().get())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -240,7 +240,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestNP' + abs.getFilename().get())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -262,7 +262,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestNP' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -284,7 +284,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestNP' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -305,7 +305,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename("TestAbstractClass1am")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -327,7 +327,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename("TestAbstractClass1p1am")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -348,7 +348,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename("TestNPAbstractClass1p1am")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -370,7 +370,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestNP' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -392,7 +392,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestNP' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -415,7 +415,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename("AbstractClass1p1amAbs")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -437,7 +437,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename("TestClass1p2c1m")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -461,7 +461,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -485,7 +485,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -517,7 +517,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -543,7 +543,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -567,7 +567,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test2' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext2))
         then:
             notThrown(Exception)
@@ -596,7 +596,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test2' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext2))
         then:
             notThrown(Exception)
@@ -625,7 +625,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test2' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext2))
         then:
             notThrown(Exception)
@@ -654,7 +654,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test2' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext2))
         then:
             notThrown(Exception)
@@ -683,7 +683,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test20' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext2))
         then:
             notThrown(Exception)
@@ -706,7 +706,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -733,7 +733,7 @@ class ExtensionISpec extends BaseISpec {
                     .parameterType(SimpleInterface.class)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -756,7 +756,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('TestNP' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(interface4pImpl))
         then:
             notThrown(Exception)
@@ -780,7 +780,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -803,7 +803,7 @@ class ExtensionISpec extends BaseISpec {
                     .filename("TestNP" + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
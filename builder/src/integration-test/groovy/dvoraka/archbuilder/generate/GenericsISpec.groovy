@@ -26,7 +26,7 @@ class GenericsISpec extends BaseISpec {
                     .parameterType(Double.class)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -50,7 +50,7 @@ class GenericsISpec extends BaseISpec {
                     .parameterType(Double.class)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(ext))
         then:
             notThrown(Exception)
@@ -74,7 +74,7 @@ class GenericsISpec extends BaseISpec {
                     .parameterType(String.class)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -96,7 +96,7 @@ class GenericsISpec extends BaseISpec {
                     .filename('TestNP' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -120,7 +120,7 @@ class GenericsISpec extends BaseISpec {
                     .parameterType(String.class)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -142,7 +142,7 @@ class GenericsISpec extends BaseISpec {
                     .filename('TestNP' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -166,7 +166,7 @@ class GenericsISpec extends BaseISpec {
                     .parameterType(String.class)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -188,7 +188,7 @@ class GenericsISpec extends BaseISpec {
                     .filename('TestNP' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -212,7 +212,7 @@ class GenericsISpec extends BaseISpec {
                     .parameterType(String.class)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -234,7 +234,7 @@ class GenericsISpec extends BaseISpec {
                     .filename('TestNP' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -35,7 +35,7 @@ class ImplAndExtISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName() + iface.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -62,7 +62,7 @@ class ImplAndExtISpec extends BaseISpec {
                     .filename('Test2' + cls.getSimpleName() + iface.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -86,7 +86,7 @@ class ImplAndExtISpec extends BaseISpec {
                     .filename('TestNP' + cls.getSimpleName() + iface.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -111,7 +111,7 @@ class ImplAndExtISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName() + iface.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -136,7 +136,7 @@ class ImplAndExtISpec extends BaseISpec {
                     .filename('TestNP' + cls.getSimpleName() + iface.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -161,7 +161,7 @@ class ImplAndExtISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName() + iface.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -186,7 +186,7 @@ class ImplAndExtISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName() + iface.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -211,7 +211,7 @@ class ImplAndExtISpec extends BaseISpec {
                     .filename('Test' + cls.getSimpleName() + iface.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -242,7 +242,7 @@ class ImplAndExtISpec extends BaseISpec {
                     + iface.getSimpleName() + iface2.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
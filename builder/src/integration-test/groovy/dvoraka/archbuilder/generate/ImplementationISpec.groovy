@@ -30,7 +30,7 @@ class ImplementationISpec extends BaseISpec {
                     .parameterType('java.lang.Integer')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -55,7 +55,7 @@ class ImplementationISpec extends BaseISpec {
                     .parameterType('java.lang.Integer')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -80,7 +80,7 @@ class ImplementationISpec extends BaseISpec {
                     .parameterType(Integer.class)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -101,7 +101,7 @@ class ImplementationISpec extends BaseISpec {
                     .filename("DefaultSimpleInterface")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -122,7 +122,7 @@ class ImplementationISpec extends BaseISpec {
                     .filename("DefaultSimpleInterface2")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -144,7 +144,7 @@ class ImplementationISpec extends BaseISpec {
                     .filename("AbstractSimpleInterface")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -172,7 +172,7 @@ class ImplementationISpec extends BaseISpec {
                     .filename('Test2' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl2))
         then:
             notThrown(Exception)
@@ -194,7 +194,7 @@ class ImplementationISpec extends BaseISpec {
                     .filename("TestNP" + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -220,7 +220,7 @@ class ImplementationISpec extends BaseISpec {
                     .parameterType(SimpleInterface.class)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl))
         then:
             notThrown(Exception)
@@ -251,7 +251,7 @@ class ImplementationISpec extends BaseISpec {
                     .filename('Test2' + cls.getSimpleName())
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(impl2))
         then:
             notThrown(Exception)
@@ -274,7 +274,7 @@ class ImplementationISpec extends BaseISpec {
                     .abstractType()
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(interface4pImpl))
         then:
             notThrown(Exception)
@@ -0,0 +1,148 @@
+package dvoraka.archbuilder.generate
+
+import dvoraka.archbuilder.compile.CompilerSession
+import dvoraka.archbuilder.data.DirType
+import dvoraka.archbuilder.data.Directory
+import dvoraka.archbuilder.service.DirService
+import org.springframework.beans.factory.annotation.Autowired
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+
+import static java.nio.file.Files.exists
+
+class IncrementalGenerationISpec extends BaseISpec {
+
+    @Autowired
+    DirService dirService
+    @Autowired
+    LangGenerator langGenerator
+
+    MainGenerator generator
+
+
+    def setup() {
+        generator = new MainGenerator.Builder(dirService, langGenerator)
+                .incremental(true)
+                .build()
+    }
+
+    def "first generation adds all files"() {
+        given:
+            Directory dir = blueprint('First')
+        when:
+            generator.generate(dir, context)
+        then:
+            context.getChanges().getAdded().size() == 2
+            context.getChanges().getRemoved().isEmpty()
+            exists(Paths.get(rootDirName, GenerationManifest.FILENAME))
+    }
+
+    def "unchanged blueprint is skipped"() {
+        given:
+            generator.generate(blueprint('First'), context)
+            GenerationContext secondContext = new GenerationContext()
+        when:
+            generator.generate(blueprint('First'), secondContext)
+        then:
+            !secondContext.getChanges().hasChanges()
+            secondContext.getChanges().getUnchanged().size() == 2
+            secondContext.getCompilerSession().getCompilations() == 0
+        cleanup:
+            secondContext.close()
+    }
+
+    def "blueprint is generated again when the class path changes"() {
+        given:
+            Path classes = Files.createTempDirectory('classes')
+            URLClassLoader classLoader = new URLClassLoader(
+                    [classes.toUri().toURL()] as URL[], getClass().getClassLoader())
+            GenerationContext firstContext = new GenerationContext(new CompilerSession(classLoader))
+            generator.generate(blueprint('First'), firstContext)
+            firstContext.close()
+            classes.resolve('Abstraction.class').toFile().bytes = [1, 2, 3] as byte[]
+            GenerationContext secondContext = new GenerationContext(new CompilerSession(classLoader))
+        when:
+            generator.generate(blueprint('First'), secondContext)
+        then:
+            !secondContext.getChanges().hasChanges()
+            secondContext.getCompilerSession().getCompilations() > 0
+        cleanup:
+            secondContext.close()
+            classLoader.close()
+            classes.toFile().deleteDir()
+    }
+
+    def "only changed files are written"() {
+        given:
+            generator.generate(blueprint('First'), context)
+            GenerationContext secondContext = new GenerationContext()
+        when:
+            generator.generate(blueprint('First', 'Second'), secondContext)
+        then:
+            secondContext.getChanges().getAdded().size() == 1
+            secondContext.getChanges().getChanged().isEmpty()
+            secondContext.getStats().getWrittenFiles() == 1
+            secondContext.getStats().getUnchangedFiles() == 2
+        cleanup:
+            secondContext.close()
+    }
+
+    def "files not generated anymore are removed"() {
+        given:
+            generator.generate(blueprint('First', 'Second'), context)
+            GenerationContext secondContext = new GenerationContext()
+            Path second = Paths.get(rootDirName, 'src/main/java/dvoraka/testapp/data/Second.java')
+        expect:
+            exists(second)
+        when:
+            generator.generate(blueprint('First'), secondContext)
+        then:
+            secondContext.getChanges().getRemoved() == [second]
+            !exists(second)
+        cleanup:
+            secondContext.close()
+    }
+
+    def "edited file is generated again"() {
+        given:
+            generator.generate(blueprint('First'), context)
+            Path first = Paths.get(rootDirName, 'src/main/java/dvoraka/testapp/data/First.java')
+            first.toFile().text = 'edited'
+            GenerationContext secondContext = new GenerationContext()
+        when:
+            generator.generate(blueprint('First'), secondContext)
+        then:
+            secondContext.getChanges().getUnchanged().contains(first)
+            secondContext.getStats().getWrittenFiles() == 1
+            first.toFile().text != 'edited'
+        cleanup:
+            secondContext.close()
+    }
+
+    Directory blueprint(String... typeNames) {
+        Directory root = new Directory.Builder(rootDirName, DirType.ROOT)
+                .parent(null)
+                .build()
+        Directory srcRoot = new Directory.Builder('src/main/java', DirType.SRC_ROOT)
+                .parent(root)
+                .build()
+        Directory srcBase = new Directory.Builder('dvoraka/testapp', DirType.SRC_BASE)
+                .parent(srcRoot)
+                .build()
+        new Directory.Builder('', DirType.TEXT)
+                .parent(root)
+                .filename('build.gradle')
+                .text("apply plugin: 'java'")
+                .build()
+        for (String typeName : typeNames) {
+            new Directory.Builder('data', DirType.NEW_TYPE)
+                    .parent(srcBase)
+                    .filename(typeName)
+                    .build()
+        }
+
+        return root
+    }
+}
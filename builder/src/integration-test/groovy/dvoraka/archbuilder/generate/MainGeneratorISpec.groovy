@@ -25,7 +25,7 @@ class MainGeneratorISpec extends BaseISpec {
                     .typeName("java.util.Map")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
         then:
             notThrown(Exception)
     }
@@ -37,7 +37,7 @@ class MainGeneratorISpec extends BaseISpec {
                     .typeName("java.util.List")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
         then:
             notThrown(Exception)
     }
@@ -54,7 +54,7 @@ class MainGeneratorISpec extends BaseISpec {
                     .text(text)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
         then:
             notThrown(Exception)
             exists(dirService.getFilePath(srcProps))
@@ -68,7 +68,7 @@ class MainGeneratorISpec extends BaseISpec {
                     .text("apply plugin: 'java'")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
         then:
             notThrown(Exception)
             exists(dirService.getFilePath(buildConfig))
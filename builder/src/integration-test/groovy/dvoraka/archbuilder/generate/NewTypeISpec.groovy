@@ -19,7 +19,7 @@ class NewTypeISpec extends BaseISpec {
                     .filename('NewSimpleClass')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(newType.getTypeName())
         then:
             notThrown(Exception)
@@ -36,7 +36,7 @@ class NewTypeISpec extends BaseISpec {
                     .doc('Documentation text.\nsecond line\nthird line')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(newType.getTypeName())
         then:
             notThrown(Exception)
@@ -53,7 +53,7 @@ class NewTypeISpec extends BaseISpec {
                     .metadata(Service)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(newType.getTypeName())
         then:
             notThrown(Exception)
@@ -72,7 +72,7 @@ class NewTypeISpec extends BaseISpec {
                     .metadata(Deprecated)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(newType.getTypeName())
         then:
             notThrown(Exception)
@@ -90,7 +90,7 @@ class NewTypeISpec extends BaseISpec {
                     .interfaceType()
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(newType.getTypeName())
         then:
             notThrown(Exception)
@@ -110,7 +110,7 @@ class NewTypeISpec extends BaseISpec {
                     .parameterType("V")
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(newType.getTypeName())
         then:
             notThrown(Exception)
@@ -128,7 +128,7 @@ class NewTypeISpec extends BaseISpec {
                     .enumType()
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(newType.getTypeName())
         then:
             notThrown(Exception)
@@ -146,7 +146,7 @@ class NewTypeISpec extends BaseISpec {
                     .annotationType()
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(newType.getTypeName())
         then:
             notThrown(Exception)
@@ -169,7 +169,7 @@ class NewTypeISpec extends BaseISpec {
                     .metadata(annotation)
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(cls.getTypeName())
         then:
             notThrown(Exception)
@@ -0,0 +1,112 @@
+package dvoraka.archbuilder.generate
+
+import dvoraka.archbuilder.data.DirType
+import dvoraka.archbuilder.data.Directory
+import dvoraka.archbuilder.output.MemorySink
+import dvoraka.archbuilder.output.ZipSink
+import dvoraka.archbuilder.service.DirService
+import org.springframework.beans.factory.annotation.Autowired
+
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.zip.ZipInputStream
+
+import static java.nio.file.Files.exists
+
+class OutputSinkISpec extends BaseISpec {
+
+    @Autowired
+    DirService dirService
+    @Autowired
+    LangGenerator langGenerator
+
+    MainGenerator generator
+
+
+    def setup() {
+        generator = new MainGenerator(dirService, langGenerator)
+    }
+
+    def "files are generated into memory"() {
+        given:
+            MemorySink sink = new MemorySink()
+            GenerationContext memoryContext = new GenerationContext(sink)
+            Path file = Paths.get(rootDirName, 'src/main/java/dvoraka/testapp/data/First.java')
+        when:
+            generator.generate(blueprint(), memoryContext)
+        then:
+            sink.getFiles().size() == 2
+            new String(sink.getFiles()[file], 'UTF-8').contains('class First')
+            sink.getDirectories().contains(file.getParent())
+            !exists(Paths.get(rootDirName))
+        cleanup:
+            memoryContext.close()
+    }
+
+    def "incremental generation in memory"() {
+        given:
+            MemorySink sink = new MemorySink()
+            GenerationContext firstContext = new GenerationContext(sink)
+            GenerationContext secondContext = new GenerationContext(sink)
+            generator = generator.toBuilder().incremental(true).build()
+        when:
+            generator.generate(blueprint(), firstContext)
+            generator.generate(blueprint(), secondContext)
+        then:
+            sink.getFiles().containsKey(Paths.get(rootDirName, GenerationManifest.FILENAME))
+            !secondContext.getChanges().hasChanges()
+            secondContext.getChanges().getUnchanged().size() == 2
+        cleanup:
+            firstContext.close()
+            secondContext.close()
+    }
+
+    def "files are streamed into an archive"() {
+        given:
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+            GenerationContext zipContext = new GenerationContext(new ZipSink(output))
+        when:
+            generator.generate(blueprint(), zipContext)
+            zipContext.close()
+            List<String> entries = entryNames(output.toByteArray())
+        then:
+            entries.contains(rootDirName + '/build.gradle')
+            entries.contains(rootDirName + '/src/main/java/dvoraka/testapp/data/First.java')
+            entries.contains(rootDirName + '/src/main/java/')
+            !exists(Paths.get(rootDirName))
+    }
+
+    List<String> entryNames(byte[] archive) {
+        List<String> names = []
+        new ZipInputStream(new ByteArrayInputStream(archive)).withCloseable { input ->
+            for (def entry = input.getNextEntry(); entry != null; entry = input.getNextEntry()) {
+                names << entry.getName()
+            }
+        }
+
+        return names
+    }
+
+    Directory blueprint() {
+        Directory root = new Directory.Builder(rootDirName, DirType.ROOT)
+                .parent(null)
+                .build()
+        Directory srcRoot = new Directory.Builder('src/main/java', DirType.SRC_ROOT)
+                .parent(root)
+                .build()
+        Directory srcBase = new Directory.Builder('dvoraka/testapp', DirType.SRC_BASE)
+                .parent(srcRoot)
+                .build()
+        new Directory.Builder('', DirType.TEXT)
+                .parent(root)
+                .filename('build.gradle')
+                .text("apply plugin: 'java'")
+                .build()
+        new Directory.Builder('data', DirType.NEW_TYPE)
+                .parent(srcBase)
+                .filename('First')
+                .build()
+
+        return root
+    }
+}
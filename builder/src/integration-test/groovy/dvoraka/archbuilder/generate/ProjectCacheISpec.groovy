@@ -0,0 +1,146 @@
+package dvoraka.archbuilder.generate
+
+import dvoraka.archbuilder.compile.CompilerSession
+import dvoraka.archbuilder.data.DirType
+import dvoraka.archbuilder.data.Directory
+import dvoraka.archbuilder.output.MemorySink
+import dvoraka.archbuilder.service.DirService
+import org.springframework.beans.factory.annotation.Autowired
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ProjectCacheISpec extends BaseISpec {
+
+    @Autowired
+    DirService dirService
+    @Autowired
+    LangGenerator langGenerator
+
+    MainGenerator generator
+    Path cacheDir
+
+
+    def setup() {
+        generator = new MainGenerator(dirService, langGenerator)
+        cacheDir = Files.createTempDirectory('project-cache')
+    }
+
+    def cleanup() {
+        cacheDir.toFile().deleteDir()
+    }
+
+    def "project is restored from the cache"() {
+        given:
+            ProjectCache cache = new ProjectCache(cacheDir)
+            generator = generator.toBuilder().projectCache(cache).build()
+            MemorySink firstSink = new MemorySink()
+            MemorySink secondSink = new MemorySink()
+            GenerationContext firstContext = new GenerationContext(firstSink)
+            GenerationContext secondContext = new GenerationContext(secondSink)
+        when:
+            generator.generate(blueprint(), firstContext)
+            generator.generate(blueprint(), secondContext)
+        then:
+            cache.getMisses() == 1
+            cache.getHits() == 1
+            cache.getHitRate() == 0.5d
+            secondSink.getFiles().keySet() == firstSink.getFiles().keySet()
+            secondSink.getFiles().every { path, content -> content == firstSink.getFiles()[path] }
+            secondSink.getDirectories().containsAll(firstSink.getDirectories())
+            secondContext.getStats().getDirectories() == 0
+            secondContext.getStats().getWrittenFiles() == 2
+        cleanup:
+            firstContext.close()
+            secondContext.close()
+    }
+
+    def "changed blueprint is a miss"() {
+        given:
+            ProjectCache cache = new ProjectCache(cacheDir)
+            generator = generator.toBuilder().projectCache(cache).build()
+            GenerationContext firstContext = new GenerationContext(new MemorySink())
+            GenerationContext secondContext = new GenerationContext(new MemorySink())
+        when:
+            generator.generate(blueprint(), firstContext)
+            generator.generate(blueprint(['First', 'Second']), secondContext)
+        then:
+            cache.getHits() == 0
+            cache.getMisses() == 2
+        cleanup:
+            firstContext.close()
+            secondContext.close()
+    }
+
+    def "changed class path is a miss"() {
+        given:
+            ProjectCache cache = new ProjectCache(cacheDir)
+            generator = generator.toBuilder().projectCache(cache).build()
+            Path classes = Files.createTempDirectory('classes')
+            URLClassLoader classLoader = new URLClassLoader(
+                    [classes.toUri().toURL()] as URL[], getClass().getClassLoader())
+            GenerationContext firstContext = new GenerationContext(
+                    new CompilerSession(classLoader), new MemorySink())
+            generator.generate(blueprint(), firstContext)
+            classes.resolve('Abstraction.class').toFile().bytes = [1, 2, 3] as byte[]
+            GenerationContext secondContext = new GenerationContext(
+                    new CompilerSession(classLoader), new MemorySink())
+        when:
+            generator.generate(blueprint(), secondContext)
+        then:
+            cache.getHits() == 0
+            cache.getMisses() == 2
+        cleanup:
+            firstContext.close()
+            secondContext.close()
+            classLoader.close()
+            classes.toFile().deleteDir()
+    }
+
+    def "generator version has a code source fingerprint"() {
+        expect:
+            ProjectCache.generatorVersion().matches(/.+\+[0-9a-f]{64}/)
+    }
+
+    def "least recently used projects are evicted"() {
+        given:
+            ProjectCache cache = new ProjectCache(cacheDir, 1, false)
+            generator = generator.toBuilder().projectCache(cache).build()
+            GenerationContext firstContext = new GenerationContext(new MemorySink())
+            GenerationContext secondContext = new GenerationContext(new MemorySink())
+        when:
+            generator.generate(blueprint(), firstContext)
+            generator.generate(blueprint(), secondContext)
+        then:
+            cache.getHits() == 0
+            cache.getSize() <= 1
+        cleanup:
+            firstContext.close()
+            secondContext.close()
+    }
+
+    Directory blueprint(List<String> types = ['First']) {
+        Directory root = new Directory.Builder(rootDirName, DirType.ROOT)
+                .parent(null)
+                .build()
+        Directory srcRoot = new Directory.Builder('src/main/java', DirType.SRC_ROOT)
+                .parent(root)
+                .build()
+        Directory srcBase = new Directory.Builder('dvoraka/testapp', DirType.SRC_BASE)
+                .parent(srcRoot)
+                .build()
+        new Directory.Builder('', DirType.TEXT)
+                .parent(root)
+                .filename('build.gradle')
+                .text("apply plugin: 'java'")
+                .build()
+        for (String type : types) {
+            new Directory.Builder('data', DirType.NEW_TYPE)
+                    .parent(srcBase)
+                    .filename(type)
+                    .build()
+        }
+
+        return root
+    }
+}
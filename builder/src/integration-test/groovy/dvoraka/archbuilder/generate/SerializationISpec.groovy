@@ -1,7 +1,9 @@
 package dvoraka.archbuilder.generate
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import dvoraka.archbuilder.data.DirType
 import dvoraka.archbuilder.data.Directory
+import dvoraka.archbuilder.sample.SimpleInterface
 import dvoraka.archbuilder.service.DirService
 import org.springframework.beans.factory.annotation.Autowired
 
@@ -28,4 +30,57 @@ class SerializationISpec extends BaseISpec {
             notThrown(Exception)
             loadedDir == rootDir
     }
+
+    def "directory tree to JSON with the injected mapper"() {
+        when:
+            String json = dirService.toJson(root)
+            Directory loadedDir = dirService.fromJson(json)
+        then:
+            loadedDir == root
+    }
+
+    def "binary blueprint"() {
+        given:
+            Directory abs = new Directory.Builder('test', DirType.ABSTRACT)
+                    .parent(srcBase)
+                    .typeClass(SimpleInterface)
+                    .build()
+            Directory service = new Directory.Builder('service', DirType.SERVICE)
+                    .parent(srcBase)
+                    .filename('TestService')
+                    .doc('Test service.')
+                    .build()
+            Directory impl = new Directory.Builder('service', DirType.SERVICE_IMPL)
+                    .parent(srcBase)
+                    .superType(service)
+                    .superType(abs)
+                    .parameterType(String)
+                    .metadata('meta')
+                    .filename('DefaultTestService')
+                    .build()
+            new Directory.Builder('', DirType.TEXT)
+                    .parent(root)
+                    .filename('build.gradle')
+                    .text('ünïcode text\n' * 1000)
+                    .build()
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+        when:
+            dirService.toBinary(impl, output)
+            Directory loadedImpl = dirService.fromBinary(new ByteArrayInputStream(output.toByteArray()))
+            Directory loadedRoot = dirService.getRoot(loadedImpl)
+        then:
+            loadedImpl == impl
+            loadedRoot == root
+            loadedImpl.getSuperTypes()[0].is(loadedImpl.getDependencies()[0])
+            loadedImpl.getParent().is(loadedImpl.getSuperTypes()[1].getParent())
+            loadedRoot.getChildren()*.getName() == root.getChildren()*.getName()
+            output.size() < dirService.toJson(root).getBytes('UTF-8').length
+    }
+
+    def "invalid binary blueprint"() {
+        when:
+            dirService.fromBinary(new ByteArrayInputStream('{}'.getBytes('UTF-8')))
+        then:
+            thrown(IOException)
+    }
 }
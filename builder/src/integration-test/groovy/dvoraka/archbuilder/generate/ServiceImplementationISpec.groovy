@@ -30,7 +30,7 @@ class ServiceImplementationISpec extends BaseISpec {
                     .filename('DefaultCoolMapService')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(defaultServiceImplName(mapService))
         then:
             notThrown(Exception)
@@ -57,7 +57,7 @@ class ServiceImplementationISpec extends BaseISpec {
                     .filename('DefaultRFService')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
         then:
             notThrown(Exception)
     }
@@ -82,7 +82,7 @@ class ServiceImplementationISpec extends BaseISpec {
                     .filename('DefaultService')
                     .build()
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
         then:
             notThrown(Exception)
     }
@@ -74,7 +74,7 @@ class SpringConfigISpec extends BaseISpec {
             }
             configuration.setTextSupplier(callback)
         when:
-            mainGenerator.generate(root)
+            mainGenerator.generate(root, context)
             Class<?> clazz = loadClass(getClassName(configuration))
         then:
             notThrown(Exception)
@@ -7,6 +7,7 @@ import dvoraka.archbuilder.build.BuildTool
 import dvoraka.archbuilder.build.GradleBuildTool
 import dvoraka.archbuilder.data.DirType
 import dvoraka.archbuilder.data.Directory
+import dvoraka.archbuilder.generate.GenerationContext
 import dvoraka.archbuilder.generate.Generator
 import dvoraka.archbuilder.generate.JavaHelper
 import dvoraka.archbuilder.generate.JavaTestingHelper
@@ -44,8 +45,12 @@ class DefaultMicroserviceISpec extends Specification implements JavaHelper, Java
     Module module
     Directory rootDir
 
+    GenerationContext context
+
 
     def setup() {
+        context = new GenerationContext()
+
         BuilderHelper helper = new BuilderHelper(properties, rootDirName, packageName, serviceName)
 
         module = new DefaultMicroservice(helper, configGenerator)
@@ -53,9 +58,13 @@ class DefaultMicroserviceISpec extends Specification implements JavaHelper, Java
         rootDir = module.getRootDirectory()
     }
 
+    def cleanup() {
+        context.close()
+    }
+
     def "create micro-service - budget service"() {
         when:
-            mainGenerator.generate(rootDir)
+            mainGenerator.generate(rootDir, context)
         then:
             filesExist(dirService, rootDir)
         and:
@@ -84,7 +93,7 @@ class DefaultMicroserviceISpec extends Specification implements JavaHelper, Java
     @Ignore("needs working repository")
     def "create micro-service with build"() {
         when:
-            mainGenerator.generate(rootDir)
+            mainGenerator.generate(rootDir, context)
         then:
             notThrown(Exception)
         when:
@@ -120,4 +129,9 @@ class DefaultMicroserviceISpec extends Specification implements JavaHelper, Java
             notThrown(Exception)
             loadedDir == rootDir
     }
+
+    @Override
+    Class<?> loadClass(String className) {
+        return context.loadClass(className)
+    }
 }
@@ -7,6 +7,7 @@ import dvoraka.archbuilder.build.BuildTool
 import dvoraka.archbuilder.build.GradleBuildTool
 import dvoraka.archbuilder.data.DirType
 import dvoraka.archbuilder.data.Directory
+import dvoraka.archbuilder.generate.GenerationContext
 import dvoraka.archbuilder.generate.Generator
 import dvoraka.archbuilder.generate.JavaHelper
 import dvoraka.archbuilder.generate.JavaTestingHelper
@@ -43,8 +44,12 @@ class DefaultRestMicroserviceISpec extends Specification implements JavaHelper,
     Module module
     Directory rootDir
 
+    GenerationContext context
+
 
     def setup() {
+        context = new GenerationContext()
+
         BuilderHelper helper = new BuilderHelper(properties, rootDirName, packageName, serviceName)
 
         module = new DefaultRestMicroservice(helper, configGenerator)
@@ -52,9 +57,13 @@ class DefaultRestMicroserviceISpec extends Specification implements JavaHelper,
         rootDir = module.getRootDirectory()
     }
 
+    def cleanup() {
+        context.close()
+    }
+
     def "create micro-service - balance service"() {
         when:
-            mainGenerator.generate(rootDir)
+            mainGenerator.generate(rootDir, context)
         then:
             filesExist(dirService, rootDir)
         and:
@@ -99,4 +108,9 @@ class DefaultRestMicroserviceISpec extends Specification implements JavaHelper,
             notThrown(Exception)
             loadedDir == rootDir
     }
+
+    @Override
+    Class<?> loadClass(String className) {
+        return context.loadClass(className)
+    }
 }
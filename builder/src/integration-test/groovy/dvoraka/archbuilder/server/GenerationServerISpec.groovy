@@ -0,0 +1,154 @@
+package dvoraka.archbuilder.server
+
+import dvoraka.archbuilder.BuilderProperties
+import dvoraka.archbuilder.exception.GeneratorException
+import dvoraka.archbuilder.exception.ServerBusyException
+import dvoraka.archbuilder.generate.BaseISpec
+import dvoraka.archbuilder.generate.MainGenerator
+import dvoraka.archbuilder.module.GenerationRequest
+import dvoraka.archbuilder.module.ModuleRegistry
+import dvoraka.archbuilder.springconfig.SpringConfigGenerator
+import org.springframework.beans.factory.annotation.Autowired
+
+import java.time.Duration
+import java.util.zip.ZipInputStream
+
+class GenerationServerISpec extends BaseISpec {
+
+    @Autowired
+    MainGenerator mainGenerator
+    @Autowired
+    SpringConfigGenerator configGenerator
+    @Autowired
+    BuilderProperties properties
+
+    GenerationServer server
+
+
+    def setup() {
+        server = new GenerationServer(
+                mainGenerator, ModuleRegistry.defaults(properties, configGenerator), 1, 0, Duration.ofMinutes(1))
+    }
+
+    def cleanup() {
+        server.close()
+    }
+
+    def "project is streamed as an archive"() {
+        given:
+            GenerationRequest request = request()
+            request.setProperties(['defaultString': 'Basic'])
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+        when:
+            GenerationServer.Generation generation = server.prepare(request)
+            generation.writeTo(output)
+            List<String> entries = entryNames(output.toByteArray())
+        then:
+            generation.getName() == 'streamed-service'
+            entries.contains('streamed-service/build.gradle')
+            entries.any { it.endsWith('/BasicStreamedService.java') }
+            server.getCompleted() == 1
+            !new File('streamed-service').exists()
+            properties.getDefaultString() == 'Default'
+    }
+
+    def "invalid requests are rejected"() {
+        given:
+            GenerationRequest request = request()
+            request.setRootDirName(rootDirName)
+            request.setModule(module)
+        when:
+            server.prepare(request)
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            rootDirName | module
+            '../escape' | ModuleRegistry.DEFAULT_MODULE
+            'service'   | 'unknown'
+    }
+
+    def "generation over the limit is rejected"() {
+        given:
+            server.prepare(request())
+        when:
+            server.prepare(request())
+        then:
+            thrown(ServerBusyException)
+            server.getRejected() == 1
+    }
+
+    def "archive of a timed out generation is not finished"() {
+        given:
+            GenerationServer slowServer = new GenerationServer(
+                    mainGenerator, ModuleRegistry.defaults(properties, configGenerator), 1, 0, Duration.ofMillis(1))
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+        when:
+            slowServer.prepare(request()).writeTo(output)
+        then:
+            thrown(GeneratorException)
+            slowServer.getTimedOut() == 1
+            entryNames(output.toByteArray()).isEmpty() || !complete(output.toByteArray())
+        cleanup:
+            slowServer.close()
+    }
+
+    def "timed out generation keeps its place until it stops"() {
+        given:
+            GenerationServer slowServer = new GenerationServer(
+                    mainGenerator, ModuleRegistry.defaults(properties, configGenerator), 1, 0, Duration.ofMillis(1))
+        when:
+            slowServer.prepare(request()).writeTo(new ByteArrayOutputStream())
+        then:
+            thrown(GeneratorException)
+        when:
+            slowServer.prepare(request())
+        then:
+            thrown(ServerBusyException)
+        cleanup:
+            slowServer.close()
+    }
+
+    def "generation which is not written expires"() {
+        given:
+            GenerationServer expiringServer = new GenerationServer(
+                    mainGenerator, ModuleRegistry.defaults(properties, configGenerator), 1, 0, Duration.ofMillis(100))
+            GenerationServer.Generation generation = expiringServer.prepare(request())
+        when:
+            Thread.sleep(1500)
+            expiringServer.prepare(request())
+        then:
+            notThrown(ServerBusyException)
+            expiringServer.getExpired() == 1
+        when:
+            generation.writeTo(new ByteArrayOutputStream())
+        then:
+            thrown(GeneratorException)
+        cleanup:
+            expiringServer.close()
+    }
+
+    GenerationRequest request() {
+        GenerationRequest request = new GenerationRequest()
+        request.setRootDirName('streamed-service')
+        request.setPackageName('test.streamed')
+        request.setServiceName('Streamed')
+
+        return request
+    }
+
+    List<String> entryNames(byte[] archive) {
+        List<String> names = []
+        new ZipInputStream(new ByteArrayInputStream(archive)).withCloseable { input ->
+            for (def entry = input.getNextEntry(); entry != null; entry = input.getNextEntry()) {
+                names << entry.getName()
+            }
+        }
+
+        return names
+    }
+
+    boolean complete(byte[] archive) {
+        // the end of central directory record
+        archive.length >= 22 && archive[archive.length - 22] == 0x50 && archive[archive.length - 21] == 0x4b
+    }
+}
@@ -5,17 +5,13 @@ import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import dvoraka.archbuilder.build.BuildTool;
 import dvoraka.archbuilder.build.GradleBuildTool;
 import dvoraka.archbuilder.generate.Generator;
-import dvoraka.archbuilder.generate.LangGenerator;
-import dvoraka.archbuilder.generate.MainGenerator;
 import dvoraka.archbuilder.module.Module;
 import dvoraka.archbuilder.module.microservice.DefaultMicroservice;
-import dvoraka.archbuilder.service.DirService;
 import dvoraka.archbuilder.springconfig.SpringConfigGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
 
@@ -25,7 +21,6 @@ import java.io.File;
  * Template testing.
  */
 @SpringBootApplication
-@EnableConfigurationProperties(BuilderProperties.class)
 public class App {
 
     @Autowired
@@ -40,7 +35,7 @@ public class App {
         SpringApplication.run(App.class, args);
     }
 
-    @Profile("!test")
+    @Profile("!test & !server & !fleet")
     @Bean
     public CommandLineRunner runner() {
         return args -> {
@@ -70,13 +65,4 @@ public class App {
 
         return objectMapper;
     }
-
-    @Profile("test")
-    @Bean
-    public Generator mainGenerator(DirService dirService, LangGenerator langGenerator) {
-        MainGenerator mainGenerator = new MainGenerator(dirService, langGenerator);
-        mainGenerator.setRemoveClasses(false);
-
-        return mainGenerator;
-    }
 }
@@ -0,0 +1,59 @@
+package dvoraka.archbuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dvoraka.archbuilder.generate.JavaGenerator;
+import dvoraka.archbuilder.generate.MainGenerator;
+import dvoraka.archbuilder.service.DefaultDirService;
+import dvoraka.archbuilder.springconfig.DefaultSpringConfigGenerator;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring wiring of the generator core. The core has no Spring dependency, so it's wired here with the same
+ * constructors as in the command line interface.
+ */
+@Configuration
+public class BuilderConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "builder")
+    public BuilderProperties builderProperties() {
+        return new BuilderProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "builder.cache")
+    public CacheProperties cacheProperties() {
+        return new CacheProperties();
+    }
+
+    @Bean
+    public DefaultDirService dirService(ObjectMapper objectMapper) {
+        return new DefaultDirService(objectMapper);
+    }
+
+    @Bean
+    public JavaGenerator javaGenerator() {
+        return new JavaGenerator();
+    }
+
+    @Bean
+    public DefaultSpringConfigGenerator springConfigGenerator() {
+        return new DefaultSpringConfigGenerator();
+    }
+
+    @Bean
+    public MainGenerator mainGenerator(
+            DefaultDirService dirService,
+            JavaGenerator javaGenerator,
+            BuilderProperties builderProperties,
+            CacheProperties cacheProperties
+    ) {
+        return new MainGenerator.Builder(dirService, javaGenerator)
+                .properties(builderProperties)
+                .classCache(cacheProperties.newClassCache())
+                .projectCache(cacheProperties.newProjectCache())
+                .build();
+    }
+}
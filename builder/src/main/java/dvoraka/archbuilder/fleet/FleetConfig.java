@@ -0,0 +1,61 @@
+package dvoraka.archbuilder.fleet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dvoraka.archbuilder.BuilderProperties;
+import dvoraka.archbuilder.exception.GeneratorException;
+import dvoraka.archbuilder.generate.MainGenerator;
+import dvoraka.archbuilder.module.ModuleRegistry;
+import dvoraka.archbuilder.springconfig.SpringConfigGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.nio.file.Paths;
+
+/**
+ * Configuration of the fleet mode. It's active with the fleet profile and it generates all services
+ * from the <code>builder.fleet.manifest</code> file.
+ */
+@Configuration
+@Profile("fleet")
+@EnableConfigurationProperties(FleetProperties.class)
+public class FleetConfig {
+
+    private final Logger log = LoggerFactory.getLogger(FleetConfig.class);
+
+
+    @Bean
+    public FleetGenerator fleetGenerator(
+            MainGenerator mainGenerator,
+            SpringConfigGenerator configGenerator,
+            BuilderProperties builderProperties
+    ) {
+        return new FleetGenerator(mainGenerator, ModuleRegistry.defaults(builderProperties, configGenerator));
+    }
+
+    @Bean
+    public CommandLineRunner fleetRunner(
+            FleetGenerator fleetGenerator,
+            FleetProperties fleetProperties,
+            ObjectMapper objectMapper
+    ) {
+        return args -> {
+            if (fleetProperties.getManifest() == null) {
+                throw new GeneratorException("No fleet manifest, set builder.fleet.manifest.");
+            }
+
+            FleetManifest manifest = FleetManifest.read(Paths.get(fleetProperties.getManifest()), objectMapper);
+            FleetReport report = fleetGenerator.generate(
+                    manifest, Paths.get(fleetProperties.getOutput()), fleetProperties.getParallelism());
+
+            log.info("{}", report.format());
+            if (!report.isSuccess()) {
+                throw new GeneratorException("Fleet generation failed for " + report.getFailed() + " services.");
+            }
+        };
+    }
+}
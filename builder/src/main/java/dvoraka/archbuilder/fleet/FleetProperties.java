@@ -0,0 +1,36 @@
+package dvoraka.archbuilder.fleet;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "builder.fleet")
+public class FleetProperties {
+
+    private String manifest;
+    private String output = ".";
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+
+    public String getManifest() {
+        return manifest;
+    }
+
+    public void setManifest(String manifest) {
+        this.manifest = manifest;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+}
@@ -1,8 +0,0 @@
-package dvoraka.archbuilder.generate;
-
-import dvoraka.archbuilder.data.Directory;
-
-public interface Generator {
-
-    void generate(Directory directory);
-}
@@ -0,0 +1,69 @@
+package dvoraka.archbuilder.server;
+
+import dvoraka.archbuilder.exception.ServerBusyException;
+import dvoraka.archbuilder.module.GenerationRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * HTTP endpoint of the generation server. A posted request is answered with a ZIP archive of the project
+ * streamed while the project is generated.
+ */
+@RestController
+@Profile("server")
+public class GenerationController {
+
+    private static final MediaType ZIP = MediaType.parseMediaType("application/zip");
+
+    private final GenerationServer server;
+
+
+    @Autowired
+    public GenerationController(GenerationServer server) {
+        this.server = requireNonNull(server);
+    }
+
+    @PostMapping(path = "/generate", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> generate(@RequestBody GenerationRequest request) {
+        GenerationServer.Generation generation = server.prepare(request);
+
+        String disposition = "attachment; filename=\"" + generation.getName() + ".zip\"";
+
+        return ResponseEntity.ok()
+                .contentType(ZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition)
+                .body(generation::writeTo);
+    }
+
+    @GetMapping("/status")
+    public String status() {
+        return server.toString();
+    }
+
+    @ExceptionHandler(ServerBusyException.class)
+    public ResponseEntity<String> busy(ServerBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(e.getMessage());
+    }
+}
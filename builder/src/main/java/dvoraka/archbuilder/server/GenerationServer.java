@@ -0,0 +1,415 @@
+package dvoraka.archbuilder.server;
+
+import dvoraka.archbuilder.compile.CompilerSession;
+import dvoraka.archbuilder.data.Directory;
+import dvoraka.archbuilder.exception.GeneratorException;
+import dvoraka.archbuilder.exception.ServerBusyException;
+import dvoraka.archbuilder.generate.GenerationContext;
+import dvoraka.archbuilder.generate.MainGenerator;
+import dvoraka.archbuilder.module.GenerationRequest;
+import dvoraka.archbuilder.module.ModuleRegistry;
+import dvoraka.archbuilder.output.MemorySink;
+import dvoraka.archbuilder.output.ZipSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Long-running generation service. Generations run on a fixed pool of workers in one warm JVM, so compiler,
+ * class metadata and class caches are shared by all generations, and every project is streamed into a ZIP
+ * archive while its files are generated.
+ * <p>
+ * A generation is accepted only if a worker or a queue place is free, otherwise it's rejected immediately,
+ * before anything is sent. A generation running longer than the timeout is cancelled. An archive of a failed
+ * or cancelled generation is never finished, so a client can't mistake it for a whole project.
+ * <p>
+ * The place of a generation is reserved until its worker really stops, not only until the client stops
+ * waiting, and a prepared generation which is not written within the timeout gives its place up. Directories
+ * of all generations are generated on a pool with one thread per worker, so the number of workers bounds
+ * the CPU use of the server.
+ */
+public class GenerationServer implements AutoCloseable {
+
+    private static final Duration MIN_EXPIRATION = Duration.ofSeconds(1);
+
+    private final Logger log = LoggerFactory.getLogger(GenerationServer.class);
+
+    private final MainGenerator generator;
+    private final ModuleRegistry modules;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+    private final ForkJoinPool generatorPool;
+    private final ScheduledExecutorService reaper;
+    private final Semaphore permits;
+    private final LongAdder completed;
+    private final LongAdder failed;
+    private final LongAdder rejected;
+    private final LongAdder timedOut;
+    private final LongAdder expired;
+
+
+    /**
+     * Creates a server and starts its workers.
+     *
+     * @param generator     the generator, its executor is replaced with the server pool
+     * @param modules       the modules for requests
+     * @param workers       the number of concurrent generations and threads generating their directories
+     * @param queueCapacity the number of generations waiting for a worker
+     * @param timeout       the maximum time of one generation including the waiting
+     */
+    public GenerationServer(
+            MainGenerator generator,
+            ModuleRegistry modules,
+            int workers,
+            int queueCapacity,
+            Duration timeout
+    ) {
+        if (workers < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Workers must be positive and queue capacity not negative.");
+        }
+        this.modules = requireNonNull(modules);
+        this.timeout = requireNonNull(timeout);
+
+        generatorPool = new ForkJoinPool(workers);
+        this.generator = requireNonNull(generator).toBuilder()
+                .executor(generatorPool)
+                .build();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new WorkerFactory("generation-worker-"));
+        reaper = Executors.newSingleThreadScheduledExecutor(new WorkerFactory("generation-reaper-"));
+        // the queue itself is bounded by permits
+        permits = new Semaphore(workers + queueCapacity);
+        completed = new LongAdder();
+        failed = new LongAdder();
+        rejected = new LongAdder();
+        timedOut = new LongAdder();
+        expired = new LongAdder();
+    }
+
+    /**
+     * Generates the default module once, so the first request doesn't wait for class loading
+     * and compilation of the generator itself.
+     */
+    public void warmUp() {
+        long start = System.nanoTime();
+        Directory root = modules.build(new GenerationRequest());
+        try (GenerationContext context = new GenerationContext(newSession(), new MemorySink())) {
+            generator.generate(root, context);
+        }
+        log.info("Generation server warmed up in {} ms",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Prepares a generation. The blueprint is built right away and a place for the generation is reserved,
+     * so an invalid or rejected request fails before anything is sent to the client. If the generation
+     * is not written within the timeout, but at least a second, it expires and its place is released.
+     *
+     * @param request the request
+     * @return the generation
+     * @throws IllegalArgumentException if the request is invalid
+     * @throws ServerBusyException      if there is no free worker or queue place
+     */
+    public Generation prepare(GenerationRequest request) {
+        Directory root = modules.build(request);
+        if (executor.isShutdown() || !permits.tryAcquire()) {
+            rejected.increment();
+            throw new ServerBusyException("Generation server is busy.");
+        }
+
+        Generation generation = new Generation(root);
+        Duration expiration = timeout.compareTo(MIN_EXPIRATION) > 0 ? timeout : MIN_EXPIRATION;
+        try {
+            generation.expiration = reaper.schedule(
+                    generation::expire, expiration.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            generation.release();
+            rejected.increment();
+            throw new ServerBusyException("Generation server is stopped.");
+        }
+
+        return generation;
+    }
+
+    private CompilerSession newSession() {
+        return new CompilerSession(CompilerSession.class.getClassLoader(), generator.getClassCache());
+    }
+
+    private void generate(Generation generation, OutputStream output) {
+        Directory root = generation.root;
+        GuardedOutputStream guardedOutput = new GuardedOutputStream(output);
+        // a worker or a cancellation claims the generation, the one claiming it releases its place
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<?> future;
+        try {
+            future = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    generateArchive(root, guardedOutput);
+                } finally {
+                    generation.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            generation.release();
+            rejected.increment();
+            throw new ServerBusyException("Generation server is stopped.");
+        }
+
+        try {
+            future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            completed.increment();
+        } catch (TimeoutException e) {
+            cancel(future, claimed, generation, guardedOutput);
+            timedOut.increment();
+            throw new GeneratorException("Generation timed out: " + root.getName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(future, claimed, generation, guardedOutput);
+            throw new GeneratorException("Generation interrupted: " + root.getName(), e);
+        } catch (ExecutionException e) {
+            failed.increment();
+            if (e.getCause() instanceof GeneratorException) {
+                throw (GeneratorException) e.getCause();
+            }
+            throw new GeneratorException("Generation failed: " + root.getName(), e.getCause());
+        }
+    }
+
+    /**
+     * Cancels a generation. A running worker keeps the place until it stops, a waiting one never starts
+     * and its place is released right away.
+     */
+    private void cancel(
+            Future<?> future,
+            AtomicBoolean claimed,
+            Generation generation,
+            GuardedOutputStream output
+    ) {
+        output.abort();
+        future.cancel(true);
+        if (claimed.compareAndSet(false, true)) {
+            generation.release();
+        }
+    }
+
+    private void generateArchive(Directory root, GuardedOutputStream output) {
+        long start = System.nanoTime();
+        GenerationContext context = new GenerationContext(newSession(), new ZipSink(output));
+        try {
+            generator.generate(root, context);
+        } catch (RuntimeException e) {
+            output.abort();
+            throw e;
+        } finally {
+            context.close();
+        }
+        log.info("Project streamed: {} in {} ms", root.getName(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Returns the number of running and waiting generations.
+     *
+     * @return the number of generations
+     */
+    public int getActive() {
+        return executor.getActiveCount() + executor.getQueue().size();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    /**
+     * Returns the number of prepared generations which were not written within the timeout.
+     *
+     * @return the number of generations
+     */
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    /**
+     * Stops accepting generations and cancels the running ones.
+     */
+    @Override
+    public void close() {
+        reaper.shutdownNow();
+        executor.shutdownNow();
+        generatorPool.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationServer{" +
+                "active=" + getActive() +
+                ", completed=" + getCompleted() +
+                ", failed=" + getFailed() +
+                ", rejected=" + getRejected() +
+                ", timedOut=" + getTimedOut() +
+                ", expired=" + getExpired() +
+                '}';
+    }
+
+    /**
+     * Prepared generation with a reserved place on the server. It must be written exactly once and before
+     * the server timeout.
+     */
+    public final class Generation {
+
+        private final Directory root;
+        private final AtomicBoolean written;
+        private final AtomicBoolean released;
+
+        private volatile ScheduledFuture<?> expiration;
+
+
+        private Generation(Directory root) {
+            this.root = root;
+            written = new AtomicBoolean();
+            released = new AtomicBoolean();
+        }
+
+        /**
+         * Generates the project as a ZIP archive into an output. It waits for a worker and returns when
+         * the archive is finished. The output is not closed.
+         *
+         * @param output the output
+         */
+        public void writeTo(OutputStream output) {
+            if (!written.compareAndSet(false, true)) {
+                throw new GeneratorException("Generation is already written or expired: " + root.getName());
+            }
+            expiration.cancel(false);
+            generate(this, output);
+        }
+
+        /**
+         * Returns the project name, it's the name of the root directory.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return root.getName();
+        }
+
+        private void expire() {
+            if (written.compareAndSet(false, true)) {
+                log.warn("Generation expired before it was written: {}", root.getName());
+                expired.increment();
+                release();
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Stream discarding everything after an abort, so a worker can't write into a response which is already
+     * finished. Closing only flushes.
+     */
+    private static final class GuardedOutputStream extends OutputStream {
+
+        private final OutputStream output;
+
+        private boolean aborted;
+
+
+        private GuardedOutputStream(OutputStream output) {
+            this.output = output;
+        }
+
+        private synchronized void abort() {
+            aborted = true;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            if (!aborted) {
+                output.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            if (!aborted) {
+                output.write(b, off, len);
+            }
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            if (!aborted) {
+                output.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private static final class WorkerFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+
+        private WorkerFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
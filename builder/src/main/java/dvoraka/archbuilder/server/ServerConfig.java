@@ -0,0 +1,40 @@
+package dvoraka.archbuilder.server;
+
+import dvoraka.archbuilder.BuilderProperties;
+import dvoraka.archbuilder.generate.MainGenerator;
+import dvoraka.archbuilder.module.ModuleRegistry;
+import dvoraka.archbuilder.springconfig.SpringConfigGenerator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuration of the generation server mode. It's active with the server profile.
+ */
+@Configuration
+@Profile("server")
+@EnableConfigurationProperties(GenerationServerProperties.class)
+public class ServerConfig {
+
+    @Bean(destroyMethod = "close")
+    public GenerationServer generationServer(
+            MainGenerator mainGenerator,
+            SpringConfigGenerator configGenerator,
+            BuilderProperties builderProperties,
+            GenerationServerProperties serverProperties
+    ) {
+        GenerationServer server = new GenerationServer(
+                mainGenerator,
+                ModuleRegistry.defaults(builderProperties, configGenerator),
+                serverProperties.getWorkers(),
+                serverProperties.getQueueCapacity(),
+                serverProperties.getTimeout()
+        );
+        if (serverProperties.isWarmUp()) {
+            server.warmUp();
+        }
+
+        return server;
+    }
+}
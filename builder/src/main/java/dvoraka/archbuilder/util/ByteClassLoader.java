@@ -1,46 +0,0 @@
-package dvoraka.archbuilder.util;
-
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLConnection;
-import java.nio.file.Path;
-
-public class ByteClassLoader extends ClassLoader {
-
-    public ByteClassLoader(ClassLoader parent) {
-        super(parent);
-    }
-
-    public Class<?> loadClass(Path path) {
-
-        try {
-            String url = "file:/";
-            URL myUrl = new URL(url);
-            URLConnection connection = myUrl.openConnection();
-            InputStream input = connection.getInputStream();
-            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-            int data = input.read();
-
-            while (data != -1) {
-                buffer.write(data);
-                data = input.read();
-            }
-
-            input.close();
-
-            byte[] classData = buffer.toByteArray();
-
-            return defineClass(null, classData, 0, classData.length);
-
-        } catch (MalformedURLException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        return null;
-    }
-}
@@ -1,10 +1,12 @@
 package dvoraka.archbuilder;
 
-import org.springframework.boot.context.properties.ConfigurationProperties;
-
-@ConfigurationProperties(prefix = "builder")
+/**
+ * Builder properties. In the Spring application they are bound from the <code>builder</code> prefix.
+ */
 public class BuilderProperties {
 
+    private static final String KEY_SEPARATOR = "\u0000";
+
     private String rootDirName = "rootDir";
     private String packageName = "package";
 
@@ -18,6 +20,47 @@ public class BuilderProperties {
     private Service service = new Service();
 
 
+    /**
+     * Returns a deep copy of the properties, so the copy can be changed for one generation.
+     *
+     * @return the copy
+     */
+    public BuilderProperties copy() {
+        BuilderProperties copy = new BuilderProperties();
+        copy.setRootDirName(rootDirName);
+        copy.setPackageName(packageName);
+        copy.setAppString(appString);
+        copy.setConfigString(configString);
+        copy.setControllerString(controllerString);
+        copy.setDefaultString(defaultString);
+        copy.setExceptionString(exceptionString);
+        copy.setServerString(serverString);
+        copy.setService(service.copy());
+
+        return copy;
+    }
+
+    /**
+     * Returns a key of all property values for generation fingerprints and cache keys. Every property must
+     * be a part of it, otherwise a change of the property doesn't invalidate generated projects.
+     *
+     * @return the key
+     */
+    public String cacheKey() {
+        return String.join(KEY_SEPARATOR,
+                rootDirName,
+                packageName,
+                appString,
+                configString,
+                controllerString,
+                defaultString,
+                exceptionString,
+                serverString,
+                service.getName(),
+                service.getString(),
+                service.getPkgName());
+    }
+
     public String getRootDirName() {
         return rootDirName;
     }
@@ -90,6 +133,21 @@ public class BuilderProperties {
         this.service = service;
     }
 
+    @Override
+    public String toString() {
+        return "BuilderProperties{" +
+                "rootDirName='" + rootDirName + '\'' +
+                ", packageName='" + packageName + '\'' +
+                ", appString='" + appString + '\'' +
+                ", configString='" + configString + '\'' +
+                ", controllerString='" + controllerString + '\'' +
+                ", defaultString='" + defaultString + '\'' +
+                ", exceptionString='" + exceptionString + '\'' +
+                ", serverString='" + serverString + '\'' +
+                ", service=" + service +
+                '}';
+    }
+
     public static class Service {
 
         private String name = "";
@@ -97,6 +155,15 @@ public class BuilderProperties {
         private String pkgName = "service";
 
 
+        private Service copy() {
+            Service copy = new Service();
+            copy.setName(name);
+            copy.setString(string);
+            copy.setPkgName(pkgName);
+
+            return copy;
+        }
+
         public String getName() {
             return name;
         }
@@ -120,5 +187,14 @@ public class BuilderProperties {
         public void setPkgName(String pkgName) {
             this.pkgName = pkgName;
         }
+
+        @Override
+        public String toString() {
+            return "Service{" +
+                    "name='" + name + '\'' +
+                    ", string='" + string + '\'' +
+                    ", pkgName='" + pkgName + '\'' +
+                    '}';
+        }
     }
 }
@@ -0,0 +1,91 @@
+package dvoraka.archbuilder;
+
+import dvoraka.archbuilder.compile.ClassCache;
+import dvoraka.archbuilder.generate.ProjectCache;
+
+import java.nio.file.Paths;
+
+/**
+ * Cache properties. Caches are used only with a cache directory, compiled classes are cached in its
+ * <code>classes</code> subdirectory and generated projects in its <code>projects</code> subdirectory.
+ * In the Spring application they are bound from the <code>builder.cache</code> prefix.
+ */
+public class CacheProperties {
+
+    public static final String CLASSES_DIR = "classes";
+    public static final String PROJECTS_DIR = "projects";
+
+    private String directory;
+    private long classCacheSize = ClassCache.DEFAULT_MAX_SIZE;
+    private long projectCacheSize = ProjectCache.DEFAULT_MAX_SIZE;
+
+
+    /**
+     * Creates a class cache in the cache directory.
+     *
+     * @return the class cache or null without a cache directory
+     */
+    public ClassCache newClassCache() {
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+
+        return new ClassCache(Paths.get(directory, CLASSES_DIR), classCacheSize);
+    }
+
+    /**
+     * Creates a project cache in the cache directory. Projects are restored as copies.
+     *
+     * @return the project cache or null without a cache directory
+     */
+    public ProjectCache newProjectCache() {
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+
+        return new ProjectCache(Paths.get(directory, PROJECTS_DIR), projectCacheSize, false);
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the maximum size of the class cache in bytes.
+     *
+     * @return the size
+     */
+    public long getClassCacheSize() {
+        return classCacheSize;
+    }
+
+    public void setClassCacheSize(long classCacheSize) {
+        this.classCacheSize = classCacheSize;
+    }
+
+    /**
+     * Returns the maximum size of the project cache in bytes.
+     *
+     * @return the size
+     */
+    public long getProjectCacheSize() {
+        return projectCacheSize;
+    }
+
+    public void setProjectCacheSize(long projectCacheSize) {
+        this.projectCacheSize = projectCacheSize;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheProperties{" +
+                "directory='" + directory + '\'' +
+                ", classCacheSize=" + classCacheSize +
+                ", projectCacheSize=" + projectCacheSize +
+                '}';
+    }
+}
@@ -0,0 +1,284 @@
+package dvoraka.archbuilder.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import dvoraka.archbuilder.BuilderProperties;
+import dvoraka.archbuilder.CacheProperties;
+import dvoraka.archbuilder.compile.ClassCache;
+import dvoraka.archbuilder.exception.GeneratorException;
+import dvoraka.archbuilder.fleet.FleetGenerator;
+import dvoraka.archbuilder.fleet.FleetManifest;
+import dvoraka.archbuilder.fleet.FleetReport;
+import dvoraka.archbuilder.generate.JavaGenerator;
+import dvoraka.archbuilder.generate.MainGenerator;
+import dvoraka.archbuilder.generate.ProjectCache;
+import dvoraka.archbuilder.module.GenerationRequest;
+import dvoraka.archbuilder.module.ModuleRegistry;
+import dvoraka.archbuilder.output.AsyncSink;
+import dvoraka.archbuilder.output.FileSystemSink;
+import dvoraka.archbuilder.service.DefaultDirService;
+import dvoraka.archbuilder.service.DirService;
+import dvoraka.archbuilder.springconfig.DefaultSpringConfigGenerator;
+import dvoraka.archbuilder.watch.ArchitectureWatcher;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Command line interface of the generator. Everything is wired with constructors, so it starts without
+ * any container and it generates one project, or a fleet of projects from a manifest. In watch mode it
+ * regenerates one project after every change of its abstractions until it's stopped.
+ */
+public final class BuilderCli {
+
+    public static final int OK = 0;
+    public static final int FAILED = 1;
+    public static final int USAGE = 2;
+
+    private static final String LOG_LEVEL_PROPERTY = "org.slf4j.simpleLogger.defaultLogLevel";
+
+    private static final String HELP = "Usage: archbuilder [options]\n"
+            + "  --module NAME        module type: " + ModuleRegistry.DEFAULT_MODULE + " (default), "
+            + ModuleRegistry.REST_MODULE + "\n"
+            + "  --root-dir NAME      project root directory name\n"
+            + "  --package NAME       base package name\n"
+            + "  --service NAME       service name\n"
+            + "  --set PATH=VALUE     builder property, e.g. defaultString=Basic, can be repeated\n"
+            + "  --manifest FILE      generate all services from a JSON, YAML or CSV manifest\n"
+            + "  --parallelism N      number of services generated at once (default: CPU count)\n"
+            + "  --output DIR         output directory (default: working directory)\n"
+            + "  --no-verify          don't compile generated sources\n"
+            + "  --cache-dir DIR      cache compiled classes and projects in DIR, it can be shared\n"
+            + "  --class-cache-size N maximum class cache size in bytes (default: "
+            + ClassCache.DEFAULT_MAX_SIZE + ")\n"
+            + "  --project-cache-size N\n"
+            + "                       maximum project cache size in bytes (default: "
+            + ProjectCache.DEFAULT_MAX_SIZE + ")\n"
+            + "  --watch-classes DIR  regenerate after abstraction classes in DIR change, can be repeated\n"
+            + "  --watch-sources DIR  regenerate after abstraction sources in DIR change, can be repeated\n"
+            + "  --verbose            log the generation\n"
+            + "  --help               show this help\n";
+
+
+    private BuilderCli() {
+    }
+
+    public static void main(String[] args) {
+        // the log level must be set before the first logger is created
+        boolean verbose = Arrays.asList(args).contains("--verbose");
+        if (System.getProperty(LOG_LEVEL_PROPERTY) == null) {
+            System.setProperty(LOG_LEVEL_PROPERTY, verbose ? "info" : "warn");
+        }
+
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the command line interface.
+     *
+     * @param args the arguments
+     * @param out  the output for reports
+     * @param err  the output for errors
+     * @return the exit code
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.print(HELP);
+            return USAGE;
+        }
+        if (options.help) {
+            out.print(HELP);
+            return OK;
+        }
+
+        try {
+            if (options.isWatch()) {
+                watch(options, out);
+                return OK;
+            }
+
+            FleetReport report = generate(options);
+            out.print(report.format());
+
+            return report.isSuccess() ? OK : FAILED;
+        } catch (GeneratorException | IllegalArgumentException e) {
+            err.println("Generation failed: " + e.getMessage());
+            return FAILED;
+        }
+    }
+
+    private static FleetReport generate(Options options) {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        BuilderProperties properties = new BuilderProperties();
+
+        DirService dirService = new DefaultDirService(objectMapper);
+        MainGenerator generator = new MainGenerator.Builder(dirService, new JavaGenerator())
+                .properties(properties)
+                .verify(options.verify)
+                .classCache(options.cache.newClassCache())
+                .projectCache(options.cache.newProjectCache())
+                .build();
+        ModuleRegistry modules = ModuleRegistry.defaults(properties, new DefaultSpringConfigGenerator());
+
+        FleetManifest manifest = options.manifest != null
+                ? FleetManifest.read(options.manifest, objectMapper)
+                : new FleetManifest(Collections.singletonList(options.request));
+
+        return new FleetGenerator(generator, modules).generate(manifest, options.output, options.parallelism);
+    }
+
+    private static void watch(Options options, PrintStream out) {
+        BuilderProperties properties = new BuilderProperties();
+        DirService dirService = new DefaultDirService(new ObjectMapper().registerModule(new Jdk8Module()));
+
+        MainGenerator generator = new MainGenerator.Builder(dirService, new JavaGenerator())
+                .properties(properties)
+                .verify(options.verify)
+                .incremental(true)
+                .classCache(options.cache.newClassCache())
+                .projectCache(options.cache.newProjectCache())
+                .build();
+        ModuleRegistry modules = ModuleRegistry.defaults(properties, new DefaultSpringConfigGenerator());
+
+        try (ArchitectureWatcher watcher = new ArchitectureWatcher(generator, dirService,
+                () -> modules.build(options.request),
+                () -> new AsyncSink(new FileSystemSink(options.output)))) {
+            options.watchClasses.forEach(watcher::watchClasses);
+            options.watchSources.forEach(watcher::watchSources);
+            watcher.setListener(out::println);
+
+            watcher.run();
+        }
+    }
+
+    private static final class Options {
+
+        private final GenerationRequest request = new GenerationRequest();
+        private final CacheProperties cache = new CacheProperties();
+
+        private Path manifest;
+        private Path output = Paths.get("");
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private boolean verify = true;
+        private boolean help;
+        private final List<Path> watchClasses = new ArrayList<>();
+        private final List<Path> watchSources = new ArrayList<>();
+
+
+        private static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--module":
+                        options.request.setModule(value(args, ++i, arg));
+                        break;
+                    case "--root-dir":
+                        options.request.setRootDirName(value(args, ++i, arg));
+                        break;
+                    case "--package":
+                        options.request.setPackageName(value(args, ++i, arg));
+                        break;
+                    case "--service":
+                        options.request.setServiceName(value(args, ++i, arg));
+                        break;
+                    case "--set":
+                        String property = value(args, ++i, arg);
+                        int separator = property.indexOf('=');
+                        if (separator < 1) {
+                            throw new IllegalArgumentException("Property must be PATH=VALUE: " + property);
+                        }
+                        options.request.getProperties().put(
+                                property.substring(0, separator), property.substring(separator + 1));
+                        break;
+                    case "--manifest":
+                        options.manifest = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--parallelism":
+                        options.parallelism = parallelism(value(args, ++i, arg));
+                        break;
+                    case "--output":
+                        options.output = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--no-verify":
+                        options.verify = false;
+                        break;
+                    case "--cache-dir":
+                        options.cache.setDirectory(value(args, ++i, arg));
+                        break;
+                    case "--class-cache-size":
+                        options.cache.setClassCacheSize(size(value(args, ++i, arg)));
+                        break;
+                    case "--project-cache-size":
+                        options.cache.setProjectCacheSize(size(value(args, ++i, arg)));
+                        break;
+                    case "--watch-classes":
+                        options.watchClasses.add(Paths.get(value(args, ++i, arg)));
+                        break;
+                    case "--watch-sources":
+                        options.watchSources.add(Paths.get(value(args, ++i, arg)));
+                        break;
+                    case "--verbose":
+                        break;
+                    case "--help":
+                        options.help = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            if (options.isWatch() && options.manifest != null) {
+                throw new IllegalArgumentException("Watch mode can't be used with a manifest.");
+            }
+
+            return options;
+        }
+
+        private boolean isWatch() {
+            return !watchClasses.isEmpty() || !watchSources.isEmpty();
+        }
+
+        private static String value(String[] args, int index, String option) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("Missing value of " + option);
+            }
+
+            return args[index];
+        }
+
+        private static int parallelism(String value) {
+            try {
+                int parallelism = Integer.parseInt(value);
+                if (parallelism > 0) {
+                    return parallelism;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+
+            throw new IllegalArgumentException("Parallelism must be a positive number: " + value);
+        }
+
+        private static long size(String value) {
+            try {
+                long size = Long.parseLong(value);
+                if (size > 0) {
+                    return size;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+
+            throw new IllegalArgumentException("Cache size must be a positive number of bytes: " + value);
+        }
+    }
+}
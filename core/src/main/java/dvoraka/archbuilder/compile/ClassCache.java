@@ -0,0 +1,389 @@
+package dvoraka.archbuilder.compile;
+
+import dvoraka.archbuilder.exception.GeneratorException;
+import dvoraka.archbuilder.util.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Content-addressed cache of compiled classes on disk. An entry key is a hash of the compiled sources,
+ * the class path and the compiler options, so the same sources compiled against the same libraries are
+ * never compiled twice, not even across processes.
+ * <p>
+ * Generated types compiled earlier are not part of the key. Every entry remembers hashes of the generated
+ * sources javac read during the compilation instead and it's used only if all of them are the same.
+ * <p>
+ * Entries are written into a temporary file and moved atomically, so concurrent processes can share one
+ * cache directory. The least recently used entries are removed when the cache is bigger than its maximum
+ * size.
+ */
+public class ClassCache {
+
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+    private static final int MAGIC = 0xCAFEC0DE;
+    private static final int VERSION = 1;
+    private static final String ENTRY_SUFFIX = ".entry";
+
+    private final Logger log = LoggerFactory.getLogger(ClassCache.class);
+
+    private final Path directory;
+    private final long maxSize;
+    private final AtomicLong size;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+
+    public ClassCache(Path directory) {
+        this(directory, DEFAULT_MAX_SIZE);
+    }
+
+    public ClassCache(Path directory, long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        }
+        this.directory = requireNonNull(directory);
+        this.maxSize = maxSize;
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new GeneratorException("Creating class cache failed: " + directory, e);
+        }
+        size = new AtomicLong(currentSize());
+        hits = new LongAdder();
+        misses = new LongAdder();
+    }
+
+    /**
+     * Computes a cache key for a compilation.
+     *
+     * @param sourceHashes        source hashes of the compiled types by class name
+     * @param classPathFingerprint the class path fingerprint
+     * @param options             the compiler options
+     * @return the key
+     */
+    public static String key(
+            Map<String, String> sourceHashes,
+            String classPathFingerprint,
+            List<String> options
+    ) {
+        MessageDigest digest = Utils.newSha256();
+        update(digest, System.getProperty("java.version"));
+        update(digest, classPathFingerprint);
+        options.forEach(option -> update(digest, option));
+        for (Map.Entry<String, String> entry : new TreeMap<>(sourceHashes).entrySet()) {
+            update(digest, entry.getKey());
+            update(digest, entry.getValue());
+        }
+
+        return Utils.toHex(digest.digest());
+    }
+
+    /**
+     * Computes a fingerprint of a class path from names, sizes and modification times of all its files.
+     * Files in class path directories are included too.
+     *
+     * @param classPath the class path
+     * @return the fingerprint
+     */
+    public static String classPathFingerprint(List<File> classPath) {
+        MessageDigest digest = Utils.newSha256();
+        for (File entry : classPath) {
+            update(digest, entry.getAbsolutePath());
+            if (entry.isDirectory()) {
+                try (Stream<Path> files = Files.walk(entry.toPath())) {
+                    List<Path> sorted = files
+                            .filter(Files::isRegularFile)
+                            .sorted()
+                            .collect(Collectors.toList());
+                    for (Path file : sorted) {
+                        update(digest, file.toString() + ':' + file.toFile().length()
+                                + ':' + file.toFile().lastModified());
+                    }
+                } catch (IOException e) {
+                    throw new GeneratorException("Reading class path failed: " + entry, e);
+                }
+            } else {
+                update(digest, entry.length() + ":" + entry.lastModified());
+            }
+        }
+
+        return Utils.toHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Finds an entry. A found entry is marked as recently used.
+     *
+     * @param key the key
+     * @return the entry
+     */
+    public Optional<Entry> get(String key) {
+        Path file = entryFile(key);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Entry entry = read(input);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.increment();
+
+            return Optional.of(entry);
+        } catch (NoSuchFileException e) {
+            misses.increment();
+            return Optional.empty();
+        } catch (IOException e) {
+            // another process may have removed or replaced the entry, it's a miss then
+            log.warn("Reading cache entry failed: {}", file, e);
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Saves an entry and removes the least recently used entries if the cache is too big.
+     *
+     * @param key   the key
+     * @param entry the entry
+     */
+    public void put(String key, Entry entry) {
+        Path file = entryFile(key);
+        Path tmpFile = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmpFile = Files.createTempFile(file.getParent(), key, ".tmp");
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                write(entry, output);
+            }
+            long entrySize = Files.size(tmpFile);
+            move(tmpFile, file);
+            tmpFile = null;
+
+            if (size.addAndGet(entrySize) > maxSize) {
+                evict();
+            }
+        } catch (IOException e) {
+            // the cache is only an optimization
+            log.warn("Saving cache entry failed: {}", file, e);
+        } finally {
+            if (tmpFile != null) {
+                try {
+                    Files.deleteIfExists(tmpFile);
+                } catch (IOException e) {
+                    log.warn("Removing temporary file failed: {}", tmpFile, e);
+                }
+            }
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache is smaller than its maximum size.
+     */
+    public synchronized void evict() {
+        List<Path> entries = listEntries();
+        entries.sort(Comparator.comparing(ClassCache::lastModified));
+
+        long currentSize = entries.stream()
+                .mapToLong(ClassCache::fileSize)
+                .sum();
+        for (Path entry : entries) {
+            if (currentSize <= maxSize) {
+                break;
+            }
+            long entrySize = fileSize(entry);
+            try {
+                Files.deleteIfExists(entry);
+                currentSize -= entrySize;
+                log.debug("Cache entry evicted: {}", entry);
+            } catch (IOException e) {
+                log.warn("Evicting cache entry failed: {}", entry, e);
+            }
+        }
+        size.set(currentSize);
+    }
+
+    private long currentSize() {
+        return listEntries().stream()
+                .mapToLong(ClassCache::fileSize)
+                .sum();
+    }
+
+    private List<Path> listEntries() {
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(ENTRY_SUFFIX))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } catch (IOException e) {
+            throw new GeneratorException("Listing class cache failed: " + directory, e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path entryFile(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    private static Entry read(DataInputStream input) throws IOException {
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("Unknown cache entry format.");
+        }
+
+        Map<String, String> dependencies = new LinkedHashMap<>();
+        int dependencyCount = input.readInt();
+        for (int i = 0; i < dependencyCount; i++) {
+            dependencies.put(input.readUTF(), input.readUTF());
+        }
+
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        int classCount = input.readInt();
+        for (int i = 0; i < classCount; i++) {
+            String className = input.readUTF();
+            byte[] bytecode = new byte[input.readInt()];
+            input.readFully(bytecode);
+            classes.put(className, bytecode);
+        }
+
+        return new Entry(dependencies, classes);
+    }
+
+    private static void write(Entry entry, DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+
+        output.writeInt(entry.getDependencies().size());
+        for (Map.Entry<String, String> dependency : entry.getDependencies().entrySet()) {
+            output.writeUTF(dependency.getKey());
+            output.writeUTF(dependency.getValue());
+        }
+
+        output.writeInt(entry.getClasses().size());
+        for (Map.Entry<String, byte[]> classEntry : entry.getClasses().entrySet()) {
+            output.writeUTF(classEntry.getKey());
+            output.writeInt(classEntry.getValue().length);
+            output.write(classEntry.getValue());
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the approximate size of all entries in bytes.
+     *
+     * @return the size
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ClassCache{" +
+                "directory=" + directory +
+                ", size=" + size +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                '}';
+    }
+
+    /**
+     * Compiled classes of one compilation with hashes of all generated sources the compilation depended on.
+     */
+    public static final class Entry {
+
+        private final Map<String, String> dependencies;
+        private final Map<String, byte[]> classes;
+
+
+        public Entry(Map<String, String> dependencies, Map<String, byte[]> classes) {
+            this.dependencies = Collections.unmodifiableMap(new LinkedHashMap<>(dependencies));
+            this.classes = Collections.unmodifiableMap(new LinkedHashMap<>(classes));
+        }
+
+        /**
+         * Returns source hashes of generated types by class name.
+         *
+         * @return the dependencies
+         */
+        public Map<String, String> getDependencies() {
+            return dependencies;
+        }
+
+        /**
+         * Returns bytecode by binary class name.
+         *
+         * @return the classes
+         */
+        public Map<String, byte[]> getClasses() {
+            return classes;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package dvoraka.archbuilder.compile;
+
+import javax.tools.SimpleJavaFileObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compiled class held in memory. The compiler writes the bytecode into it and reads it back when the class is
+ * needed on the class path of a later compilation. A class being written has no bytecode yet, so it must not
+ * be visible to others until {@link #written()} is called.
+ */
+public class ClassFile extends SimpleJavaFileObject {
+
+    private final String className;
+
+    private volatile byte[] bytecode;
+
+
+    public ClassFile(String className) {
+        super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+        this.className = requireNonNull(className);
+        this.bytecode = new byte[0];
+    }
+
+    public ClassFile(String className, byte[] bytecode) {
+        this(className);
+        this.bytecode = requireNonNull(bytecode);
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getPackageName() {
+        int lastDot = className.lastIndexOf('.');
+        return lastDot == -1 ? "" : className.substring(0, lastDot);
+    }
+
+    public byte[] getBytecode() {
+        return bytecode;
+    }
+
+    @Override
+    public InputStream openInputStream() {
+        CompilationRecorder.read(className);
+        return new ByteArrayInputStream(bytecode);
+    }
+
+    @Override
+    public OutputStream openOutputStream() {
+        return new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                bytecode = toByteArray();
+                written();
+            }
+        };
+    }
+
+    /**
+     * Called after the bytecode is written.
+     */
+    protected void written() {
+    }
+}
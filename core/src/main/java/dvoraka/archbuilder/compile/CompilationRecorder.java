@@ -0,0 +1,58 @@
+package dvoraka.archbuilder.compile;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records generated types javac reads and classes it writes during one compilation. Javac runs a compilation
+ * in the calling thread, so the current recorder is thread-local and concurrent compilations don't mix.
+ */
+final class CompilationRecorder {
+
+    private static final ThreadLocal<CompilationRecorder> CURRENT = new ThreadLocal<>();
+
+    private final Set<String> readTypes;
+    private final Map<String, ClassFile> writtenClasses;
+
+
+    private CompilationRecorder() {
+        readTypes = new HashSet<>();
+        writtenClasses = new LinkedHashMap<>();
+    }
+
+    static CompilationRecorder start() {
+        CompilationRecorder recorder = new CompilationRecorder();
+        CURRENT.set(recorder);
+
+        return recorder;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    static void read(String className) {
+        CompilationRecorder recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.readTypes.add(className);
+        }
+    }
+
+    static void written(ClassFile classFile) {
+        CompilationRecorder recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.writtenClasses.put(classFile.getClassName(), classFile);
+        }
+    }
+
+    Set<String> getReadTypes() {
+        return Collections.unmodifiableSet(readTypes);
+    }
+
+    Map<String, ClassFile> getWrittenClasses() {
+        return Collections.unmodifiableMap(writtenClasses);
+    }
+}
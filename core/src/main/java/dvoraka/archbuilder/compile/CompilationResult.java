@@ -0,0 +1,66 @@
+package dvoraka.archbuilder.compile;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Result of a compilation split into partitions.
+ */
+public final class CompilationResult {
+
+    private final List<PartitionResult> partitions;
+    private final Duration duration;
+
+
+    public CompilationResult(List<PartitionResult> partitions, Duration duration) {
+        this.partitions = Collections.unmodifiableList(partitions);
+        this.duration = duration;
+    }
+
+    public static CompilationResult empty() {
+        return new CompilationResult(Collections.emptyList(), Duration.ZERO);
+    }
+
+    public List<PartitionResult> getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Returns the wall-clock time of the whole compilation.
+     *
+     * @return the duration
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public boolean isSuccess() {
+        return partitions.stream()
+                .allMatch(PartitionResult::isSuccess);
+    }
+
+    public List<CompilerMessage> getMessages() {
+        return partitions.stream()
+                .flatMap(partition -> partition.getMessages().stream())
+                .collect(Collectors.toList());
+    }
+
+    public List<CompilerMessage> getErrors() {
+        return partitions.stream()
+                .flatMap(partition -> partition.getMessages().stream())
+                .filter(CompilerMessage::isError)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return "CompilationResult{" +
+                "success=" + isSuccess() +
+                ", partitions=" + partitions.size() +
+                ", duration=" + duration.toMillis() + "ms" +
+                ", errors=" + getErrors().size() +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package dvoraka.archbuilder.compile;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Compiler diagnostic message detached from the compiler.
+ */
+public final class CompilerMessage {
+
+    private final Diagnostic.Kind kind;
+    private final String source;
+    private final long line;
+    private final long column;
+    private final String message;
+
+
+    public CompilerMessage(Diagnostic.Kind kind, String source, long line, long column, String message) {
+        this.kind = kind;
+        this.source = source;
+        this.line = line;
+        this.column = column;
+        this.message = message;
+    }
+
+    public static CompilerMessage of(Diagnostic<? extends JavaFileObject> diagnostic) {
+        JavaFileObject file = diagnostic.getSource();
+        String source;
+        if (file instanceof SourceFile) {
+            source = ((SourceFile) file).getClassName();
+        } else {
+            source = file != null ? file.getName() : null;
+        }
+
+        return new CompilerMessage(
+                diagnostic.getKind(),
+                source,
+                diagnostic.getLineNumber(),
+                diagnostic.getColumnNumber(),
+                diagnostic.getMessage(null)
+        );
+    }
+
+    public Diagnostic.Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the class name of an in-memory source or the name of another file.
+     *
+     * @return the source or null if the message is not related to any source
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public long getColumn() {
+        return column;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isError() {
+        return kind == Diagnostic.Kind.ERROR;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + source + ":" + line + ":" + column + ": " + message;
+    }
+}
@@ -0,0 +1,484 @@
+package dvoraka.archbuilder.compile;
+
+import dvoraka.archbuilder.exception.GeneratorException;
+import dvoraka.archbuilder.util.JavaUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Compiler session for one generation. It keeps one compiler and in-memory file managers alive for all
+ * compilations, so the class path is scanned only once per file manager and no class files are written
+ * to disk. Compiled classes are loadable from the session until it's closed.
+ * <p>
+ * Sources can be added without compiling. Such a source is compiled only when its class is loaded or when
+ * a compiled source references it, so types nobody needs are not compiled at all until
+ * {@link #compilePending()} is called.
+ * <p>
+ * Classes are defined in a child class loader of the session and never in the application class loader,
+ * so nothing from one generation leaks into another one and the classes are unloaded with the session.
+ * <p>
+ * The session is thread-safe. File managers are not, so every concurrent compilation borrows its own
+ * file manager from a pool and all of them share compiled classes.
+ * <p>
+ * With a {@link ClassCache} compiled classes are saved on disk and a compilation of the same sources against
+ * the same class path is replaced with loading the cached classes.
+ */
+public class CompilerSession implements AutoCloseable {
+
+    private static final List<String> OPTIONS = Arrays.asList("-proc:none", "-implicit:class", "-nowarn");
+
+    private final Logger log = LoggerFactory.getLogger(CompilerSession.class);
+
+    private final JavaCompiler compiler;
+    private final List<File> classPath;
+    private final Map<String, ClassFile> classFiles;
+    private final Map<String, SourceFile> sourceFiles;
+    private final Queue<MemoryFileManager> fileManagers;
+    private final Queue<MemoryFileManager> allFileManagers;
+    private final MemoryClassLoader classLoader;
+    private final LongAdder compilations;
+    private final LongAdder failedCompilations;
+    private final ClassCache classCache;
+    private final Map<String, String> sourceHashes;
+    private final Map<String, CompletableFuture<Void>> loadCompilations;
+
+    private volatile String classPathFingerprint;
+
+
+    public CompilerSession() {
+        this(CompilerSession.class.getClassLoader());
+    }
+
+    public CompilerSession(ClassLoader parent) {
+        this(parent, null);
+    }
+
+    /**
+     * Creates a session with a class cache.
+     *
+     * @param parent     the parent class loader
+     * @param classCache the class cache or null for no cache
+     */
+    public CompilerSession(ClassLoader parent, ClassCache classCache) {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new GeneratorException("No system Java compiler available.");
+        }
+
+        classPath = JavaUtils.getClassPath(parent);
+        classFiles = new ConcurrentHashMap<>();
+        sourceFiles = new ConcurrentHashMap<>();
+        fileManagers = new ConcurrentLinkedQueue<>();
+        allFileManagers = new ConcurrentLinkedQueue<>();
+        classLoader = new MemoryClassLoader(parent, classFiles);
+        compilations = new LongAdder();
+        failedCompilations = new LongAdder();
+        this.classCache = classCache;
+        sourceHashes = new ConcurrentHashMap<>();
+        loadCompilations = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a source for compiling later.
+     *
+     * @param className the class name
+     * @param source    the source
+     */
+    public void addSource(String className, String source) {
+        SourceFile sourceFile = new SourceFile(className, source);
+        if (classCache != null) {
+            sourceHashes.put(className, sourceFile.getHash());
+        }
+        sourceFiles.put(className, sourceFile);
+    }
+
+    /**
+     * Compiles a source into memory. Added sources it references are compiled with it.
+     *
+     * @param className the class name
+     * @param source    the source
+     * @return true if the compilation succeeded
+     */
+    public boolean compile(String className, String source) {
+        SourceFile sourceFile = new SourceFile(className, source);
+        if (classCache != null) {
+            sourceHashes.put(className, sourceFile.getHash());
+        }
+
+        return compile(0, Collections.singletonList(sourceFile)).isSuccess();
+    }
+
+    /**
+     * Compiles all added sources which are not compiled yet in one compilation.
+     *
+     * @return the result
+     */
+    public CompilationResult compilePending() {
+        return compilePending(Collections.emptyList(), Runnable::run, 1);
+    }
+
+    /**
+     * Compiles all added sources which are not compiled yet level by level. Sources from one level must not
+     * depend on each other, so every level is split into partitions compiled concurrently. Sources which are
+     * not in any level are compiled after the last level.
+     *
+     * @param levels             class names split into dependency levels
+     * @param executor           the executor for partitions
+     * @param partitionsPerLevel the maximum number of partitions in one level
+     * @return the result
+     */
+    public CompilationResult compilePending(
+            List<? extends Collection<String>> levels,
+            Executor executor,
+            int partitionsPerLevel
+    ) {
+        long start = System.nanoTime();
+
+        List<PartitionResult> results = new ArrayList<>();
+        Set<String> leveled = new HashSet<>();
+        int levelIndex = 0;
+        for (Collection<String> level : levels) {
+            List<SourceFile> sources = new ArrayList<>();
+            for (String className : level) {
+                SourceFile sourceFile = sourceFiles.get(className);
+                if (sourceFile != null) {
+                    sources.add(sourceFile);
+                }
+                leveled.add(className);
+            }
+            results.addAll(compilePartitions(levelIndex++, sources, executor, partitionsPerLevel));
+        }
+
+        List<SourceFile> rest = sourceFiles.values().stream()
+                .filter(sourceFile -> !leveled.contains(sourceFile.getClassName()))
+                .collect(Collectors.toList());
+        results.addAll(compilePartitions(levelIndex, rest, executor, partitionsPerLevel));
+
+        return new CompilationResult(results, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private List<PartitionResult> compilePartitions(
+            int level,
+            List<SourceFile> sources,
+            Executor executor,
+            int partitionCount
+    ) {
+        if (sources.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // round robin keeps partitions of similar size
+        int count = Math.max(1, Math.min(partitionCount, sources.size()));
+        List<List<SourceFile>> partitions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            partitions.get(i % count).add(sources.get(i));
+        }
+
+        if (partitions.size() == 1) {
+            return Collections.singletonList(compile(level, partitions.get(0)));
+        }
+
+        List<CompletableFuture<PartitionResult>> futures = partitions.stream()
+                .map(partition -> CompletableFuture.supplyAsync(() -> compile(level, partition), executor))
+                .collect(Collectors.toList());
+        try {
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+        } catch (CompletionException e) {
+            throw new GeneratorException("Compilation failed.", e.getCause());
+        }
+    }
+
+    private PartitionResult compile(int level, List<SourceFile> sources) {
+        List<String> classNames = sources.stream()
+                .map(SourceFile::getClassName)
+                .collect(Collectors.toList());
+        String description = classNames.size() == 1
+                ? classNames.get(0)
+                : classNames.size() + " sources";
+
+        long start = System.nanoTime();
+        String cacheKey = null;
+        if (classCache != null) {
+            cacheKey = ClassCache.key(sources.stream()
+                            .collect(Collectors.toMap(SourceFile::getClassName, SourceFile::getHash)),
+                    getClassPathFingerprint(),
+                    OPTIONS);
+            if (loadCached(cacheKey)) {
+                log.info("Compilation of {} loaded from cache", description);
+                return new PartitionResult(level, classNames, true,
+                        Duration.ofNanos(System.nanoTime() - start), Collections.emptyList());
+            }
+        }
+
+        log.info("Compiling source: {}...", description);
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StringWriter output = new StringWriter();
+        MemoryFileManager fileManager = borrowFileManager();
+        CompilationRecorder recorder = CompilationRecorder.start();
+        boolean success;
+        try {
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                    output,
+                    fileManager,
+                    diagnostics,
+                    OPTIONS,
+                    null,
+                    sources
+            );
+            success = task.call();
+        } finally {
+            CompilationRecorder.stop();
+            fileManagers.add(fileManager);
+        }
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+
+        List<CompilerMessage> messages = diagnostics.getDiagnostics().stream()
+                .map(CompilerMessage::of)
+                .collect(Collectors.toList());
+        if (output.getBuffer().length() > 0) {
+            messages.add(new CompilerMessage(
+                    Diagnostic.Kind.OTHER, null, Diagnostic.NOPOS, Diagnostic.NOPOS, output.toString()));
+        }
+
+        compilations.increment();
+        if (success) {
+            log.info("Compilation OK");
+            if (cacheKey != null) {
+                saveCached(cacheKey, recorder);
+            }
+            // sources compiled implicitly are not pending anymore
+            sourceFiles.keySet().removeIf(classFiles::containsKey);
+        } else {
+            failedCompilations.increment();
+            for (CompilerMessage message : messages) {
+                log.warn("Compilation of {} failed: {}", description, message);
+            }
+        }
+
+        return new PartitionResult(level, classNames, success, duration, messages);
+    }
+
+    private boolean loadCached(String key) {
+        Optional<ClassCache.Entry> entry = classCache.get(key);
+        if (!entry.isPresent()) {
+            return false;
+        }
+
+        // generated types the cached classes were compiled against must be the same
+        for (Map.Entry<String, String> dependency : entry.get().getDependencies().entrySet()) {
+            if (!dependency.getValue().equals(sourceHashes.get(dependency.getKey()))) {
+                log.debug("Cached classes are out of date, changed type: {}", dependency.getKey());
+                return false;
+            }
+        }
+
+        for (Map.Entry<String, byte[]> cached : entry.get().getClasses().entrySet()) {
+            classFiles.putIfAbsent(cached.getKey(), new ClassFile(cached.getKey(), cached.getValue()));
+        }
+        sourceFiles.keySet().removeIf(classFiles::containsKey);
+
+        return true;
+    }
+
+    private void saveCached(String key, CompilationRecorder recorder) {
+        Map<String, String> dependencies = new HashMap<>();
+        for (String className : recorder.getReadTypes()) {
+            String topLevelName = topLevelName(className);
+            String hash = sourceHashes.get(topLevelName);
+            if (hash == null) {
+                log.debug("Not caching compilation, unknown source of: {}", className);
+                return;
+            }
+            dependencies.put(topLevelName, hash);
+        }
+
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (ClassFile classFile : recorder.getWrittenClasses().values()) {
+            classes.put(classFile.getClassName(), classFile.getBytecode());
+        }
+
+        classCache.put(key, new ClassCache.Entry(dependencies, classes));
+    }
+
+    private static String topLevelName(String className) {
+        return className.contains("$")
+                ? className.substring(0, className.indexOf('$'))
+                : className;
+    }
+
+    /**
+     * Loads a class compiled in this session or a class visible to the parent class loader. An added source
+     * of the class is compiled first if it's not compiled yet.
+     *
+     * @param className the class name
+     * @return the class
+     */
+    public Class<?> loadClass(String className) {
+        String topLevelName = topLevelName(className);
+        if (sourceFiles.containsKey(topLevelName) && !classFiles.containsKey(topLevelName)) {
+            compileForLoading(topLevelName);
+        }
+
+        try {
+            return Class.forName(className, true, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new GeneratorException(e);
+        }
+    }
+
+    /**
+     * Compiles an added source for loading. Threads loading the same type wait for one compilation.
+     *
+     * @param topLevelName the top level class name
+     */
+    private void compileForLoading(String topLevelName) {
+        CompletableFuture<Void> compilation = new CompletableFuture<>();
+        CompletableFuture<Void> running = loadCompilations.putIfAbsent(topLevelName, compilation);
+        if (running != null) {
+            running.join();
+            return;
+        }
+
+        try {
+            SourceFile sourceFile = sourceFiles.get(topLevelName);
+            // the source could be compiled with another one in the meantime
+            if (sourceFile != null && !classFiles.containsKey(topLevelName)) {
+                compile(0, Collections.singletonList(sourceFile));
+            }
+        } finally {
+            loadCompilations.remove(topLevelName);
+            compilation.complete(null);
+        }
+    }
+
+    /**
+     * Returns names of added sources which are not compiled yet.
+     *
+     * @return the class names
+     */
+    public Set<String> getPendingSources() {
+        return Collections.unmodifiableSet(sourceFiles.keySet());
+    }
+
+    /**
+     * Returns the number of compiler runs.
+     *
+     * @return the compilation count
+     */
+    public long getCompilations() {
+        return compilations.sum();
+    }
+
+    public long getFailedCompilations() {
+        return failedCompilations.sum();
+    }
+
+    /**
+     * Returns the class cache of the session.
+     *
+     * @return the class cache
+     */
+    public Optional<ClassCache> getClassCache() {
+        return Optional.ofNullable(classCache);
+    }
+
+    /**
+     * Returns a fingerprint of the compilation class path. It's computed on the first call, so the class
+     * path must not change during the session.
+     *
+     * @return the fingerprint
+     * @see ClassCache#classPathFingerprint(List)
+     */
+    public String getClassPathFingerprint() {
+        String fingerprint = classPathFingerprint;
+        if (fingerprint == null) {
+            fingerprint = ClassCache.classPathFingerprint(classPath);
+            classPathFingerprint = fingerprint;
+        }
+
+        return fingerprint;
+    }
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    @Override
+    public void close() {
+        classFiles.clear();
+        sourceFiles.clear();
+        sourceHashes.clear();
+        fileManagers.clear();
+
+        IOException exception = null;
+        for (MemoryFileManager fileManager : allFileManagers) {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        allFileManagers.clear();
+
+        if (exception != null) {
+            throw new GeneratorException("Closing compiler session failed.", exception);
+        }
+    }
+
+    private MemoryFileManager borrowFileManager() {
+        MemoryFileManager fileManager = fileManagers.poll();
+        if (fileManager != null) {
+            return fileManager;
+        }
+
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(
+                null, null, StandardCharsets.UTF_8);
+        try {
+            standardFileManager.setLocation(StandardLocation.CLASS_PATH, classPath);
+        } catch (IOException e) {
+            throw new GeneratorException("Setting class path failed.", e);
+        }
+
+        fileManager = new MemoryFileManager(standardFileManager, classFiles, sourceFiles);
+        allFileManagers.add(fileManager);
+
+        return fileManager;
+    }
+}
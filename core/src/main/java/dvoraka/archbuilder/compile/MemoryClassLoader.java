@@ -0,0 +1,34 @@
+package dvoraka.archbuilder.compile;
+
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Class loader for classes compiled into memory.
+ */
+public class MemoryClassLoader extends ClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    private final Map<String, ClassFile> classFiles;
+
+
+    public MemoryClassLoader(ClassLoader parent, Map<String, ClassFile> classFiles) {
+        super(parent);
+        this.classFiles = requireNonNull(classFiles);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        ClassFile classFile = classFiles.get(name);
+        if (classFile == null) {
+            throw new ClassNotFoundException(name);
+        }
+        byte[] bytecode = classFile.getBytecode();
+
+        return defineClass(name, bytecode, 0, bytecode.length);
+    }
+}
@@ -0,0 +1,134 @@
+package dvoraka.archbuilder.compile;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * File manager keeping all compiled classes in memory. Classes compiled earlier are visible on the class path
+ * of later compilations, so generated types can depend on each other without any class files on disk.
+ * Sources not compiled yet are on the source path, so javac compiles them together with a type which
+ * references them.
+ * <p>
+ * The manager itself is not thread-safe but more managers can share one map of compiled classes.
+ */
+public class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    private final Map<String, ClassFile> classFiles;
+    private final Map<String, SourceFile> sourceFiles;
+
+
+    public MemoryFileManager(StandardJavaFileManager fileManager) {
+        this(fileManager, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    public MemoryFileManager(
+            StandardJavaFileManager fileManager,
+            Map<String, ClassFile> classFiles,
+            Map<String, SourceFile> sourceFiles
+    ) {
+        super(fileManager);
+        this.classFiles = requireNonNull(classFiles);
+        this.sourceFiles = requireNonNull(sourceFiles);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(
+            Location location,
+            String className,
+            Kind kind,
+            FileObject sibling
+    ) throws IOException {
+
+        if (location == StandardLocation.CLASS_OUTPUT && kind == Kind.CLASS) {
+            // the class is published only with its bytecode, other compilations and loaders share the map
+            return new ClassFile(className) {
+                @Override
+                protected void written() {
+                    classFiles.put(getClassName(), this);
+                    CompilationRecorder.written(this);
+                }
+            };
+        }
+
+        return super.getJavaFileForOutput(location, className, kind, sibling);
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(
+            Location location,
+            String packageName,
+            Set<Kind> kinds,
+            boolean recurse
+    ) throws IOException {
+
+        Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+        boolean classes = location == StandardLocation.CLASS_PATH && kinds.contains(Kind.CLASS);
+        boolean sources = location == StandardLocation.SOURCE_PATH && kinds.contains(Kind.SOURCE);
+        if (!classes && !sources) {
+            return files;
+        }
+
+        List<JavaFileObject> allFiles = new ArrayList<>();
+        files.forEach(allFiles::add);
+        if (classes) {
+            for (ClassFile classFile : classFiles.values()) {
+                if (isInPackage(classFile.getPackageName(), packageName, recurse)) {
+                    allFiles.add(classFile);
+                }
+            }
+        } else {
+            for (SourceFile sourceFile : sourceFiles.values()) {
+                if (isInPackage(sourceFile.getPackageName(), packageName, recurse)) {
+                    allFiles.add(sourceFile);
+                }
+            }
+        }
+
+        return allFiles;
+    }
+
+    private static boolean isInPackage(String filePackage, String packageName, boolean recurse) {
+        return filePackage.equals(packageName) || (recurse && filePackage.startsWith(packageName + "."));
+    }
+
+    @Override
+    public boolean hasLocation(Location location) {
+        return location == StandardLocation.SOURCE_PATH || super.hasLocation(location);
+    }
+
+    @Override
+    public String inferBinaryName(Location location, JavaFileObject file) {
+        if (file instanceof ClassFile) {
+            return ((ClassFile) file).getClassName();
+        }
+        if (file instanceof SourceFile) {
+            return ((SourceFile) file).getClassName();
+        }
+
+        return super.inferBinaryName(location, file);
+    }
+
+    /**
+     * Returns bytecode of a compiled class.
+     *
+     * @param className the binary class name
+     * @return the bytecode
+     */
+    public Optional<byte[]> getBytecode(String className) {
+        return Optional.ofNullable(classFiles.get(className))
+                .map(ClassFile::getBytecode);
+    }
+}
@@ -0,0 +1,68 @@
+package dvoraka.archbuilder.compile;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of compiling one partition of sources.
+ */
+public final class PartitionResult {
+
+    private final int level;
+    private final List<String> classNames;
+    private final boolean success;
+    private final Duration duration;
+    private final List<CompilerMessage> messages;
+
+
+    public PartitionResult(
+            int level,
+            List<String> classNames,
+            boolean success,
+            Duration duration,
+            List<CompilerMessage> messages
+    ) {
+        this.level = level;
+        this.classNames = Collections.unmodifiableList(classNames);
+        this.success = success;
+        this.duration = duration;
+        this.messages = Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * Returns the dependency level of the partition. Partitions from one level are compiled concurrently.
+     *
+     * @return the level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    public List<String> getClassNames() {
+        return classNames;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public List<CompilerMessage> getMessages() {
+        return messages;
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionResult{" +
+                "level=" + level +
+                ", sources=" + classNames.size() +
+                ", success=" + success +
+                ", duration=" + duration.toMillis() + "ms" +
+                ", messages=" + messages.size() +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package dvoraka.archbuilder.compile;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * Child-first class loader for classes which change while the generator is running, e.g. abstractions
+ * being edited. Classes from its URLs are loaded by the loader itself even if the parent has them too,
+ * so a new loader sees current versions of the classes. The URLs are first on the compiler classpath.
+ */
+public class ReloadableClassLoader extends URLClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    public ReloadableClassLoader(URL[] urls, ClassLoader parent) {
+        super(urls, parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (name.startsWith("java.")) {
+            return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (loadedClass == null) {
+                try {
+                    loadedClass = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    loadedClass = super.loadClass(name, false);
+                }
+            }
+            if (resolve) {
+                resolveClass(loadedClass);
+            }
+
+            return loadedClass;
+        }
+    }
+}
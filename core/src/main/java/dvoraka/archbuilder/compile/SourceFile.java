@@ -0,0 +1,55 @@
+package dvoraka.archbuilder.compile;
+
+import dvoraka.archbuilder.util.Utils;
+
+import javax.tools.SimpleJavaFileObject;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Java source held in memory.
+ */
+public class SourceFile extends SimpleJavaFileObject {
+
+    private final String className;
+    private final String source;
+
+    private volatile String hash;
+
+
+    public SourceFile(String className, String source) {
+        super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+        this.className = requireNonNull(className);
+        this.source = requireNonNull(source);
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getPackageName() {
+        int lastDot = className.lastIndexOf('.');
+        return lastDot == -1 ? "" : className.substring(0, lastDot);
+    }
+
+    /**
+     * Returns a SHA-256 hash of the source.
+     *
+     * @return the hash
+     */
+    public String getHash() {
+        if (hash == null) {
+            hash = Utils.sha256(source.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return hash;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        CompilationRecorder.read(className);
+        return source;
+    }
+}
@@ -0,0 +1,424 @@
+package dvoraka.archbuilder.data;
+
+import dvoraka.archbuilder.exception.GeneratorException;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary format of directory trees.
+ * <p>
+ * A blueprint holds the tree of a directory and all trees it refers to through supertypes and dependencies.
+ * Directories are written in an order where every directory comes after its parent, its previous sibling,
+ * its supertypes and its dependencies, so the reader builds every directory right after reading it and
+ * doesn't need the whole blueprint in memory.
+ * <p>
+ * Numbers are variable-length. Strings are written only once: a string is a reference to the string table
+ * built while writing and reading, and a new string is appended to the table. Texts and docs are not
+ * in the table. A text supplier is saved as the text it supplies when the blueprint is written.
+ */
+public final class BlueprintFormat {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x41424250;
+    private static final int NULL_REFERENCE = 0;
+    private static final int FLAG_ABSTRACT = 1;
+    private static final int BUFFER_SIZE = 8192;
+
+
+    private BlueprintFormat() {
+    }
+
+    /**
+     * Writes a blueprint of a directory.
+     *
+     * @param directory the directory
+     * @param output    the output, it's not closed
+     * @throws IOException if writing fails
+     */
+    public static void write(Directory directory, OutputStream output) throws IOException {
+        List<Directory> directories = order(collect(directory));
+        Map<Directory, Integer> indexes = new IdentityHashMap<>();
+
+        DataOutputStream dataOutput = new DataOutputStream(new BufferedOutputStream(output));
+        Writer writer = new Writer(dataOutput);
+        dataOutput.writeInt(MAGIC);
+        writer.writeNumber(VERSION);
+        writer.writeNumber(directories.size());
+        for (Directory current : directories) {
+            writer.writeString(current.getId());
+            writer.writeString(current.getName());
+            writer.writeString(current.getFilename().orElse(null));
+            writer.writeString(current.getTypeName());
+            writer.writeString(current.getType().name());
+            writer.writeString(current.getIntType().name());
+            writer.writeNumber(current.isAbstractType() ? FLAG_ABSTRACT : 0);
+            writer.writeReference(current.getParent(), indexes);
+            writer.writeNumber(current.getSuperTypes().size());
+            for (Directory superType : current.getSuperTypes()) {
+                writer.writeReference(superType, indexes);
+            }
+            writer.writeNumber(current.getDependencies().size());
+            for (Directory dependency : current.getDependencies()) {
+                writer.writeReference(dependency, indexes);
+            }
+            writer.writeStrings(current.getParameters());
+            writer.writeStrings(current.getMetadata());
+            writer.writeText(current.getTextSupplier() != null
+                    ? current.getTextSupplier().get()
+                    : current.getText());
+            writer.writeText(current.getDoc());
+
+            indexes.put(current, indexes.size());
+        }
+        writer.writeReference(directory, indexes);
+        dataOutput.flush();
+    }
+
+    /**
+     * Reads a blueprint. Nothing after the blueprint is read, so the input can continue with other data.
+     * The input is read in small pieces and it should be buffered.
+     *
+     * @param input the input, it's not closed
+     * @return the directory the blueprint was written for
+     * @throws IOException if reading fails or the blueprint is invalid
+     */
+    public static Directory read(InputStream input) throws IOException {
+        DataInputStream dataInput = new DataInputStream(input);
+        Reader reader = new Reader(dataInput);
+        if (dataInput.readInt() != MAGIC) {
+            throw new IOException("Not a blueprint.");
+        }
+        int version = reader.readNumber();
+        if (version != VERSION) {
+            throw new IOException("Unsupported blueprint version: " + version);
+        }
+
+        int count = reader.readNumber();
+        List<Directory> directories = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            try {
+                directories.add(readDirectory(reader, directories));
+            } catch (GeneratorException | IllegalArgumentException | IllegalStateException
+                    | NullPointerException e) {
+                throw new IOException("Invalid directory in the blueprint.", e);
+            }
+        }
+
+        Directory directory = reader.readReference(directories);
+        if (directory == null) {
+            throw new IOException("No directory in the blueprint.");
+        }
+
+        return directory;
+    }
+
+    private static Directory readDirectory(Reader reader, List<Directory> directories) throws IOException {
+        String id = reader.readString();
+        String name = reader.readString();
+        String filename = reader.readString();
+        String typeName = reader.readString();
+        DirType type = reader.readEnum(DirType.class);
+        Type intType = reader.readEnum(Type.class);
+        boolean abstractType = (reader.readNumber() & FLAG_ABSTRACT) != 0;
+
+        Directory.Builder builder = new Directory.Builder(name, type)
+                .id(id)
+                .parent(reader.readReference(directories));
+        if (typeName != null) {
+            builder.typeName(typeName);
+        }
+        builder.filename(filename)
+                .kind(abstractType, intType);
+
+        int superTypeCount = reader.readNumber();
+        for (int j = 0; j < superTypeCount; j++) {
+            builder.restoredSuperType(reader.readReference(directories));
+        }
+        int dependencyCount = reader.readNumber();
+        for (int j = 0; j < dependencyCount; j++) {
+            builder.dependsOn(reader.readReference(directories));
+        }
+        for (String parameter : reader.readStrings()) {
+            builder.parameterType(parameter);
+        }
+        for (String data : reader.readStrings()) {
+            builder.metadata(data);
+        }
+        builder.text(reader.readText());
+        builder.doc(reader.readText());
+
+        return builder.build();
+    }
+
+    private static List<Directory> collect(Directory directory) {
+        List<Directory> directories = new ArrayList<>();
+        Set<Directory> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Directory> toVisit = new ArrayDeque<>();
+        toVisit.add(directory);
+        while (!toVisit.isEmpty()) {
+            Directory current = toVisit.poll();
+            if (!visited.add(current)) {
+                continue;
+            }
+            directories.add(current);
+
+            if (current.getParent() != null) {
+                toVisit.add(current.getParent());
+            }
+            toVisit.addAll(current.getChildren());
+            toVisit.addAll(current.getSuperTypes());
+            toVisit.addAll(current.getDependencies());
+        }
+
+        return directories;
+    }
+
+    private static List<Directory> order(List<Directory> directories) {
+        // a directory needs its parent, previous sibling, supertypes and dependencies first
+        Map<Directory, List<Directory>> dependents = new IdentityHashMap<>();
+        Map<Directory, Integer> unresolved = new IdentityHashMap<>();
+        Map<Directory, Directory> previousSiblings = new IdentityHashMap<>();
+        for (Directory directory : directories) {
+            List<Directory> children = directory.getChildren();
+            for (int i = 1; i < children.size(); i++) {
+                previousSiblings.put(children.get(i), children.get(i - 1));
+            }
+        }
+
+        for (Directory directory : directories) {
+            Set<Directory> requirements = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (directory.getParent() != null) {
+                requirements.add(directory.getParent());
+            }
+            if (previousSiblings.containsKey(directory)) {
+                requirements.add(previousSiblings.get(directory));
+            }
+            requirements.addAll(directory.getSuperTypes());
+            requirements.addAll(directory.getDependencies());
+
+            unresolved.put(directory, requirements.size());
+            for (Directory requirement : requirements) {
+                dependents.computeIfAbsent(requirement, key -> new ArrayList<>()).add(directory);
+            }
+        }
+
+        List<Directory> ordered = new ArrayList<>(directories.size());
+        Deque<Directory> ready = new ArrayDeque<>();
+        for (Directory directory : directories) {
+            if (unresolved.get(directory) == 0) {
+                ready.add(directory);
+            }
+        }
+        while (!ready.isEmpty()) {
+            Directory directory = ready.poll();
+            ordered.add(directory);
+            for (Directory dependent : dependents.getOrDefault(directory, Collections.emptyList())) {
+                if (unresolved.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (ordered.size() != directories.size()) {
+            throw new GeneratorException("Blueprint can't be written, directories depend on each other.");
+        }
+
+        return ordered;
+    }
+
+    private static final class Writer {
+
+        private final DataOutputStream output;
+        private final Map<String, Integer> strings;
+
+
+        private Writer(DataOutputStream output) {
+            this.output = output;
+            strings = new HashMap<>();
+        }
+
+        private void writeNumber(int number) throws IOException {
+            int value = number;
+            while ((value & ~0x7F) != 0) {
+                output.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            output.writeByte(value);
+        }
+
+        private void writeString(String string) throws IOException {
+            if (string == null) {
+                writeNumber(NULL_REFERENCE);
+                return;
+            }
+
+            Integer index = strings.get(string);
+            if (index != null) {
+                writeNumber(index + 1);
+            } else {
+                // the next table index marks a new string
+                writeNumber(strings.size() + 1);
+                writeBytes(string.getBytes(StandardCharsets.UTF_8));
+                strings.put(string, strings.size());
+            }
+        }
+
+        private void writeStrings(List<String> values) throws IOException {
+            writeNumber(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        private void writeText(String text) throws IOException {
+            if (text == null) {
+                writeNumber(NULL_REFERENCE);
+                return;
+            }
+
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeNumber(bytes.length + 1);
+            output.write(bytes);
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            writeNumber(bytes.length);
+            output.write(bytes);
+        }
+
+        private void writeReference(Directory directory, Map<Directory, Integer> indexes) throws IOException {
+            if (directory == null) {
+                writeNumber(NULL_REFERENCE);
+                return;
+            }
+
+            Integer index = indexes.get(directory);
+            if (index == null) {
+                throw new GeneratorException("Directory is not written yet: " + directory.getName());
+            }
+            writeNumber(index + 1);
+        }
+    }
+
+    private static final class Reader {
+
+        private final DataInputStream input;
+        private final List<String> strings;
+
+
+        private Reader(DataInputStream input) {
+            this.input = input;
+            strings = new ArrayList<>();
+        }
+
+        private int readNumber() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = input.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    // only sizes, indexes and flags are written
+                    if (value < 0) {
+                        break;
+                    }
+                    return value;
+                }
+            }
+
+            throw new IOException("Invalid number in the blueprint.");
+        }
+
+        private <E extends Enum<E>> E readEnum(Class<E> enumType) throws IOException {
+            String name = readString();
+            try {
+                return Enum.valueOf(enumType, String.valueOf(name));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid " + enumType.getSimpleName() + " in the blueprint: " + name, e);
+            }
+        }
+
+        private String readString() throws IOException {
+            int reference = readNumber();
+            if (reference == NULL_REFERENCE) {
+                return null;
+            }
+            if (reference <= strings.size()) {
+                return strings.get(reference - 1);
+            }
+            if (reference != strings.size() + 1) {
+                throw new IOException("Invalid string reference in the blueprint: " + reference);
+            }
+
+            String string = new String(readBytes(readNumber()), StandardCharsets.UTF_8);
+            strings.add(string);
+
+            return string;
+        }
+
+        private List<String> readStrings() throws IOException {
+            int count = readNumber();
+            List<String> values = new ArrayList<>(Math.min(count, 1024));
+            for (int i = 0; i < count; i++) {
+                values.add(readString());
+            }
+
+            return values;
+        }
+
+        private String readText() throws IOException {
+            int length = readNumber();
+            if (length == NULL_REFERENCE) {
+                return null;
+            }
+
+            return new String(readBytes(length - 1), StandardCharsets.UTF_8);
+        }
+
+        private byte[] readBytes(int length) throws IOException {
+            // a length is not trusted, only bytes really in the input are allocated
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.min(length, BUFFER_SIZE));
+            byte[] buffer = new byte[Math.min(length, BUFFER_SIZE)];
+            int remaining = length;
+            while (remaining > 0) {
+                int read = input.read(buffer, 0, Math.min(remaining, buffer.length));
+                if (read < 0) {
+                    throw new EOFException("Blueprint is truncated.");
+                }
+                bytes.write(buffer, 0, read);
+                remaining -= read;
+            }
+
+            return bytes.toByteArray();
+        }
+
+        private Directory readReference(List<Directory> directories) throws IOException {
+            int reference = readNumber();
+            if (reference == NULL_REFERENCE) {
+                return null;
+            }
+            if (reference > directories.size()) {
+                throw new IOException("Invalid directory reference in the blueprint: " + reference);
+            }
+
+            return directories.get(reference - 1);
+        }
+    }
+}
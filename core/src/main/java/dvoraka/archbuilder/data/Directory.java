@@ -11,12 +11,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Supplier;
 
@@ -60,18 +67,77 @@ public class Directory {
 
     private Type intType;
 
+    private volatile boolean frozen;
+    private volatile String cachedPath;
+    private volatile String cachedPackageName;
+    private volatile Integer cachedHashCode;
+    private volatile String cachedContentHash;
+
 
     private Directory() {
-        id = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString());
+    }
+
+    private Directory(String id) {
+        this.id = id;
         children = new ArrayList<>();
     }
 
     private void addChildren(Directory directory) {
+        checkNotFrozen();
         children.add(directory);
     }
 
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new GeneratorException("Directory is frozen: " + getPath());
+        }
+    }
+
+    /**
+     * Freezes the tree of this directory and all trees it refers to through supertypes and dependencies.
+     * A frozen directory can't be changed anymore, so its path, package name, hash code and content hash
+     * are computed only once.
+     */
+    public void freeze() {
+        Set<Directory> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Directory> toVisit = new ArrayDeque<>();
+        toVisit.add(this);
+        while (!toVisit.isEmpty()) {
+            Directory directory = toVisit.poll();
+            if (!visited.add(directory)) {
+                continue;
+            }
+
+            directory.frozen = true;
+            if (directory.parent != null) {
+                toVisit.add(directory.parent);
+            }
+            toVisit.addAll(directory.children);
+            toVisit.addAll(directory.superTypes);
+            toVisit.addAll(directory.dependencies);
+        }
+    }
+
+    @JsonIgnore
+    public boolean isFrozen() {
+        return frozen;
+    }
+
     @JsonIgnore
     public String getPackageName() {
+        if (frozen) {
+            if (cachedPackageName == null) {
+                cachedPackageName = computePackageName();
+            }
+
+            return cachedPackageName;
+        }
+
+        return computePackageName();
+    }
+
+    private String computePackageName() {
         String pkgName;
         if (isBase()) {
             pkgName = path2pkg(getName());
@@ -88,6 +154,18 @@ public class Directory {
 
     @JsonIgnore
     public String getPath() {
+        if (frozen) {
+            if (cachedPath == null) {
+                cachedPath = computePath();
+            }
+
+            return cachedPath;
+        }
+
+        return computePath();
+    }
+
+    private String computePath() {
         String path;
         if (isRoot()) {
             path = getName();
@@ -184,6 +262,7 @@ public class Directory {
     }
 
     public void setTextSupplier(Supplier<String> textSupplier) {
+        checkNotFrozen();
         this.textSupplier = textSupplier;
     }
 
@@ -195,11 +274,107 @@ public class Directory {
         return intType;
     }
 
+    /**
+     * Returns a content hash of the subtree of this directory. The hash is computed bottom-up from
+     * the directory content and hashes of its children, never from IDs or the position in the tree, so
+     * identical subtrees have the same hash in different trees and runs and the hash is usable as a cache key.
+     * Supertypes and dependencies are in the hash by their type names.
+     *
+     * @return the hash
+     */
+    @JsonIgnore
+    public String getContentHash() {
+        String hash = cachedContentHash;
+        if (hash != null) {
+            return hash;
+        }
+
+        // iterative post-order, so deep trees can't overflow the stack
+        Map<Directory, String> hashes = new IdentityHashMap<>();
+        Deque<Directory> toVisit = new ArrayDeque<>();
+        toVisit.push(this);
+        while (!toVisit.isEmpty()) {
+            Directory directory = toVisit.peek();
+            if (directory.cachedContentHash != null) {
+                hashes.put(directory, directory.cachedContentHash);
+                toVisit.pop();
+                continue;
+            }
+
+            boolean childrenDone = true;
+            for (Directory child : directory.children) {
+                if (!hashes.containsKey(child)) {
+                    toVisit.push(child);
+                    childrenDone = false;
+                }
+            }
+            if (childrenDone) {
+                toVisit.pop();
+                String directoryHash = directory.computeContentHash(hashes);
+                if (directory.frozen) {
+                    directory.cachedContentHash = directoryHash;
+                }
+                hashes.put(directory, directoryHash);
+            }
+        }
+
+        return hashes.get(this);
+    }
+
+    private String computeContentHash(Map<Directory, String> childHashes) {
+        MessageDigest digest = Utils.newSha256();
+        update(digest, type.name());
+        update(digest, name);
+        update(digest, filename);
+        update(digest, typeName);
+        update(digest, String.valueOf(abstractType));
+        update(digest, String.valueOf(intType));
+        update(digest, text);
+        update(digest, doc);
+        if (textSupplier != null) {
+            update(digest, textSupplier.get());
+        }
+        update(digest, "parameters:" + parameters.size());
+        parameters.forEach(parameter -> update(digest, parameter));
+        update(digest, "metadata:" + metadata.size());
+        metadata.forEach(data -> update(digest, data));
+        for (Directory superType : superTypes) {
+            update(digest, "super:" + reference(superType));
+        }
+        for (Directory dependency : dependencies) {
+            update(digest, "dependency:" + reference(dependency));
+        }
+        update(digest, "children:" + children.size());
+        for (Directory child : children) {
+            update(digest, childHashes.get(child));
+        }
+
+        return Utils.toHex(digest.digest());
+    }
+
+    private static String reference(Directory directory) {
+        return directory.getTypeName() != null
+                ? directory.getTypeName()
+                : directory.getPath();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            digest.update((byte) 1);
+            digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+            digest.update(bytes);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Directory directory = (Directory) o;
+        if (frozen && directory.frozen && hashCode() != directory.hashCode()) return false;
         return abstractType == directory.abstractType &&
                 intType == directory.intType &&
                 id.equals(directory.id) &&
@@ -218,6 +393,18 @@ public class Directory {
 
     @Override
     public int hashCode() {
+        if (frozen) {
+            if (cachedHashCode == null) {
+                cachedHashCode = computeHashCode();
+            }
+
+            return cachedHashCode;
+        }
+
+        return computeHashCode();
+    }
+
+    private int computeHashCode() {
         return Objects.hash(id, name, filename, typeName, abstractType, intType, type,
                 children, superTypes, dependencies, parameters, text);
     }
@@ -237,6 +424,7 @@ public class Directory {
 
         private final Logger log = LoggerFactory.getLogger(Builder.class);
 
+        private String id;
         private String name;
         private String filename;
         private String typeName;
@@ -393,8 +581,45 @@ public class Directory {
             return metadata(directory.getTypeName());
         }
 
+        /**
+         * Sets an ID of a restored directory.
+         *
+         * @param id the ID
+         * @return the builder
+         */
+        Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+        /**
+         * Sets the type kind of a restored directory exactly as it was.
+         *
+         * @param abstractType the abstract flag
+         * @param intType      the type kind
+         * @return the builder
+         */
+        Builder kind(boolean abstractType, Type intType) {
+            this.abstractType = abstractType;
+            this.intType = intType;
+            return this;
+        }
+
+        /**
+         * Adds a supertype of a restored directory. Dependencies are restored separately.
+         *
+         * @param superType the supertype
+         * @return the builder
+         */
+        Builder restoredSuperType(Directory superType) {
+            this.superTypes.add(superType);
+            return this;
+        }
+
         public Directory build() {
-            Directory directory = new Directory();
+            Directory directory = id != null
+                    ? new Directory(id)
+                    : new Directory();
             directory.name = this.name;
             directory.filename = this.filename;
             directory.typeName = this.typeName;
@@ -0,0 +1,14 @@
+package dvoraka.archbuilder.exception;
+
+/**
+ * Thrown when a generation can't be accepted because all workers and queue places are taken.
+ */
+public class ServerBusyException extends GeneratorException {
+
+    private static final long serialVersionUID = 4187236510724418135L;
+
+
+    public ServerBusyException(String message) {
+        super(message);
+    }
+}
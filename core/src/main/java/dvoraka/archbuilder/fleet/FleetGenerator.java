@@ -0,0 +1,186 @@
+package dvoraka.archbuilder.fleet;
+
+import dvoraka.archbuilder.compile.CompilerSession;
+import dvoraka.archbuilder.data.Directory;
+import dvoraka.archbuilder.generate.GenerationContext;
+import dvoraka.archbuilder.generate.GenerationStats;
+import dvoraka.archbuilder.generate.MainGenerator;
+import dvoraka.archbuilder.module.GenerationRequest;
+import dvoraka.archbuilder.module.ModuleRegistry;
+import dvoraka.archbuilder.output.AsyncSink;
+import dvoraka.archbuilder.output.FileSystemSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Generator of many services in one process. All blueprints are built first and then the services are
+ * generated concurrently by one generator, so the warm JVM, class metadata, the class cache of compiled
+ * sources and the generator executor are shared by all services.
+ * <p>
+ * Every service has its own compiler session because generated types of different services may have
+ * the same names. A failed service doesn't stop the others and it's only recorded in the report.
+ */
+public class FleetGenerator {
+
+    private final Logger log = LoggerFactory.getLogger(FleetGenerator.class);
+
+    private final MainGenerator generator;
+    private final ModuleRegistry modules;
+
+
+    public FleetGenerator(MainGenerator generator, ModuleRegistry modules) {
+        this.generator = requireNonNull(generator);
+        this.modules = requireNonNull(modules);
+    }
+
+    /**
+     * Generates all services from a manifest under an output directory.
+     *
+     * @param manifest    the manifest
+     * @param outputDir   the output directory for service root directories
+     * @param parallelism the number of services generated at once
+     * @return the report
+     */
+    public FleetReport generate(FleetManifest manifest, Path outputDir, int parallelism) {
+        requireNonNull(outputDir);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive.");
+        }
+
+        long start = System.nanoTime();
+        List<Service> services = build(manifest.getRequests());
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new WorkerFactory());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Service service : services) {
+                if (service.error == null) {
+                    futures.add(executor.submit(() -> generate(service, outputDir)));
+                }
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // service failures are recorded in tasks, only errors get here
+                    log.error("Fleet generation failed", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        } finally {
+            executor.shutdown();
+        }
+
+        List<FleetReport.ServiceResult> results = new ArrayList<>(services.size());
+        for (Service service : services) {
+            results.add(service.result());
+        }
+        FleetReport report = new FleetReport(results,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Fleet generated: {}", report);
+
+        return report;
+    }
+
+    private List<Service> build(List<GenerationRequest> requests) {
+        List<Service> services = new ArrayList<>(requests.size());
+        Set<String> rootDirNames = new HashSet<>();
+        for (GenerationRequest request : requests) {
+            Service service = new Service(request);
+            long start = System.nanoTime();
+            try {
+                service.root = modules.build(request);
+                service.name = service.root.getName();
+                // services with the same root directory would overwrite each other
+                if (!rootDirNames.add(service.name)) {
+                    service.error = "Duplicate root directory: " + service.name;
+                }
+            } catch (RuntimeException e) {
+                service.error = String.valueOf(e.getMessage());
+            }
+            service.buildNanos = System.nanoTime() - start;
+            services.add(service);
+        }
+
+        return services;
+    }
+
+    private void generate(Service service, Path outputDir) {
+        long start = System.nanoTime();
+        CompilerSession session = new CompilerSession(
+                CompilerSession.class.getClassLoader(), generator.getClassCache());
+        try (GenerationContext context = new GenerationContext(
+                session, new AsyncSink(new FileSystemSink(outputDir)))) {
+            generator.generate(service.root, context);
+            GenerationStats stats = context.getStats();
+            service.files = stats.getWrittenFiles() + stats.getUnchangedFiles();
+        } catch (RuntimeException e) {
+            log.warn("Service generation failed: {}", service.name, e);
+            service.error = String.valueOf(e.getMessage());
+        }
+        service.generationNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Mutable state of one service. Fields are written by one task and read after the task is finished.
+     */
+    private static final class Service {
+
+        private final GenerationRequest request;
+
+        private String name;
+        private Directory root;
+        private long buildNanos;
+        private volatile long generationNanos;
+        private volatile long files;
+        private volatile String error;
+
+
+        private Service(GenerationRequest request) {
+            this.request = request;
+            name = request.getRootDirName();
+        }
+
+        private FleetReport.ServiceResult result() {
+            return new FleetReport.ServiceResult(
+                    String.valueOf(name),
+                    request.getModule(),
+                    TimeUnit.NANOSECONDS.toMillis(buildNanos),
+                    TimeUnit.NANOSECONDS.toMillis(generationNanos),
+                    files,
+                    error
+            );
+        }
+    }
+
+    private static final class WorkerFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "fleet-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package dvoraka.archbuilder.fleet;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dvoraka.archbuilder.exception.GeneratorException;
+import dvoraka.archbuilder.module.GenerationRequest;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * List of services for a fleet generation. The format is chosen by the file extension:
+ * <ul>
+ * <li>JSON and YAML - a list of generation requests</li>
+ * <li>CSV - a header line and one service per line, columns <code>module</code>, <code>rootDirName</code>,
+ * <code>packageName</code> and <code>serviceName</code> are request names and other columns are
+ * builder properties, lines starting with <code>#</code> are comments</li>
+ * </ul>
+ */
+public final class FleetManifest {
+
+    private static final TypeReference<List<GenerationRequest>> REQUEST_LIST =
+            new TypeReference<List<GenerationRequest>>() {
+            };
+
+    private final List<GenerationRequest> requests;
+
+
+    public FleetManifest(List<GenerationRequest> requests) {
+        this.requests = Collections.unmodifiableList(new ArrayList<>(requireNonNull(requests)));
+    }
+
+    /**
+     * Reads a manifest from a file.
+     *
+     * @param file         the manifest file
+     * @param objectMapper the object mapper for requests
+     * @return the manifest
+     * @throws GeneratorException if reading fails or the format is unknown
+     */
+    public static FleetManifest read(Path file, ObjectMapper objectMapper) {
+        String fileName = String.valueOf(file.getFileName()).toLowerCase(Locale.ROOT);
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (fileName.endsWith(".json")) {
+                return new FleetManifest(objectMapper.readValue(reader, REQUEST_LIST));
+            } else if (fileName.endsWith(".yml") || fileName.endsWith(".yaml")) {
+                // only standard YAML types, global tags must not create any classes
+                Object list = new Yaml(new SafeConstructor()).load(reader);
+                if (list == null) {
+                    return new FleetManifest(Collections.emptyList());
+                }
+                return new FleetManifest(objectMapper.convertValue(list, REQUEST_LIST));
+            } else if (fileName.endsWith(".csv")) {
+                return new FleetManifest(parseCsv(Files.readAllLines(file, StandardCharsets.UTF_8)));
+            }
+        } catch (IOException | IllegalArgumentException | YAMLException e) {
+            throw new GeneratorException("Reading fleet manifest failed: " + file, e);
+        }
+
+        throw new GeneratorException("Unknown fleet manifest format: " + file);
+    }
+
+    private static List<GenerationRequest> parseCsv(List<String> lines) {
+        List<GenerationRequest> requests = new ArrayList<>();
+        String[] header = null;
+        for (String line : lines) {
+            if (line.trim().isEmpty() || line.trim().startsWith("#")) {
+                continue;
+            }
+            String[] columns = split(line);
+            if (header == null) {
+                header = columns;
+                continue;
+            }
+            if (columns.length > header.length) {
+                throw new IllegalArgumentException("Too many columns: " + line);
+            }
+
+            GenerationRequest request = new GenerationRequest();
+            for (int i = 0; i < columns.length; i++) {
+                if (!columns[i].isEmpty()) {
+                    setColumn(request, header[i], columns[i]);
+                }
+            }
+            requests.add(request);
+        }
+
+        return requests;
+    }
+
+    private static String[] split(String line) {
+        String[] columns = line.split(",", -1);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = columns[i].trim();
+        }
+
+        return columns;
+    }
+
+    private static void setColumn(GenerationRequest request, String column, String value) {
+        switch (column) {
+            case "module":
+                request.setModule(value);
+                break;
+            case "rootDirName":
+                request.setRootDirName(value);
+                break;
+            case "packageName":
+                request.setPackageName(value);
+                break;
+            case "serviceName":
+                request.setServiceName(value);
+                break;
+            default:
+                request.getProperties().put(column, value);
+        }
+    }
+
+    public List<GenerationRequest> getRequests() {
+        return requests;
+    }
+
+    @Override
+    public String toString() {
+        return "FleetManifest{" +
+                "requests=" + requests.size() +
+                '}';
+    }
+}
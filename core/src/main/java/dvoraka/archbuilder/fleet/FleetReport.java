@@ -0,0 +1,165 @@
+package dvoraka.archbuilder.fleet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Summary of a fleet generation with timings of every service.
+ */
+public final class FleetReport {
+
+    private final List<ServiceResult> results;
+    private final long wallTimeMillis;
+
+
+    public FleetReport(List<ServiceResult> results, long wallTimeMillis) {
+        this.results = Collections.unmodifiableList(new ArrayList<>(requireNonNull(results)));
+        this.wallTimeMillis = wallTimeMillis;
+    }
+
+    public List<ServiceResult> getResults() {
+        return results;
+    }
+
+    public long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    /**
+     * Returns the sum of build and generation times of all services. Compared with the wall time it shows
+     * how much the services overlapped.
+     *
+     * @return the time in milliseconds
+     */
+    public long getTotalServiceTimeMillis() {
+        long total = 0;
+        for (ServiceResult result : results) {
+            total += result.getBuildMillis() + result.getGenerationMillis();
+        }
+
+        return total;
+    }
+
+    public long getFailed() {
+        return results.stream()
+                .filter(result -> !result.isSuccess())
+                .count();
+    }
+
+    public boolean isSuccess() {
+        return getFailed() == 0;
+    }
+
+    /**
+     * Formats the report as a table with one service per line.
+     *
+     * @return the table
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        String lineFormat = "%-30s %-20s %10s %10s %8s  %s%n";
+        builder.append(String.format(Locale.ROOT, lineFormat,
+                "SERVICE", "MODULE", "BUILD ms", "GEN ms", "FILES", "RESULT"));
+        for (ServiceResult result : results) {
+            builder.append(String.format(Locale.ROOT, lineFormat,
+                    result.getName(),
+                    result.getModule(),
+                    result.getBuildMillis(),
+                    result.getGenerationMillis(),
+                    result.getFiles(),
+                    result.isSuccess() ? "OK" : "FAILED: " + result.getError()));
+        }
+        builder.append(String.format(Locale.ROOT, "%d services, %d failed, wall time %d ms, service time %d ms%n",
+                results.size(), getFailed(), wallTimeMillis, getTotalServiceTimeMillis()));
+
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "FleetReport{" +
+                "services=" + results.size() +
+                ", failed=" + getFailed() +
+                ", wallTimeMillis=" + wallTimeMillis +
+                '}';
+    }
+
+    /**
+     * Result of one service.
+     */
+    public static final class ServiceResult {
+
+        private final String name;
+        private final String module;
+        private final long buildMillis;
+        private final long generationMillis;
+        private final long files;
+        private final String error;
+
+
+        public ServiceResult(
+                String name,
+                String module,
+                long buildMillis,
+                long generationMillis,
+                long files,
+                String error
+        ) {
+            this.name = name;
+            this.module = module;
+            this.buildMillis = buildMillis;
+            this.generationMillis = generationMillis;
+            this.files = files;
+            this.error = error;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getModule() {
+            return module;
+        }
+
+        public long getBuildMillis() {
+            return buildMillis;
+        }
+
+        public long getGenerationMillis() {
+            return generationMillis;
+        }
+
+        public long getFiles() {
+            return files;
+        }
+
+        /**
+         * Returns the error message of a failed service.
+         *
+         * @return the message or null
+         */
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            return "ServiceResult{" +
+                    "name='" + name + '\'' +
+                    ", module='" + module + '\'' +
+                    ", buildMillis=" + buildMillis +
+                    ", generationMillis=" + generationMillis +
+                    ", files=" + files +
+                    ", error='" + error + '\'' +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package dvoraka.archbuilder.generate;
+
+import com.squareup.javapoet.TypeVariableName;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-resolved reflection metadata of one class. Everything is computed once and shared, so the lists
+ * are unmodifiable. Parameter names of indexed classes are taken from the type index, so they are known even
+ * for classes compiled without them.
+ *
+ * @see ClassMetadataCache
+ * @see TypeIndex
+ */
+public final class ClassMetadata {
+
+    private final List<Method> methods;
+    private final List<Constructor<?>> declaredConstructors;
+    private final List<TypeVariable<?>> typeParameters;
+    private final List<TypeVariableName> typeVariableNames;
+    private final List<ParameterizedType> genericSuperTypes;
+    private final TypeIndex.Entry indexEntry;
+
+    private volatile List<Method> mergedMethods;
+
+
+    ClassMetadata(Class<?> clazz) {
+        methods = Collections.unmodifiableList(findMethods(clazz));
+        declaredConstructors = Collections.unmodifiableList(Arrays.asList(clazz.getDeclaredConstructors()));
+        typeParameters = Collections.unmodifiableList(Arrays.asList(clazz.getTypeParameters()));
+        typeVariableNames = Collections.unmodifiableList(typeParameters.stream()
+                .map(TypeVariableName::get)
+                .collect(Collectors.toList()));
+        genericSuperTypes = Collections.unmodifiableList(findGenericSuperTypes(clazz, new ArrayList<>()));
+        indexEntry = TypeIndex.of(clazz).find(clazz).orElse(null);
+    }
+
+    private static List<Method> findMethods(Class<?> clazz) {
+
+        // find protected methods
+        List<Method> protectedMethods = Arrays.stream(clazz.getDeclaredMethods())
+                .filter(method -> Modifier.isProtected(method.getModifiers()))
+                .collect(Collectors.toList());
+
+        // find public methods
+        List<Method> publicMethods = Arrays.asList(clazz.getMethods());
+
+        List<Method> allMethods = new ArrayList<>();
+        allMethods.addAll(protectedMethods);
+        allMethods.addAll(publicMethods);
+
+        return allMethods;
+    }
+
+    private static List<ParameterizedType> findGenericSuperTypes(Class<?> clazz, List<ParameterizedType> found) {
+
+        // from implemented interfaces
+        for (Type iface : clazz.getGenericInterfaces()) {
+            if (iface instanceof ParameterizedType) {
+                ParameterizedType paramIface = (ParameterizedType) iface;
+                found.add(paramIface);
+                findGenericSuperTypes((Class<?>) paramIface.getRawType(), found);
+            }
+        }
+
+        // from superclass
+        Type superClass = clazz.getGenericSuperclass();
+        if (superClass instanceof ParameterizedType) {
+            ParameterizedType paramSuperClass = (ParameterizedType) superClass;
+            found.add(paramSuperClass);
+            findGenericSuperTypes((Class<?>) paramSuperClass.getRawType(), found);
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns protected declared methods and all public methods.
+     *
+     * @return the methods
+     */
+    public List<Method> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Returns methods merged with a given function. The result is computed only once.
+     *
+     * @param merger the merging function
+     * @return the merged methods
+     */
+    public List<Method> getMergedMethods(Function<List<Method>, List<Method>> merger) {
+        List<Method> merged = mergedMethods;
+        if (merged == null) {
+            merged = Collections.unmodifiableList(merger.apply(methods));
+            mergedMethods = merged;
+        }
+
+        return merged;
+    }
+
+    public List<Constructor<?>> getDeclaredConstructors() {
+        return declaredConstructors;
+    }
+
+    public List<TypeVariable<?>> getTypeParameters() {
+        return typeParameters;
+    }
+
+    public List<TypeVariableName> getTypeVariableNames() {
+        return typeVariableNames;
+    }
+
+    /**
+     * Returns all parameterized supertypes in depth-first order. Every interface is followed by its own
+     * supertypes and the superclass goes after interfaces.
+     *
+     * @return the parameterized supertypes
+     */
+    public List<ParameterizedType> getGenericSuperTypes() {
+        return genericSuperTypes;
+    }
+
+    /**
+     * Returns true if the class is in the type index.
+     *
+     * @return true for an indexed class
+     */
+    public boolean isIndexed() {
+        return indexEntry != null;
+    }
+
+    private Optional<TypeIndex.Member> indexed(Executable executable) {
+        return indexEntry != null ? indexEntry.find(executable) : Optional.empty();
+    }
+
+    /**
+     * Returns parameter names of a method or a constructor declared in the class. Names of classes compiled
+     * without parameter names are available only from the type index.
+     *
+     * @param executable the method or the constructor
+     * @return the names
+     */
+    public List<String> getParameterNames(Executable executable) {
+        Optional<List<String>> indexedNames = indexed(executable)
+                .map(TypeIndex.Member::getParameterNames)
+                .filter(names -> names.size() == executable.getParameterCount());
+        if (indexedNames.isPresent()) {
+            return indexedNames.get();
+        }
+
+        return Arrays.stream(executable.getParameters())
+                .map(Parameter::getName)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,60 @@
+package dvoraka.archbuilder.generate;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe cache of class metadata shared by all generations. Metadata are stored with the class
+ * itself, so they don't prevent class loaders of generated classes from unloading.
+ */
+public final class ClassMetadataCache {
+
+    private static final ClassMetadataCache INSTANCE = new ClassMetadataCache();
+
+    private final LongAdder lookups;
+    private final LongAdder misses;
+    private final ClassValue<ClassMetadata> metadata;
+
+
+    ClassMetadataCache() {
+        lookups = new LongAdder();
+        misses = new LongAdder();
+        metadata = new ClassValue<ClassMetadata>() {
+            @Override
+            protected ClassMetadata computeValue(Class<?> type) {
+                misses.increment();
+                return new ClassMetadata(type);
+            }
+        };
+    }
+
+    public static ClassMetadataCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns metadata for a class.
+     *
+     * @param clazz the class
+     * @return the metadata
+     */
+    public ClassMetadata get(Class<?> clazz) {
+        lookups.increment();
+        return metadata.get(clazz);
+    }
+
+    public long getHits() {
+        return lookups.sum() - misses.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ClassMetadataCache{" +
+                "hits=" + getHits() +
+                ", misses=" + getMisses() +
+                '}';
+    }
+}
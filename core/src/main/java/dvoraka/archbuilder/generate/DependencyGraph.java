@@ -0,0 +1,229 @@
+package dvoraka.archbuilder.generate;
+
+import dvoraka.archbuilder.data.DirType;
+import dvoraka.archbuilder.data.Directory;
+import dvoraka.archbuilder.exception.GeneratorException;
+import dvoraka.archbuilder.service.DirService;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Dependency graph of directories. Edges come from dependencies, supertypes and parameter types.
+ * Directories are split into levels where a directory depends only on directories from previous levels,
+ * so all directories from one level can be generated concurrently. Spring configurations are always
+ * in the last level.
+ */
+public final class DependencyGraph {
+
+    private final Map<Directory, Set<Directory>> dependencies;
+    private final List<List<Directory>> levels;
+
+
+    private DependencyGraph(Map<Directory, Set<Directory>> dependencies) {
+        this.dependencies = dependencies;
+        this.levels = computeLevels(dependencies);
+    }
+
+    /**
+     * Builds a graph for a directory and everything it depends on.
+     *
+     * @param directory  the directory
+     * @param dirService the directory service
+     * @return the graph
+     * @throws GeneratorException if there is a dependency cycle
+     */
+    public static DependencyGraph build(Directory directory, DirService dirService) {
+        return build(Collections.singletonList(directory), dirService);
+    }
+
+    /**
+     * Builds a graph for directories and everything they depend on.
+     *
+     * @param directories the directories
+     * @param dirService  the directory service
+     * @return the graph
+     * @throws GeneratorException if there is a dependency cycle
+     */
+    public static DependencyGraph build(Collection<Directory> directories, DirService dirService) {
+
+        // all directories from the trees and everything they depend on outside the trees
+        Set<Directory> nodes = new LinkedHashSet<>();
+        for (Directory directory : directories) {
+            dirService.processDirs(directory, nodes::add);
+        }
+        Deque<Directory> toVisit = new ArrayDeque<>(nodes);
+        while (!toVisit.isEmpty()) {
+            Directory node = toVisit.poll();
+            for (Directory dependency : directDependencies(node)) {
+                if (nodes.add(dependency)) {
+                    toVisit.add(dependency);
+                }
+            }
+        }
+
+        // generated types referenced by type name
+        Map<String, Directory> typeNames = new HashMap<>();
+        for (Directory node : nodes) {
+            if (node.getTypeName() != null && !node.getType().isAbstract()) {
+                typeNames.putIfAbsent(node.getTypeName(), node);
+            }
+        }
+
+        Map<Directory, Set<Directory>> dependencies = new LinkedHashMap<>();
+        for (Directory node : nodes) {
+            Set<Directory> nodeDependencies = new LinkedHashSet<>(directDependencies(node));
+            for (String parameter : node.getParameters()) {
+                Directory parameterDir = typeNames.get(parameter);
+                if (parameterDir != null && parameterDir != node) {
+                    nodeDependencies.add(parameterDir);
+                }
+            }
+
+            for (Directory dependency : nodeDependencies) {
+                if (node.getType() == DirType.SPRING_CONFIG
+                        || dependency.getType() == DirType.SPRING_CONFIG) {
+                    throw new GeneratorException("Spring config must not have any dependencies.");
+                }
+            }
+
+            dependencies.put(node, nodeDependencies);
+        }
+
+        return new DependencyGraph(dependencies);
+    }
+
+    private static Set<Directory> directDependencies(Directory directory) {
+        Set<Directory> directDependencies = new LinkedHashSet<>(directory.getDependencies());
+        directDependencies.addAll(directory.getSuperTypes());
+
+        return directDependencies;
+    }
+
+    private static List<List<Directory>> computeLevels(Map<Directory, Set<Directory>> dependencies) {
+
+        Map<Directory, Integer> unresolved = new HashMap<>();
+        Map<Directory, List<Directory>> dependents = new HashMap<>();
+        List<Directory> current = new ArrayList<>();
+        List<Directory> springConfigs = new ArrayList<>();
+
+        for (Map.Entry<Directory, Set<Directory>> entry : dependencies.entrySet()) {
+            Directory node = entry.getKey();
+            if (node.getType() == DirType.SPRING_CONFIG) {
+                springConfigs.add(node);
+                continue;
+            }
+
+            unresolved.put(node, entry.getValue().size());
+            for (Directory dependency : entry.getValue()) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(node);
+            }
+            if (entry.getValue().isEmpty()) {
+                current.add(node);
+            }
+        }
+
+        List<List<Directory>> levels = new ArrayList<>();
+        int resolvedCount = 0;
+        while (!current.isEmpty()) {
+            levels.add(Collections.unmodifiableList(current));
+            resolvedCount += current.size();
+
+            List<Directory> next = new ArrayList<>();
+            for (Directory node : current) {
+                for (Directory dependent : dependents.getOrDefault(node, Collections.emptyList())) {
+                    int count = unresolved.merge(dependent, -1, Integer::sum);
+                    if (count == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            current = next;
+        }
+
+        if (resolvedCount != unresolved.size()) {
+            throw new GeneratorException("Dependency cycle found: " + findCycle(dependencies, unresolved));
+        }
+
+        if (!springConfigs.isEmpty()) {
+            levels.add(Collections.unmodifiableList(springConfigs));
+        }
+
+        return Collections.unmodifiableList(levels);
+    }
+
+    private static String findCycle(
+            Map<Directory, Set<Directory>> dependencies,
+            Map<Directory, Integer> unresolved
+    ) {
+
+        // every unresolved directory depends on another unresolved one, so the walk must end in a cycle
+        Directory node = unresolved.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow(() -> new GeneratorException("No unresolved directory."));
+
+        List<Directory> path = new ArrayList<>();
+        Set<Directory> visited = new HashSet<>();
+        while (visited.add(node)) {
+            path.add(node);
+            node = dependencies.get(node).stream()
+                    .filter(dependency -> unresolved.getOrDefault(dependency, 0) > 0)
+                    .findFirst()
+                    .orElseThrow(() -> new GeneratorException("Cycle search failed."));
+        }
+
+        List<Directory> cycle = new ArrayList<>(path.subList(path.indexOf(node), path.size()));
+        cycle.add(node);
+
+        return cycle.stream()
+                .map(DependencyGraph::displayName)
+                .collect(Collectors.joining(" -> "));
+    }
+
+    private static String displayName(Directory directory) {
+        return directory.getTypeName() != null
+                ? directory.getTypeName()
+                : directory.getPath();
+    }
+
+    /**
+     * Returns directories split into levels in generation order.
+     *
+     * @return the levels
+     */
+    public List<List<Directory>> getLevels() {
+        return levels;
+    }
+
+    /**
+     * Returns all direct dependencies of a directory in the graph.
+     *
+     * @param directory the directory
+     * @return the dependencies
+     */
+    public Set<Directory> getDependencies(Directory directory) {
+        return Collections.unmodifiableSet(dependencies.getOrDefault(directory, Collections.emptySet()));
+    }
+
+    /**
+     * Returns all directories in the graph.
+     *
+     * @return the directories
+     */
+    public Set<Directory> getDirectories() {
+        return Collections.unmodifiableSet(dependencies.keySet());
+    }
+}
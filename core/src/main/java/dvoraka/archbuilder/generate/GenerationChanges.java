@@ -0,0 +1,99 @@
+package dvoraka.archbuilder.generate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Files added, changed, removed and left unchanged by an incremental generation.
+ */
+public final class GenerationChanges {
+
+    private final List<Path> added;
+    private final List<Path> changed;
+    private final List<Path> removed;
+    private final List<Path> unchanged;
+
+
+    private GenerationChanges(Builder builder) {
+        added = sorted(builder.added);
+        changed = sorted(builder.changed);
+        removed = sorted(builder.removed);
+        unchanged = sorted(builder.unchanged);
+    }
+
+    public static GenerationChanges none() {
+        return new Builder().build();
+    }
+
+    private static List<Path> sorted(List<Path> paths) {
+        List<Path> sortedPaths = new ArrayList<>(paths);
+        Collections.sort(sortedPaths);
+
+        return Collections.unmodifiableList(sortedPaths);
+    }
+
+    public List<Path> getAdded() {
+        return added;
+    }
+
+    public List<Path> getChanged() {
+        return changed;
+    }
+
+    public List<Path> getRemoved() {
+        return removed;
+    }
+
+    public List<Path> getUnchanged() {
+        return unchanged;
+    }
+
+    public boolean hasChanges() {
+        return !added.isEmpty() || !changed.isEmpty() || !removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationChanges{" +
+                "added=" + added.size() +
+                ", changed=" + changed.size() +
+                ", removed=" + removed.size() +
+                ", unchanged=" + unchanged.size() +
+                '}';
+    }
+
+    public static class Builder {
+
+        private final List<Path> added = new ArrayList<>();
+        private final List<Path> changed = new ArrayList<>();
+        private final List<Path> removed = new ArrayList<>();
+        private final List<Path> unchanged = new ArrayList<>();
+
+
+        public Builder added(Path path) {
+            added.add(path);
+            return this;
+        }
+
+        public Builder changed(Path path) {
+            changed.add(path);
+            return this;
+        }
+
+        public Builder removed(Path path) {
+            removed.add(path);
+            return this;
+        }
+
+        public Builder unchanged(Path path) {
+            unchanged.add(path);
+            return this;
+        }
+
+        public GenerationChanges build() {
+            return new GenerationChanges(this);
+        }
+    }
+}
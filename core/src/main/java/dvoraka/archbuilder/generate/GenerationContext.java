@@ -0,0 +1,166 @@
+package dvoraka.archbuilder.generate;
+
+import dvoraka.archbuilder.compile.CompilationResult;
+import dvoraka.archbuilder.compile.CompilerSession;
+import dvoraka.archbuilder.data.Directory;
+import dvoraka.archbuilder.output.AsyncSink;
+import dvoraka.archbuilder.output.FileSystemSink;
+import dvoraka.archbuilder.output.OutputSink;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * State of one generation. Generators are stateless and get the context with every call, so one generator
+ * instance can run many generations concurrently. Everything the context holds is released when it's closed.
+ */
+public class GenerationContext implements AutoCloseable {
+
+    private final CompilerSession compilerSession;
+    private final OutputSink sink;
+    private final Set<Directory> processedDirs;
+    private final GenerationStats stats;
+    private final GenerationManifest manifest;
+
+    private volatile GenerationManifest previousManifest;
+    private volatile GenerationChanges changes;
+    private volatile CompilationResult verification;
+
+
+    public GenerationContext() {
+        this(new CompilerSession());
+    }
+
+    /**
+     * Creates a context writing files relative to the working directory in background writers.
+     *
+     * @param compilerSession the compiler session
+     */
+    public GenerationContext(CompilerSession compilerSession) {
+        this(compilerSession, new AsyncSink(FileSystemSink.local()));
+    }
+
+    public GenerationContext(OutputSink sink) {
+        this(new CompilerSession(), sink);
+    }
+
+    /**
+     * Creates a context. The context owns the sink and closes it with itself.
+     *
+     * @param compilerSession the compiler session
+     * @param sink            the output sink for generated files
+     */
+    public GenerationContext(CompilerSession compilerSession, OutputSink sink) {
+        this.compilerSession = requireNonNull(compilerSession);
+        this.sink = requireNonNull(sink);
+        processedDirs = ConcurrentHashMap.newKeySet();
+        stats = new GenerationStats();
+        manifest = new GenerationManifest();
+        previousManifest = new GenerationManifest();
+        changes = GenerationChanges.none();
+        verification = CompilationResult.empty();
+    }
+
+    /**
+     * Marks a directory as processed.
+     *
+     * @param directory the directory
+     * @return true if the directory was not processed yet
+     */
+    public boolean markProcessed(Directory directory) {
+        return processedDirs.add(directory);
+    }
+
+    public boolean isProcessed(Directory directory) {
+        return processedDirs.contains(directory);
+    }
+
+    /**
+     * Loads a class generated in this context or a class visible to the generator.
+     *
+     * @param className the class name
+     * @return the class
+     */
+    public Class<?> loadClass(String className) {
+        return compilerSession.loadClass(className);
+    }
+
+    public CompilerSession getCompilerSession() {
+        return compilerSession;
+    }
+
+    /**
+     * Returns the sink all generated files go to.
+     *
+     * @return the output sink
+     */
+    public OutputSink getSink() {
+        return sink;
+    }
+
+    public GenerationStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the manifest of files generated in this context.
+     *
+     * @return the manifest
+     */
+    public GenerationManifest getManifest() {
+        return manifest;
+    }
+
+    /**
+     * Returns the manifest of the previous generation. Files with the same content are not written again.
+     * The manifest is empty if the generation is not incremental.
+     *
+     * @return the previous manifest
+     */
+    public GenerationManifest getPreviousManifest() {
+        return previousManifest;
+    }
+
+    public void setPreviousManifest(GenerationManifest previousManifest) {
+        this.previousManifest = requireNonNull(previousManifest);
+    }
+
+    /**
+     * Returns file changes of an incremental generation.
+     *
+     * @return the changes
+     */
+    public GenerationChanges getChanges() {
+        return changes;
+    }
+
+    public void setChanges(GenerationChanges changes) {
+        this.changes = requireNonNull(changes);
+    }
+
+    /**
+     * Returns the result of the final verification compilation. The result is empty if there was no
+     * verification.
+     *
+     * @return the verification result
+     */
+    public CompilationResult getVerification() {
+        return verification;
+    }
+
+    public void setVerification(CompilationResult verification) {
+        this.verification = requireNonNull(verification);
+    }
+
+    @Override
+    public void close() {
+        processedDirs.clear();
+        try {
+            sink.close();
+        } finally {
+            compilerSession.close();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package dvoraka.archbuilder.generate;
+
+import dvoraka.archbuilder.data.Directory;
+import dvoraka.archbuilder.util.Utils;
+
+import dvoraka.archbuilder.output.FileSystemSink;
+import dvoraka.archbuilder.output.OutputSink;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Manifest of a generated project. It holds a content hash for every generated file and a fingerprint
+ * of the blueprint the project was generated from. The manifest is saved in the project root directory
+ * and the next incremental generation uses it for skipping unchanged files.
+ */
+public class GenerationManifest {
+
+    public static final String FILENAME = ".archbuilder-manifest";
+
+    private static final String FINGERPRINT_PREFIX = "# fingerprint ";
+    private static final String HASH_SEPARATOR = "  ";
+
+    private final Map<Path, String> hashes;
+
+    private volatile String fingerprint;
+
+
+    public GenerationManifest() {
+        hashes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Loads a manifest from a project root directory.
+     *
+     * @param root the project root directory
+     * @return the manifest or an empty manifest if there is none
+     */
+    public static GenerationManifest load(Path root) {
+        return load(root, FileSystemSink.local());
+    }
+
+    /**
+     * Loads a manifest from a project root directory in an output sink.
+     *
+     * @param root the project root directory
+     * @param sink the output sink
+     * @return the manifest or an empty manifest if there is none
+     */
+    public static GenerationManifest load(Path root, OutputSink sink) {
+        GenerationManifest manifest = new GenerationManifest();
+        Optional<byte[]> content = sink.read(root.resolve(FILENAME));
+        if (!content.isPresent()) {
+            return manifest;
+        }
+
+        String[] lines = new String(content.get(), StandardCharsets.UTF_8).split("\\R");
+        for (String line : lines) {
+            if (line.startsWith(FINGERPRINT_PREFIX)) {
+                manifest.setFingerprint(line.substring(FINGERPRINT_PREFIX.length()));
+            } else if (line.contains(HASH_SEPARATOR)) {
+                int separator = line.indexOf(HASH_SEPARATOR);
+                Path path = root.resolve(line.substring(separator + HASH_SEPARATOR.length()));
+                manifest.hashes.put(path.normalize(), line.substring(0, separator));
+            }
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Saves the manifest into a project root directory. Paths are saved relative to the root.
+     *
+     * @param root the project root directory
+     */
+    public void save(Path root) {
+        save(root, FileSystemSink.local());
+    }
+
+    /**
+     * Saves the manifest into a project root directory in an output sink. Paths are saved relative
+     * to the root.
+     *
+     * @param root the project root directory
+     * @param sink the output sink
+     */
+    public void save(Path root, OutputSink sink) {
+        StringBuilder content = new StringBuilder();
+        if (fingerprint != null) {
+            content.append(FINGERPRINT_PREFIX).append(fingerprint).append('\n');
+        }
+        for (Map.Entry<Path, String> entry : new TreeMap<>(hashes).entrySet()) {
+            String path = root.relativize(entry.getKey()).toString().replace('\\', '/');
+            content.append(entry.getValue()).append(HASH_SEPARATOR).append(path).append('\n');
+        }
+
+        sink.replace(root.resolve(FILENAME), content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes a fingerprint of a directory tree. It's the content hash of the root, so directories are
+     * identified by their content and position in the tree, never by their random IDs, and the same
+     * blueprint built twice has the same fingerprint.
+     *
+     * @param root the root directory
+     * @return the fingerprint
+     * @see Directory#getContentHash()
+     */
+    public static String fingerprint(Directory root) {
+        return root.getContentHash();
+    }
+
+    /**
+     * Computes a fingerprint of a generation. It's the fingerprint of a directory tree combined with
+     * everything else generated files depend on, like the generator version, the class path with
+     * the abstractions and the generator settings.
+     *
+     * @param root        the root directory
+     * @param environment the other generation inputs
+     * @return the fingerprint
+     */
+    public static String fingerprint(Directory root, String... environment) {
+        MessageDigest digest = Utils.newSha256();
+        update(digest, fingerprint(root));
+        for (String value : environment) {
+            update(digest, value);
+        }
+
+        return Utils.toHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Records a generated file.
+     *
+     * @param path    the file path
+     * @param content the file content
+     * @return the content hash
+     */
+    public String put(Path path, byte[] content) {
+        String hash = Utils.sha256(content);
+        hashes.put(path.normalize(), hash);
+
+        return hash;
+    }
+
+    /**
+     * Records a generated file with a known content hash.
+     *
+     * @param path the file path
+     * @param hash the content hash
+     */
+    public void put(Path path, String hash) {
+        hashes.put(path.normalize(), hash);
+    }
+
+    public Optional<String> getHash(Path path) {
+        return Optional.ofNullable(hashes.get(path.normalize()));
+    }
+
+    public Set<Path> getPaths() {
+        return Collections.unmodifiableSet(hashes.keySet());
+    }
+
+    /**
+     * Returns a copy of the manifest without files which are missing or have a different content on the disk.
+     *
+     * @return the manifest of up-to-date files
+     */
+    public GenerationManifest upToDate() {
+        return upToDate(FileSystemSink.local());
+    }
+
+    /**
+     * Returns a copy of the manifest without files which are missing or have a different content
+     * in an output sink.
+     *
+     * @param sink the output sink
+     * @return the manifest of up-to-date files
+     */
+    public GenerationManifest upToDate(OutputSink sink) {
+        GenerationManifest manifest = new GenerationManifest();
+        manifest.setFingerprint(fingerprint);
+        for (Map.Entry<Path, String> entry : hashes.entrySet()) {
+            boolean upToDate = sink.read(entry.getKey())
+                    .map(Utils::sha256)
+                    .filter(entry.getValue()::equals)
+                    .isPresent();
+            if (upToDate) {
+                manifest.hashes.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Compares the manifest with a previous one.
+     *
+     * @param previous the previous manifest
+     * @return the changes
+     */
+    public GenerationChanges compare(GenerationManifest previous) {
+        GenerationChanges.Builder builder = new GenerationChanges.Builder();
+        for (Map.Entry<Path, String> entry : hashes.entrySet()) {
+            Optional<String> previousHash = previous.getHash(entry.getKey());
+            if (!previousHash.isPresent()) {
+                builder.added(entry.getKey());
+            } else if (previousHash.get().equals(entry.getValue())) {
+                builder.unchanged(entry.getKey());
+            } else {
+                builder.changed(entry.getKey());
+            }
+        }
+        for (Path path : previous.getPaths()) {
+            if (!hashes.containsKey(path)) {
+                builder.removed(path);
+            }
+        }
+
+        return builder.build();
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+}
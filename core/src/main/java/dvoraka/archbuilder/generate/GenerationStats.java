@@ -0,0 +1,47 @@
+package dvoraka.archbuilder.generate;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of one generation.
+ */
+public class GenerationStats {
+
+    private final LongAdder directories = new LongAdder();
+    private final LongAdder writtenFiles = new LongAdder();
+    private final LongAdder unchangedFiles = new LongAdder();
+
+
+    public void directoryGenerated() {
+        directories.increment();
+    }
+
+    public void fileWritten() {
+        writtenFiles.increment();
+    }
+
+    public void fileUnchanged() {
+        unchangedFiles.increment();
+    }
+
+    public long getDirectories() {
+        return directories.sum();
+    }
+
+    public long getWrittenFiles() {
+        return writtenFiles.sum();
+    }
+
+    public long getUnchangedFiles() {
+        return unchangedFiles.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationStats{" +
+                "directories=" + getDirectories() +
+                ", writtenFiles=" + getWrittenFiles() +
+                ", unchangedFiles=" + getUnchangedFiles() +
+                '}';
+    }
+}
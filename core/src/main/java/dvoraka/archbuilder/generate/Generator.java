@@ -0,0 +1,26 @@
+package dvoraka.archbuilder.generate;
+
+import dvoraka.archbuilder.data.Directory;
+
+public interface Generator {
+
+    /**
+     * Generates a directory in a new generation context.
+     *
+     * @param directory the directory
+     */
+    default void generate(Directory directory) {
+        try (GenerationContext context = new GenerationContext()) {
+            generate(directory, context);
+        }
+    }
+
+    /**
+     * Generates a directory in a given context. Generated types stay loadable from the context until it's
+     * closed.
+     *
+     * @param directory the directory
+     * @param context   the generation context
+     */
+    void generate(Directory directory, GenerationContext context);
+}
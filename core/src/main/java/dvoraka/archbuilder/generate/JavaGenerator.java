@@ -12,17 +12,14 @@ import com.squareup.javapoet.WildcardTypeName;
 import dvoraka.archbuilder.data.DirType;
 import dvoraka.archbuilder.data.Directory;
 import dvoraka.archbuilder.exception.GeneratorException;
-import dvoraka.archbuilder.util.ByteClassLoader;
-import dvoraka.archbuilder.util.JavaUtils;
 import dvoraka.archbuilder.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import javax.lang.model.element.Modifier;
-import java.io.File;
-import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
@@ -30,20 +27,16 @@ import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.function.Consumer;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -54,32 +47,29 @@ import static java.lang.reflect.Modifier.isPrivate;
 import static java.lang.reflect.Modifier.isProtected;
 import static java.lang.reflect.Modifier.isPublic;
 
-@Service
 public class JavaGenerator implements LangGenerator, JavaHelper {
 
     private final Logger log = LoggerFactory.getLogger(JavaGenerator.class);
 
-    private final EnumMap<DirType, Consumer<Directory>> configuration;
-    private final Set<Directory> processedDirs;
+    private final EnumMap<DirType, BiConsumer<Directory, GenerationContext>> configuration;
 
 
     public JavaGenerator() {
         configuration = getConfiguration();
-        processedDirs = new HashSet<>();
 
         checkImplementation();
     }
 
-    private EnumMap<DirType, Consumer<Directory>> getConfiguration() {
+    private EnumMap<DirType, BiConsumer<Directory, GenerationContext>> getConfiguration() {
 
-        EnumMap<DirType, Consumer<Directory>> configuration = new EnumMap<>(DirType.class);
+        EnumMap<DirType, BiConsumer<Directory, GenerationContext>> configuration =
+                new EnumMap<>(DirType.class);
         configuration.put(DirType.CUSTOM_TYPE, this::genCustomType);
         configuration.put(DirType.IMPL, this::genImpl);
         configuration.put(DirType.NEW_TYPE, this::genNewType);
         configuration.put(DirType.SERVICE, this::genService);
         configuration.put(DirType.SERVICE_IMPL, this::genServiceImpl);
         configuration.put(DirType.SPRING_CONFIG, this::genSpringConfigType);
-        configuration.put(DirType.SRC_ROOT, this::processSrcRoot);
         configuration.put(DirType.TEXT, this::genText);
 
         return configuration;
@@ -94,36 +84,32 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
     }
 
     @Override
-    public void generate(Directory directory) {
-        if (processedDirs.contains(directory)) {
+    public void generate(Directory directory, GenerationContext context) {
+        if (!context.markProcessed(directory)) {
             log.debug("Already processed: {}", directory.getType());
             return;
         }
 
         log.debug("Generating code for: {}", directory.getType());
-        processedDirs.add(directory);
+        context.getStats().directoryGenerated();
 
         if (configuration.containsKey(directory.getType())) {
-            configuration.get(directory.getType()).accept(directory);
+            configuration.get(directory.getType()).accept(directory, context);
         }
     }
 
-    private void processSrcRoot(Directory directory) {
-        addClassPath(Paths.get(directory.getPath()));
-    }
-
 
-    private void genNewType(Directory directory) {
+    private void genNewType(Directory directory, GenerationContext context) {
         log.debug("Generating new type: {}", directory);
 
         TypeSpec.Builder builder = getTypeSpecBuilder(directory);
 
         addTypeVariables(directory, builder);
 
-        completeAndSaveClassFile(directory, builder);
+        completeAndSaveClassFile(directory, builder, context);
     }
 
-    private void genImpl(Directory directory) {
+    private void genImpl(Directory directory, GenerationContext context) {
         log.debug("Generating implementation: {}", directory);
 
         // prepare super types
@@ -131,7 +117,7 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
         if (superTypeDirs.isEmpty()) {
             throw noSuperTypeException();
         }
-        List<Class<?>> superTypes = loadSuperTypes(directory);
+        List<Class<?>> superTypes = loadSuperTypes(directory, context);
         Optional<Class<?>> superClass = findClass(superTypes);
         int parameterCount = getParameterCount(superTypes);
 
@@ -153,11 +139,10 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
         }
 
         // find methods and gen specs
-        List<Method> allMethods = directory.isAbstractType()
-                ? new ArrayList<>()
-                : findAllMethods(superTypes);
         //TODO: current merging is very simple - name && parameter count check
-        List<Method> mergedMethods = mergeMethods(allMethods);
+        List<Method> mergedMethods = directory.isAbstractType()
+                ? new ArrayList<>()
+                : findMergedMethods(superTypes);
         List<MethodSpec> methodSpecs = genMethodSpecs(mergedMethods, typeMapping);
         // add constructor specs if necessary
         if (superClass.isPresent()) {
@@ -182,10 +167,10 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
             addTypeVariables(typeParameters, implementationBuilder);
         }
 
-        completeAndSaveClassFile(directory, implementationBuilder);
+        completeAndSaveClassFile(directory, implementationBuilder, context);
     }
 
-    private void genService(Directory directory) {
+    private void genService(Directory directory, GenerationContext context) {
         log.debug("Generating service: {}", directory);
 
         // find supertype
@@ -194,7 +179,7 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
             throw new GeneratorException("Service must have exactly 1 super interface.");
         }
         Directory superDir = directory.getSuperTypes().get(0);
-        Class<?> superClass = loadClass(superDir.getTypeName());
+        Class<?> superClass = context.loadClass(superDir.getTypeName());
 
         String filename = getFilename(directory);
         String typeName = removeJavaSuffix(filename);
@@ -207,17 +192,17 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
             Map<TypeVariable<?>, Type> typeMapping = getTypeVarMapping(directory, superClass);
 
             ParameterizedTypeName parameterizedTypeName = ParameterizedTypeName.get(
-                    superClass,
-                    buildTypeArray(typeParameters, typeMapping)
+                    ClassName.get(superClass),
+                    buildTypeNameArray(typeParameters, typeMapping)
             );
 
             serviceBuilder.addSuperinterface(parameterizedTypeName);
         }
 
-        completeAndSaveClassFile(directory, serviceBuilder);
+        completeAndSaveClassFile(directory, serviceBuilder, context);
     }
 
-    private void genServiceImpl(Directory directory) {
+    private void genServiceImpl(Directory directory, GenerationContext context) {
         log.debug("Generating service implementation...");
 
         Directory superSuperDir = directory.getSuperTypes().stream()
@@ -232,13 +217,28 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
                 .findAny()
                 .orElseThrow(this::noSuperTypeException);
 
-        List<Class<?>> superTypes = loadSuperTypes(directory);
+        // generated services declare no members and type parameters, so they are not loaded
+        // and their methods are found in their supertypes
+        List<Class<?>> superTypes = new ArrayList<>();
+        for (Directory superTypeDir : directory.getSuperTypes()) {
+            if (superTypeDir.getType() == DirType.SERVICE) {
+                superTypes.addAll(loadSuperTypes(superTypeDir, context));
+            } else {
+                superTypes.add(context.loadClass(superTypeDir.getTypeName()));
+            }
+        }
         Optional<Class<?>> superClass = findClass(superTypes);
 
-        Class<?> superSuperClass = loadClass(superSuperDir.getTypeName());
-        Class<?> superInterface = loadClass(superInterfaceDir.getTypeName());
-        if (superInterface.getTypeParameters().length != 0) {
-            throw new GeneratorException("Super class has type parameters!");
+        Class<?> superSuperClass = context.loadClass(superSuperDir.getTypeName());
+        TypeName superInterface;
+        if (superInterfaceDir.getType() == DirType.SERVICE) {
+            superInterface = typeNameOf(superInterfaceDir.getTypeName());
+        } else {
+            Class<?> superInterfaceClass = context.loadClass(superInterfaceDir.getTypeName());
+            if (superInterfaceClass.getTypeParameters().length != 0) {
+                throw new GeneratorException("Super class has type parameters!");
+            }
+            superInterface = ClassName.get(superInterfaceClass);
         }
 
         // type parameters
@@ -248,11 +248,12 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
                 typeMapping = getTypeVarMapping(superInterfaceDir, superSuperClass);
             }
         } else {
-            typeMapping = getTypeVarMapping(directory, superInterface);
+            // the super interface has no type parameters
+            throw new GeneratorException("Type parameter counts do not match for: "
+                    + directory.getFilename().orElse("unknown"));
         }
 
-        List<Method> allMethods = findAllMethods(superTypes);
-        List<Method> mergedMethods = mergeMethods(allMethods);
+        List<Method> mergedMethods = findMergedMethods(superTypes);
         List<MethodSpec> methodSpecs = genMethodSpecs(mergedMethods, typeMapping);
 
         String filename = getFilename(directory);
@@ -271,19 +272,19 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
                     .addSuperinterface(superInterface);
         }
 
-        completeAndSaveClassFile(directory, serviceImplBuilder);
+        completeAndSaveClassFile(directory, serviceImplBuilder, context);
     }
 
-    private void genCustomType(Directory directory) {
+    private void genCustomType(Directory directory, GenerationContext context) {
         log.debug("Generating custom type: {}", directory);
 
         String source = directory.getText();
         String filename = getFilename(directory);
 
-        saveJava(directory, source, filename);
+        saveJava(directory, source, filename, context);
     }
 
-    private void genSpringConfigType(Directory directory) {
+    private void genSpringConfigType(Directory directory, GenerationContext context) {
         log.debug("Generating Spring config type: {}", directory);
 
         String source = directory.getTextSupplier() != null
@@ -296,7 +297,7 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
 
         String filename = getFilename(directory);
 
-        saveJava(directory, source, filename);
+        saveJava(directory, source, filename, context);
     }
 
     private List<MethodSpec> genMethodSpecs(List<Method> methods, Map<TypeVariable<?>, Type> typeMapping) {
@@ -356,8 +357,7 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
             }
 
             // parameters (generic parameters are not used because of parameter names)
-            Parameter[] parameters = method.getParameters();
-            List<ParameterSpec> parameterSpecs = genParameterSpecs(parameters, typeMapping);
+            List<ParameterSpec> parameterSpecs = genParameterSpecs(method, typeMapping);
 
             // exceptions
             Type[] exceptions = method.getGenericExceptionTypes();
@@ -401,7 +401,7 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
         TypeName typeName;
         if (type instanceof TypeVariable) {
 
-            typeName = TypeName.get(typeMapping.get(type));
+            typeName = toTypeName(typeMapping.get(type));
 
         } else if (type instanceof ParameterizedType) {
 
@@ -422,7 +422,7 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
 
     private List<MethodSpec> genConstructorSpecs(Class<?> superClass, Map<TypeVariable<?>, Type> typeMapping) {
 
-        Constructor<?>[] declaredConstructors = superClass.getDeclaredConstructors();
+        List<Constructor<?>> declaredConstructors = metadata(superClass).getDeclaredConstructors();
         List<MethodSpec> constructorSpecs = new ArrayList<>();
         for (Constructor<?> constructor : declaredConstructors) {
 
@@ -442,8 +442,7 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
                 constructorModifier = null;
             }
 
-            Parameter[] parameters = constructor.getParameters();
-            List<ParameterSpec> parameterSpecs = genParameterSpecs(parameters, typeMapping);
+            List<ParameterSpec> parameterSpecs = genParameterSpecs(constructor, typeMapping);
 
             String[] argNames = parameterSpecs.stream()
                     .map(parameterSpec -> parameterSpec.name)
@@ -469,17 +468,25 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
         return constructorSpecs;
     }
 
-    private List<ParameterSpec> genParameterSpecs(Parameter[] parameters, Map<TypeVariable<?>, Type> typeMapping) {
+    private List<ParameterSpec> genParameterSpecs(
+            Executable executable,
+            Map<TypeVariable<?>, Type> typeMapping
+    ) {
+        Parameter[] parameters = executable.getParameters();
+        // names from the type index, classes are usually compiled without them
+        List<String> names = metadata(executable.getDeclaringClass()).getParameterNames(executable);
 
         List<ParameterSpec> parameterSpecs = new ArrayList<>();
-        for (Parameter parameter : parameters) {
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            String name = names.get(i);
 
             ParameterSpec parameterSpec;
             if (parameter.getParameterizedType() instanceof TypeVariable) {
 
                 TypeVariable<?> typeVar = ((TypeVariable) parameter.getParameterizedType());
                 Type realType = typeMapping.getOrDefault(typeVar, typeVar);
-                parameterSpec = ParameterSpec.builder(realType, parameter.getName())
+                parameterSpec = ParameterSpec.builder(toTypeName(realType), name)
                         .build();
             } else if (parameter.getParameterizedType() instanceof ParameterizedType) {
 
@@ -487,10 +494,10 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
                         ((ParameterizedType) parameter.getParameterizedType()),
                         typeMapping
                 );
-                parameterSpec = ParameterSpec.builder(parameterizedTypeName, parameter.getName())
+                parameterSpec = ParameterSpec.builder(parameterizedTypeName, name)
                         .build();
             } else {
-                parameterSpec = ParameterSpec.builder(parameter.getParameterizedType(), parameter.getName())
+                parameterSpec = ParameterSpec.builder(parameter.getParameterizedType(), name)
                         .build();
             }
 
@@ -513,7 +520,7 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
             if (actualTypeArgument instanceof TypeVariable) {
 
                 Type typeVar = varTypeMapping.getOrDefault(actualTypeArgument, actualTypeArgument);
-                TypeName typeVariableName = TypeName.get(typeVar);
+                TypeName typeVariableName = toTypeName(typeVar);
                 typeNames.add(typeVariableName);
 
             } else if (actualTypeArgument instanceof ParameterizedType) {
@@ -537,7 +544,7 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
                     if (upperBoundsType instanceof TypeVariable) {
 
                         Type superType = varTypeMapping.get(upperBoundsType);
-                        WildcardTypeName wildcardTypeName = WildcardTypeName.subtypeOf(superType);
+                        WildcardTypeName wildcardTypeName = WildcardTypeName.subtypeOf(toTypeName(superType));
                         typeNames.add(wildcardTypeName);
 
                     } else if (upperBoundsType instanceof ParameterizedType) {
@@ -558,7 +565,7 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
                     if (lowerBoundsType instanceof TypeVariable) {
 
                         Type superType = varTypeMapping.get(lowerBoundsType);
-                        WildcardTypeName wildcardTypeName = WildcardTypeName.supertypeOf(superType);
+                        WildcardTypeName wildcardTypeName = WildcardTypeName.supertypeOf(toTypeName(superType));
                         typeNames.add(wildcardTypeName);
 
                     } else if (lowerBoundsType instanceof ParameterizedType) {
@@ -599,10 +606,10 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
 
             for (int index = 0; index < typeVariables.length; index++) {
 
+                // parameter types are not loaded, so generated types don't have to be compiled
                 String className = directory.getParameters().get(index);
-                Class<?> varClass = loadClass(className);
 
-                typeMapping.put(typeVariables[index], varClass);
+                typeMapping.put(typeVariables[index], new SymbolicType(typeNameOf(className)));
             }
         }
 
@@ -630,34 +637,22 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
     }
 
     private void addAllTypeVarMappings(Class<?> clazz, Map<TypeVariable<?>, Type> typeMapping) {
-
-        // from implemented interfaces
-        for (Type iface : clazz.getGenericInterfaces()) {
-            if (iface instanceof ParameterizedType) {
-                ParameterizedType paramIface = (ParameterizedType) iface;
+        for (ParameterizedType genericSuperType : metadata(clazz).getGenericSuperTypes()) {
+            Class<?> rawType = (Class<?>) genericSuperType.getRawType();
+            if (rawType.isInterface()) {
                 // find vars for interface
-                addTypeVarsForType(paramIface, typeMapping);
-                // find vars for all super-interfaces
-                addAllTypeVarMappings((Class<?>) paramIface.getRawType(), typeMapping);
-            }
-        }
-
-        // from superclass
-        Type superClass = clazz.getGenericSuperclass();
-        if (superClass instanceof ParameterizedType) {
-            ParameterizedType paramSuperClass = (ParameterizedType) superClass;
-
-            //TODO: check with complex test
-            // add new mapping to bridge the mapping gap
-            Class<?> superRawClass = (Class<?>) paramSuperClass.getRawType();
-            for (int i = 0; i < superRawClass.getTypeParameters().length; i++) {
-                typeMapping.put(
-                        superRawClass.getTypeParameters()[i],
-                        typeMapping.get(paramSuperClass.getActualTypeArguments()[i])
-                );
+                addTypeVarsForType(genericSuperType, typeMapping);
+            } else {
+                //TODO: check with complex test
+                // add new mapping to bridge the mapping gap
+                List<TypeVariable<?>> typeParameters = metadata(rawType).getTypeParameters();
+                for (int i = 0; i < typeParameters.size(); i++) {
+                    typeMapping.put(
+                            typeParameters.get(i),
+                            typeMapping.get(genericSuperType.getActualTypeArguments()[i])
+                    );
+                }
             }
-
-            addAllTypeVarMappings(superRawClass, typeMapping);
         }
     }
 
@@ -674,10 +669,10 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
                 if (rawType instanceof Class) {
                     Class<?> rawClass = ((Class) rawType);
 
-                    TypeVariable<? extends Class<?>>[] srcTypeParams = rawClass.getTypeParameters();
+                    List<TypeVariable<?>> srcTypeParams = metadata(rawClass).getTypeParameters();
 
                     if (typeMapping.containsKey(actualVar)) {
-                        typeMapping.put(srcTypeParams[i], typeMapping.get(actualVar));
+                        typeMapping.put(srcTypeParams.get(i), typeMapping.get(actualVar));
                     } else {
                         throw new GeneratorException("Type var mapping failed!");
                     }
@@ -686,18 +681,22 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
         }
     }
 
-    private void genText(Directory directory) {
+    private void genText(Directory directory, GenerationContext context) {
         log.debug("Generating text file: {}", directory);
 
         String filename = directory.getFilename()
                 .orElseThrow(() -> Utils.noFilenameException(directory));
         String text = directory.getText() != null ? directory.getText() : "";
 
-        save(directory, text, filename);
+        save(directory, text, filename, context);
     }
 
-    private Class<?> loadNonCpClass(Path path) {
-        return new ByteClassLoader(this.getClass().getClassLoader()).loadClass(path);
+    private List<Method> findMergedMethods(List<Class<?>> superTypes) {
+        if (superTypes.size() == 1) {
+            return metadata(superTypes.get(0)).getMergedMethods(this::mergeMethods);
+        }
+
+        return mergeMethods(findAllMethods(superTypes));
     }
 
     private List<Method> mergeMethods(List<Method> methods) {
@@ -743,9 +742,9 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
                 .orElseThrow(() -> new GeneratorException("No template class found."));
     }
 
-    private List<Class<?>> loadSuperTypes(Directory directory) {
+    private List<Class<?>> loadSuperTypes(Directory directory, GenerationContext context) {
         return directory.getSuperTypes().stream()
-                .map(dir -> loadClass(dir.getTypeName()))
+                .map(dir -> context.loadClass(dir.getTypeName()))
                 .collect(Collectors.toList());
     }
 
@@ -762,8 +761,8 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
                 updatedBuilder = builder.addSuperinterface(superType);
             } else { // parametrized interface
                 ParameterizedTypeName parameterizedTypeName = ParameterizedTypeName.get(
-                        superType,
-                        buildTypeArray(superType.getTypeParameters(), typeMapping)
+                        ClassName.get(superType),
+                        buildTypeNameArray(superType.getTypeParameters(), typeMapping)
                 );
 
                 updatedBuilder = builder.addSuperinterface(parameterizedTypeName);
@@ -776,8 +775,8 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
 
             } else { // parametrized class
                 ParameterizedTypeName parameterizedTypeName = ParameterizedTypeName.get(
-                        superType,
-                        buildTypeArray(superType.getTypeParameters(), typeMapping)
+                        ClassName.get(superType),
+                        buildTypeNameArray(superType.getTypeParameters(), typeMapping)
                 );
 
                 updatedBuilder = builder.superclass(parameterizedTypeName);
@@ -801,10 +800,8 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
     }
 
     private TypeSpec.Builder addAnnotations(Directory directory, TypeSpec.Builder builder) {
-
         for (String annotation : directory.getMetadata()) {
-            Class<?> cls = loadClass(annotation);
-            builder.addAnnotation(cls);
+            builder.addAnnotation(typeNameOf(annotation));
         }
 
         return builder;
@@ -865,34 +862,47 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
                 .orElseThrow(() -> Utils.noFilenameException(directory));
     }
 
-    private void saveJava(Directory directory, String source, String filename) {
+    private void saveJava(Directory directory, String source, String filename, GenerationContext context) {
         if (!filename.endsWith(".java")) {
             throw new GeneratorException("Java file must have .java suffix");
         }
 
-        save(directory, source, filename);
+        save(directory, source, filename, context);
 
-        JavaUtils.compileSource(getPathString(directory, filename));
+        // compiled only if another type needs the class
+        context.getCompilerSession().addSource(directory.getTypeName(), source);
     }
 
-    private void save(Directory directory, String source, String filename) {
-        log.debug("Saving source:\n{}", source);
-
-        try {
-            String filePath = directory.getPath() + File.separator + filename;
-            log.debug("Writing file: {}...", filePath);
-            Files.write(
-                    Paths.get(filePath),
-                    source.getBytes(StandardCharsets.UTF_8),
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        } catch (IOException e) {
-            log.error("Save failed!", e);
-            throw new GeneratorException(e);
+    private void save(
+            Directory directory,
+            String source,
+            String filename,
+            GenerationContext context
+    ) {
+        log.trace("Saving source:\n{}", source);
+
+        Path path = Paths.get(directory.getPath(), filename);
+        byte[] content = source.getBytes(StandardCharsets.UTF_8);
+        String hash = context.getManifest().put(path, content);
+        boolean unchanged = context.getPreviousManifest().getHash(path)
+                .filter(hash::equals)
+                .isPresent();
+        if (unchanged) {
+            log.debug("File unchanged: {}", path);
+            context.getStats().fileUnchanged();
+            return;
         }
-    }
 
-    private void completeAndSaveClassFile(Directory directory, TypeSpec.Builder builder) {
+        log.debug("Writing file: {}...", path);
+        context.getSink().write(path, content);
+        context.getStats().fileWritten();
+    }
 
+    private void completeAndSaveClassFile(
+            Directory directory,
+            TypeSpec.Builder builder,
+            GenerationContext context
+    ) {
         addAnnotations(directory, builder);
         addModifiers(directory, builder);
         addJavadoc(directory, builder);
@@ -902,7 +912,7 @@ public class JavaGenerator implements LangGenerator, JavaHelper {
         JavaFile javaFile = JavaFile.builder(directory.getPackageName(), typeSpec)
                 .build();
 
-        saveJava(directory, javaFile.toString(), getFilename(directory));
+        saveJava(directory, javaFile.toString(), getFilename(directory), context);
     }
 
     private GeneratorException noSuperTypeException() {
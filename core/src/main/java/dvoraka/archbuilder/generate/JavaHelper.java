@@ -1,5 +1,7 @@
 package dvoraka.archbuilder.generate;
 
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeVariableName;
 import dvoraka.archbuilder.data.Directory;
 import dvoraka.archbuilder.exception.GeneratorException;
@@ -8,41 +10,30 @@ import dvoraka.archbuilder.util.JavaUtils;
 import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.GenericArrayType;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public interface JavaHelper {
 
-    default List<Method> findMethods(Class<?> clazz) {
-
-        // find protected methods
-        List<Method> protectedMethods = Arrays.stream(clazz.getDeclaredMethods())
-                .filter(method -> Modifier.isProtected(method.getModifiers()))
-                .collect(Collectors.toList());
-
-        // find public methods
-        List<Method> publicMethods = Arrays.asList(clazz.getMethods());
-
-        List<Method> allMethods = new ArrayList<>();
-        allMethods.addAll(protectedMethods);
-        allMethods.addAll(publicMethods);
+    /**
+     * Returns cached reflection metadata for a class.
+     *
+     * @param clazz the class
+     * @return the metadata
+     */
+    default ClassMetadata metadata(Class<?> clazz) {
+        return ClassMetadataCache.getInstance().get(clazz);
+    }
 
-        return allMethods;
+    default List<Method> findMethods(Class<?> clazz) {
+        return metadata(clazz).getMethods();
     }
 
     default List<Method> findAllMethods(List<Class<?>> classes) {
@@ -82,14 +73,37 @@ public interface JavaHelper {
         return returnValue;
     }
 
+    /**
+     * Loads a class with the thread context class loader or with the loader of this helper if there is no
+     * context loader. Generated classes are loadable only from their generation context.
+     *
+     * @param className the class name
+     * @return the class
+     * @see GenerationContext#loadClass(String)
+     */
     default Class<?> loadClass(String className) throws GeneratorException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = JavaHelper.class.getClassLoader();
+        }
+
         try {
-            return Class.forName(className);
+            return Class.forName(className, true, classLoader);
         } catch (ClassNotFoundException e) {
             throw new GeneratorException(e);
         }
     }
 
+    /**
+     * Returns a type name for a class name without loading the class.
+     *
+     * @param className the class name
+     * @return the type name
+     */
+    default ClassName typeNameOf(String className) {
+        return ClassName.bestGuess(className.replace('$', '.'));
+    }
+
     default String javaSuffix(String filename) {
         return JavaUtils.javaSuffix(filename);
     }
@@ -114,47 +128,19 @@ public interface JavaHelper {
                 .toString();
     }
 
-    default void addClassPath(Path path) {
-        try {
-            Method method = URLClassLoader.class.getDeclaredMethod("addURL", URL.class);
-            method.setAccessible(true);
-            method.invoke(ClassLoader.getSystemClassLoader(), path.toUri().toURL());
-        } catch (NoSuchMethodException
-                | IllegalAccessException
-                | InvocationTargetException
-                | MalformedURLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    default String getGenericSignature(Method method) {
-        try {
-            Method m = Method.class.getDeclaredMethod("getGenericSignature");
-            m.setAccessible(true);
-            String signature = (String) m.invoke(method);
-
-            return signature;
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-            throw new GeneratorException("Getting method signature failed.", e);
-        }
-    }
-
     default boolean isConstructorNeeded(Class<?> superClass) {
 
-        Constructor<?>[] declaredConstructors = superClass.getDeclaredConstructors();
-        if (declaredConstructors.length == 0) {
+        List<Constructor<?>> declaredConstructors = metadata(superClass).getDeclaredConstructors();
+        if (declaredConstructors.isEmpty()) {
             return false;
         }
 
-        return Arrays.stream(declaredConstructors)
+        return declaredConstructors.stream()
                 .noneMatch(constructor -> constructor.getParameterCount() == 0);
     }
 
     default List<TypeVariableName> getTypeVariableNames(Class<?> clazz) {
-
-        return Stream.of(clazz.getTypeParameters())
-                .map(TypeVariableName::get)
-                .collect(Collectors.toList());
+        return metadata(clazz).getTypeVariableNames();
     }
 
     default String buildSuperString(String[] argNames) {
@@ -176,17 +162,31 @@ public interface JavaHelper {
         return stringBuilder.toString();
     }
 
-    default Type[] buildTypeArray(
+    default TypeName[] buildTypeNameArray(
             TypeVariable<? extends Class<?>>[] typeParameters,
             Map<TypeVariable<?>, Type> typeMapping
     ) {
-        List<Type> types = new ArrayList<>();
+        List<TypeName> typeNames = new ArrayList<>();
         for (TypeVariable<? extends Class<?>> typeVariable : typeParameters) {
             Type realType = typeMapping.get(typeVariable);
-            types.add(realType);
+            typeNames.add(toTypeName(realType));
+        }
+
+        return typeNames.toArray(new TypeName[0]);
+    }
+
+    /**
+     * Returns a type name for a reflection type or for a symbolic type.
+     *
+     * @param type the type
+     * @return the type name
+     */
+    default TypeName toTypeName(Type type) {
+        if (type instanceof SymbolicType) {
+            return ((SymbolicType) type).getName();
         }
 
-        return types.toArray(new Type[0]);
+        return TypeName.get(type);
     }
 
     default Optional<Class<?>> findClass(List<Class<?>> classes) {
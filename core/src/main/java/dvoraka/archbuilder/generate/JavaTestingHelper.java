@@ -89,7 +89,16 @@ public interface JavaTestingHelper {
             throws IllegalAccessException, NoSuchMethodException, InvocationTargetException {
 
         Method mainMethod = clazz.getDeclaredMethod("main", String[].class);
-        mainMethod.invoke(null, new Object[]{args});
+
+        // generated classes are visible only from their own class loader
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(clazz.getClassLoader());
+        try {
+            mainMethod.invoke(null, new Object[]{args});
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
     }
 
     default void fileExists(Directory directory) {
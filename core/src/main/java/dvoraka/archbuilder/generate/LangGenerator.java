@@ -8,6 +8,7 @@ public interface LangGenerator {
      * Generates a content for a given directory.
      *
      * @param directory the directory
+     * @param context   the generation context
      */
-    void generate(Directory directory);
+    void generate(Directory directory, GenerationContext context);
 }
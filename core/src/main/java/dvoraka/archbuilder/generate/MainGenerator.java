@@ -0,0 +1,436 @@
+package dvoraka.archbuilder.generate;
+
+import dvoraka.archbuilder.BuilderProperties;
+import dvoraka.archbuilder.compile.ClassCache;
+import dvoraka.archbuilder.compile.CompilationResult;
+import dvoraka.archbuilder.compile.CompilerSession;
+import dvoraka.archbuilder.compile.PartitionResult;
+import dvoraka.archbuilder.data.Directory;
+import dvoraka.archbuilder.exception.GeneratorException;
+import dvoraka.archbuilder.output.OutputSink;
+import dvoraka.archbuilder.service.DirService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Generator of directory trees. It's immutable, so one generator can be shared by concurrent generations,
+ * and generations with other settings use another generator built with {@link Builder}.
+ */
+public class MainGenerator implements Generator {
+
+    private final DirService dirService;
+    private final LangGenerator langGenerator;
+
+    private final Logger log = LoggerFactory.getLogger(MainGenerator.class);
+
+    private final Executor executor;
+    private final boolean incremental;
+    private final boolean verify;
+    private final ClassCache classCache;
+    private final ProjectCache projectCache;
+    private final BuilderProperties properties;
+
+
+    /**
+     * Creates a generator with default settings.
+     *
+     * @param dirService    the directory service
+     * @param langGenerator the language generator
+     */
+    public MainGenerator(DirService dirService, LangGenerator langGenerator) {
+        this(new Builder(dirService, langGenerator));
+    }
+
+    private MainGenerator(Builder builder) {
+        dirService = builder.dirService;
+        langGenerator = builder.langGenerator;
+        executor = builder.executor;
+        incremental = builder.incremental;
+        verify = builder.verify;
+        classCache = builder.classCache;
+        projectCache = builder.projectCache;
+        properties = builder.properties;
+    }
+
+    /**
+     * Returns a builder with settings of this generator.
+     *
+     * @return the builder
+     */
+    public Builder toBuilder() {
+        return new Builder(dirService, langGenerator)
+                .executor(executor)
+                .incremental(incremental)
+                .verify(verify)
+                .classCache(classCache)
+                .projectCache(projectCache)
+                .properties(properties);
+    }
+
+    @Override
+    public void generate(Directory directory) {
+        CompilerSession session = new CompilerSession(CompilerSession.class.getClassLoader(), classCache);
+        try (GenerationContext context = new GenerationContext(session)) {
+            generate(directory, context);
+        }
+    }
+
+    @Override
+    public void generate(Directory directory, GenerationContext context) {
+        // paths and hash codes are computed only once from now on
+        directory.freeze();
+
+        if (!incremental) {
+            if (projectCache != null && directory.isRoot()) {
+                generateOrRestore(directory, context);
+            } else {
+                generateAll(directory, context);
+            }
+            return;
+        }
+        if (!directory.isRoot()) {
+            log.warn("Incremental generation works only for a root directory: {}", directory.getPath());
+            generateAll(directory, context);
+            return;
+        }
+
+        Path rootPath = Paths.get(directory.getPath());
+        OutputSink sink = context.getSink();
+        GenerationManifest previousManifest = GenerationManifest.load(rootPath, sink);
+        String fingerprint = fingerprint(directory, context);
+        GenerationManifest upToDateManifest = previousManifest.upToDate(sink);
+        boolean filesUnchanged = upToDateManifest.getPaths().size() == previousManifest.getPaths().size();
+        if (fingerprint.equals(previousManifest.getFingerprint()) && filesUnchanged) {
+            log.info("Generation skipped, the blueprint, generator and files are unchanged: {}", rootPath);
+            context.setChanges(previousManifest.compare(previousManifest));
+            return;
+        }
+
+        // files changed in the sink are written again
+        context.setPreviousManifest(upToDateManifest);
+        generateOrRestore(directory, context);
+
+        GenerationManifest manifest = context.getManifest();
+        manifest.setFingerprint(fingerprint);
+        GenerationChanges changes = manifest.compare(previousManifest);
+        for (Path removed : changes.getRemoved()) {
+            log.debug("Removing file: {}", removed);
+            sink.delete(removed);
+        }
+        manifest.save(rootPath, sink);
+        sink.flush();
+
+        context.setChanges(changes);
+        log.info("Generation changes: {}", changes);
+    }
+
+    /**
+     * Computes a generation fingerprint of a root directory for the incremental generation. Besides
+     * the blueprint it covers the generator version, the class path of the context compiler session
+     * with abstraction classes and the generator properties, so a change of any of them means
+     * the project is generated again.
+     *
+     * @param root    the root directory
+     * @param context the generation context
+     * @return the fingerprint
+     */
+    public String fingerprint(Directory root, GenerationContext context) {
+        return GenerationManifest.fingerprint(root,
+                ProjectCache.generatorVersion(),
+                context.getCompilerSession().getClassPathFingerprint(),
+                settings());
+    }
+
+    private String settings() {
+        return properties != null ? properties.cacheKey() : "";
+    }
+
+    /**
+     * Generates only some directories and everything they depend on. Files of other directories are not
+     * touched and with a previous manifest in the context unchanged files are not written again.
+     *
+     * @param directories the directories, whole subtrees are generated
+     * @param context     the generation context
+     */
+    public void generatePartially(Collection<Directory> directories, GenerationContext context) {
+        for (Directory directory : directories) {
+            dirService.getRoot(directory).freeze();
+            createDirectories(directory, context);
+        }
+
+        DependencyGraph graph = DependencyGraph.build(directories, dirService);
+        log.debug("Generating {} directories with {} directories they need in {} levels...",
+                directories.size(), graph.getDirectories().size(), graph.getLevels().size());
+
+        for (List<Directory> level : graph.getLevels()) {
+            generateLevel(level, context);
+        }
+        if (verify) {
+            verify(graph, context);
+        }
+        context.getSink().flush();
+
+        log.info("Partial generation finished: {}", context.getStats());
+    }
+
+    private void generateOrRestore(Directory directory, GenerationContext context) {
+        ProjectCache cache = projectCache;
+        if (cache == null) {
+            generateAll(directory, context);
+            return;
+        }
+
+        Path rootPath = Paths.get(directory.getPath());
+        String key = ProjectCache.key(GenerationManifest.fingerprint(directory),
+                context.getCompilerSession().getClassPathFingerprint(),
+                settings());
+        if (cache.restore(key, rootPath, context)) {
+            // empty directories are not in the cache
+            createDirectories(directory, context);
+            context.getSink().flush();
+            log.info("Project restored from cache: {}, {}", rootPath, context.getStats());
+            log.debug("Project cache: {}", cache);
+            return;
+        }
+
+        generateAll(directory, context);
+        cache.store(key, rootPath, context.getManifest(), context.getSink());
+        log.debug("Project cache: {}", cache);
+    }
+
+    private void generateAll(Directory directory, GenerationContext context) {
+
+        // create dirs
+        createDirectories(directory, context);
+
+        // build the dependency graph and generate it level by level (Spring configurations are last)
+        DependencyGraph graph = DependencyGraph.build(directory, dirService);
+        log.debug("Generating {} directories in {} levels...",
+                graph.getDirectories().size(), graph.getLevels().size());
+
+        for (List<Directory> level : graph.getLevels()) {
+            generateLevel(level, context);
+        }
+
+        // types nobody needed are compiled at the end
+        CompilerSession session = context.getCompilerSession();
+        if (verify) {
+            verify(graph, context);
+        }
+
+        // files are written in the background during the generation and verification
+        context.getSink().flush();
+
+        log.info("Generation finished: {}, compilations: {}", context.getStats(), session.getCompilations());
+        log.debug("Class metadata: {}", ClassMetadataCache.getInstance());
+        session.getClassCache()
+                .ifPresent(cache -> log.debug("Class cache: {}", cache));
+    }
+
+    private void verify(DependencyGraph graph, GenerationContext context) {
+        List<List<String>> levels = graph.getLevels().stream()
+                .map(level -> level.stream()
+                        .filter(dir -> !dir.getType().isAbstract() && dir.getTypeName() != null)
+                        .map(Directory::getTypeName)
+                        .collect(Collectors.toList()))
+                .collect(Collectors.toList());
+
+        CompilationResult result = context.getCompilerSession().compilePending(
+                levels, executor, Runtime.getRuntime().availableProcessors());
+        context.setVerification(result);
+
+        log.debug("Verification: {}", result);
+        for (PartitionResult partition : result.getPartitions()) {
+            log.debug("Verification partition: {}", partition);
+        }
+        if (!result.isSuccess()) {
+            log.warn("Verification of generated sources failed: {}", result.getErrors());
+        }
+    }
+
+    private void generateLevel(List<Directory> level, GenerationContext context) {
+        if (level.size() == 1) {
+            langGenerator.generate(level.get(0), context);
+            return;
+        }
+
+        // directories from one level are independent
+        CompletableFuture<?>[] futures = level.stream()
+                .map(dir -> CompletableFuture.runAsync(() -> langGenerator.generate(dir, context), executor))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof GeneratorException) {
+                throw (GeneratorException) e.getCause();
+            }
+            throw new GeneratorException("Generation failed.", e.getCause());
+        }
+    }
+
+    private void createDirectories(Directory directory, GenerationContext context) {
+        // sequentially, so archive sinks get entries in the same order every time
+        dirService.leaves(directory)
+                .forEach(dir -> createDirectory(dir, context));
+    }
+
+    private void createDirectory(Directory directory, GenerationContext context) {
+        if (!directory.getType().isAbstract()) {
+            log.debug("Creating directory: {}", directory.getPath());
+            context.getSink().createDirectories(Paths.get(directory.getPath()));
+        }
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public boolean isVerify() {
+        return verify;
+    }
+
+    public ClassCache getClassCache() {
+        return classCache;
+    }
+
+    public ProjectCache getProjectCache() {
+        return projectCache;
+    }
+
+    public BuilderProperties getProperties() {
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return "MainGenerator{" +
+                "incremental=" + incremental +
+                ", verify=" + verify +
+                ", classCache=" + classCache +
+                ", projectCache=" + projectCache +
+                '}';
+    }
+
+    /**
+     * Builder of generators.
+     */
+    public static final class Builder {
+
+        private final DirService dirService;
+        private final LangGenerator langGenerator;
+
+        private Executor executor;
+        private boolean incremental;
+        private boolean verify;
+        private ClassCache classCache;
+        private ProjectCache projectCache;
+        private BuilderProperties properties;
+
+
+        public Builder(DirService dirService, LangGenerator langGenerator) {
+            this.dirService = requireNonNull(dirService);
+            this.langGenerator = requireNonNull(langGenerator);
+
+            executor = ForkJoinPool.commonPool();
+            verify = true;
+        }
+
+        /**
+         * Sets an executor for generating independent directories concurrently. The common fork-join pool
+         * is used by default.
+         *
+         * @param executor the executor
+         * @return the builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * Sets the incremental generation. An incremental generation of a root directory saves a manifest
+         * of generated files into the root, doesn't write files with unchanged content and removes files
+         * which are not generated anymore. If the blueprint, the generator, abstractions and all files are
+         * unchanged, nothing is generated or compiled at all, so generated classes are not loadable from
+         * the context then.
+         *
+         * @param incremental true for the incremental generation
+         * @return the builder
+         */
+        public Builder incremental(boolean incremental) {
+            this.incremental = incremental;
+            return this;
+        }
+
+        /**
+         * Sets the final verification. Generated sources are compiled only when another generated type needs
+         * them and the verification compiles all the remaining sources at the end, level by level with
+         * independent sources compiled concurrently. Without the verification
+         * the remaining sources are compiled only when their classes are loaded from the context.
+         *
+         * @param verify true for the verification
+         * @return the builder
+         */
+        public Builder verify(boolean verify) {
+            this.verify = verify;
+            return this;
+        }
+
+        /**
+         * Sets a class cache for generations in new contexts. Contexts created outside the generator use
+         * the cache of their compiler session. There is no cache by default.
+         *
+         * @param classCache the class cache or null for no cache
+         * @return the builder
+         */
+        public Builder classCache(ClassCache classCache) {
+            this.classCache = classCache;
+            return this;
+        }
+
+        /**
+         * Sets a cache of generated projects. A root directory generated before with the same settings
+         * is restored from the cache, so nothing is generated or compiled at all and generated classes are
+         * not loadable from the context then. There is no cache by default.
+         *
+         * @param projectCache the project cache or null for no cache
+         * @return the builder
+         */
+        public Builder projectCache(ProjectCache projectCache) {
+            this.projectCache = projectCache;
+            return this;
+        }
+
+        /**
+         * Sets builder properties. All their values are part of the project cache key because they change
+         * names in generated projects.
+         *
+         * @param properties the properties
+         * @return the builder
+         */
+        public Builder properties(BuilderProperties properties) {
+            this.properties = properties;
+            return this;
+        }
+
+        public MainGenerator build() {
+            return new MainGenerator(this);
+        }
+    }
+}
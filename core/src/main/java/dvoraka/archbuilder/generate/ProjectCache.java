@@ -0,0 +1,489 @@
+package dvoraka.archbuilder.generate;
+
+import dvoraka.archbuilder.compile.ClassCache;
+import dvoraka.archbuilder.exception.GeneratorException;
+import dvoraka.archbuilder.output.OutputSink;
+import dvoraka.archbuilder.util.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Content-addressed cache of generated projects on disk. An entry key is a hash of the blueprint
+ * fingerprint, the class path fingerprint, the generator settings and the generator version, so a project
+ * generated once is restored from the cache next time without generating and compiling anything.
+ * <p>
+ * Every file is stored only once under its content hash, no matter how many projects contain it, and
+ * an entry is a list of project files with their hashes. Files are restored as copies by default. With
+ * linking they are restored as hard links where the output supports it, which is faster and takes no
+ * space, but restored files share the content with the cache then and must not be changed in place.
+ * <p>
+ * Files and entries are written into a temporary file and moved atomically, so concurrent processes can
+ * share one cache directory. The least recently used entries are removed when the cache is bigger than its
+ * maximum size. An entry with a missing or damaged file is a miss.
+ */
+public class ProjectCache {
+
+    public static final long DEFAULT_MAX_SIZE = 1024L * 1024 * 1024;
+
+    private static final String FORMAT_VERSION = "1";
+    private static final String UNKNOWN_VERSION = "development";
+    private static final String OBJECTS_DIR = "objects";
+    private static final String ENTRIES_DIR = "entries";
+    private static final String ENTRY_SUFFIX = ".entry";
+    private static final String HASH_SEPARATOR = "  ";
+    private static final long ORPHAN_AGE = 10 * 60 * 1000L;
+
+    private final Logger log = LoggerFactory.getLogger(ProjectCache.class);
+
+    private final Path directory;
+    private final long maxSize;
+    private final boolean link;
+    private final AtomicLong size;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+
+    public ProjectCache(Path directory) {
+        this(directory, DEFAULT_MAX_SIZE, false);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param directory the cache directory
+     * @param maxSize   the maximum size in bytes
+     * @param link      true for restoring files as hard links
+     */
+    public ProjectCache(Path directory, long maxSize, boolean link) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        }
+        this.directory = requireNonNull(directory);
+        this.maxSize = maxSize;
+        this.link = link;
+
+        try {
+            Files.createDirectories(directory.resolve(OBJECTS_DIR));
+            Files.createDirectories(directory.resolve(ENTRIES_DIR));
+        } catch (IOException e) {
+            throw new GeneratorException("Creating project cache failed: " + directory, e);
+        }
+        size = new AtomicLong(currentSize());
+        hits = new LongAdder();
+        misses = new LongAdder();
+    }
+
+    /**
+     * Computes a cache key for a generation.
+     *
+     * @param blueprintFingerprint the blueprint fingerprint
+     * @param classPathFingerprint the fingerprint of the class path with abstractions
+     * @param settings             the generator settings, they must have a deterministic string form
+     * @return the key
+     * @see GenerationManifest#fingerprint(dvoraka.archbuilder.data.Directory)
+     * @see dvoraka.archbuilder.compile.CompilerSession#getClassPathFingerprint()
+     */
+    public static String key(String blueprintFingerprint, String classPathFingerprint, String settings) {
+        MessageDigest digest = Utils.newSha256();
+        update(digest, FORMAT_VERSION);
+        update(digest, generatorVersion());
+        update(digest, blueprintFingerprint);
+        update(digest, classPathFingerprint);
+        update(digest, settings);
+
+        return Utils.toHex(digest.digest());
+    }
+
+    /**
+     * Returns the generator version. It's the version from the JAR manifest with a fingerprint of
+     * the generator code source, so snapshot builds and classes compiled during development have
+     * different versions too. The version is computed only once.
+     *
+     * @return the version
+     */
+    public static String generatorVersion() {
+        return GeneratorVersion.VERSION;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Restores a cached project into the sink of a context. Restored files are recorded in the context
+     * manifest and files unchanged since the previous generation are not written.
+     *
+     * @param key     the key
+     * @param root    the project root directory
+     * @param context the generation context
+     * @return true if the project was restored, false for a miss
+     */
+    public boolean restore(String key, Path root, GenerationContext context) {
+        Optional<Map<String, String>> entry = readEntry(key);
+        if (!entry.isPresent()) {
+            misses.increment();
+            return false;
+        }
+
+        // everything is checked before the first file is written
+        Map<String, String> files = entry.get();
+        Map<String, byte[]> contents = new HashMap<>();
+        for (String hash : files.values()) {
+            Path object = objectFile(hash);
+            if (link) {
+                if (!Files.isRegularFile(object)) {
+                    log.warn("Cached file is missing: {}", object);
+                    misses.increment();
+                    return false;
+                }
+            } else if (!contents.containsKey(hash)) {
+                Optional<byte[]> content = readObject(object).filter(bytes -> hash.equals(Utils.sha256(bytes)));
+                if (!content.isPresent()) {
+                    log.warn("Cached file is missing or damaged: {}", object);
+                    misses.increment();
+                    return false;
+                }
+                contents.put(hash, content.get());
+            }
+        }
+
+        OutputSink sink = context.getSink();
+        Set<Path> directories = new HashSet<>();
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            Path path = root.resolve(file.getKey()).normalize();
+            if (path.getParent() != null && directories.add(path.getParent())) {
+                sink.createDirectories(path.getParent());
+            }
+            String hash = file.getValue();
+            context.getManifest().put(path, hash);
+            boolean unchanged = context.getPreviousManifest().getHash(path)
+                    .filter(hash::equals)
+                    .isPresent();
+            if (unchanged) {
+                context.getStats().fileUnchanged();
+                continue;
+            }
+
+            log.debug("Restoring file: {}", path);
+            if (link) {
+                sink.link(path, objectFile(hash));
+            } else {
+                sink.write(path, contents.get(hash));
+            }
+            context.getStats().fileWritten();
+        }
+        hits.increment();
+
+        return true;
+    }
+
+    /**
+     * Saves files of a generated project and removes the least recently used entries if the cache is too big.
+     * Projects in write-only sinks are not saved.
+     *
+     * @param key      the key
+     * @param root     the project root directory
+     * @param manifest the manifest of generated files
+     * @param sink     the sink with the generated files
+     */
+    public void store(String key, Path root, GenerationManifest manifest, OutputSink sink) {
+        Map<String, String> files = new TreeMap<>();
+        long addedSize = 0;
+        try {
+            for (Path path : manifest.getPaths()) {
+                Optional<byte[]> content = sink.read(path);
+                if (!content.isPresent()) {
+                    log.debug("Project can't be cached, the file is not readable: {}", path);
+                    return;
+                }
+
+                String hash = Utils.sha256(content.get());
+                Path object = objectFile(hash);
+                if (!Files.exists(object)) {
+                    writeAtomically(object, content.get());
+                    addedSize += content.get().length;
+                }
+                files.put(root.relativize(path.normalize()).toString().replace('\\', '/'), hash);
+            }
+
+            StringBuilder content = new StringBuilder();
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                content.append(file.getValue()).append(HASH_SEPARATOR).append(file.getKey()).append('\n');
+            }
+            byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+            writeAtomically(entryFile(key), bytes);
+            addedSize += bytes.length;
+        } catch (IOException e) {
+            // the cache is only an optimization
+            log.warn("Saving project cache entry failed: {}", key, e);
+            return;
+        }
+
+        if (size.addAndGet(addedSize) > maxSize) {
+            evict();
+        }
+    }
+
+    private static void writeAtomically(Path file, byte[] content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmpFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmpFile, content);
+            try {
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    private Optional<Map<String, String>> readEntry(String key) {
+        Path file = entryFile(key);
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+
+            return Optional.of(parseEntry(lines));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            // another process may have removed the entry, it's a miss then
+            log.warn("Reading project cache entry failed: {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private static Map<String, String> parseEntry(List<String> lines) {
+        Map<String, String> files = new LinkedHashMap<>();
+        for (String line : lines) {
+            int separator = line.indexOf(HASH_SEPARATOR);
+            if (separator != -1) {
+                files.put(line.substring(separator + HASH_SEPARATOR.length()), line.substring(0, separator));
+            }
+        }
+
+        return files;
+    }
+
+    private Optional<byte[]> readObject(Path object) {
+        try {
+            return Optional.of(Files.readAllBytes(object));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache is smaller than its maximum size. Files
+     * are removed when no entry contains them.
+     */
+    public synchronized void evict() {
+        List<Path> entries = list(directory.resolve(ENTRIES_DIR));
+        entries.sort(Comparator.comparing(ProjectCache::lastModified));
+
+        Map<Path, List<String>> entryHashes = new HashMap<>();
+        Map<String, Integer> references = new HashMap<>();
+        for (Path entry : entries) {
+            try {
+                List<String> hashes = new ArrayList<>(
+                        parseEntry(Files.readAllLines(entry, StandardCharsets.UTF_8)).values());
+                hashes.stream()
+                        .distinct()
+                        .forEach(hash -> references.merge(hash, 1, Integer::sum));
+                entryHashes.put(entry, hashes);
+            } catch (IOException e) {
+                log.warn("Reading project cache entry failed: {}", entry, e);
+            }
+        }
+
+        long currentSize = currentSize();
+        // files of damaged entries, recent files may belong to entries being saved
+        long orphanTime = System.currentTimeMillis() - ORPHAN_AGE;
+        for (Path object : list(directory.resolve(OBJECTS_DIR))) {
+            if (!references.containsKey(object.getFileName().toString())
+                    && lastModified(object).toMillis() < orphanTime) {
+                currentSize -= delete(object);
+            }
+        }
+
+        for (Path entry : entries) {
+            if (currentSize <= maxSize) {
+                break;
+            }
+            currentSize -= delete(entry);
+            log.debug("Project cache entry evicted: {}", entry);
+            for (String hash : entryHashes.getOrDefault(entry, Collections.emptyList())) {
+                if (references.merge(hash, -1, Integer::sum) == 0) {
+                    currentSize -= delete(objectFile(hash));
+                }
+            }
+        }
+        size.set(currentSize);
+    }
+
+    private long delete(Path file) {
+        long fileSize = fileSize(file);
+        try {
+            Files.deleteIfExists(file);
+            return fileSize;
+        } catch (IOException e) {
+            log.warn("Removing project cache file failed: {}", file, e);
+            return 0;
+        }
+    }
+
+    private long currentSize() {
+        return Stream.concat(
+                list(directory.resolve(ENTRIES_DIR)).stream(),
+                list(directory.resolve(OBJECTS_DIR)).stream())
+                .mapToLong(ProjectCache::fileSize)
+                .sum();
+    }
+
+    private List<Path> list(Path dir) {
+        try (Stream<Path> files = Files.walk(dir, 2)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().endsWith(".tmp"))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } catch (IOException e) {
+            throw new GeneratorException("Listing project cache failed: " + dir, e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path objectFile(String hash) {
+        return directory.resolve(OBJECTS_DIR).resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path entryFile(String key) {
+        return directory.resolve(ENTRIES_DIR).resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean isLink() {
+        return link;
+    }
+
+    /**
+     * Returns the approximate size of all entries and files in bytes.
+     *
+     * @return the size
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the ratio of hits to all restores.
+     *
+     * @return the hit rate from 0 to 1
+     */
+    public double getHitRate() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectCache{" +
+                "directory=" + directory +
+                ", size=" + size +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", hitRate=" + String.format("%.2f", getHitRate()) +
+                '}';
+    }
+
+    private static final class GeneratorVersion {
+
+        private static final String VERSION = compute();
+
+
+        private GeneratorVersion() {
+        }
+
+        private static String compute() {
+            String version = ProjectCache.class.getPackage().getImplementationVersion();
+            if (version == null) {
+                version = UNKNOWN_VERSION;
+            }
+
+            CodeSource codeSource = ProjectCache.class.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                return version;
+            }
+            try {
+                File location = new File(codeSource.getLocation().toURI());
+                return version + '+' + ClassCache.classPathFingerprint(Collections.singletonList(location));
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return version;
+            }
+        }
+    }
+}
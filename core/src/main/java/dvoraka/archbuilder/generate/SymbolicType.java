@@ -0,0 +1,50 @@
+package dvoraka.archbuilder.generate;
+
+import com.squareup.javapoet.TypeName;
+
+import java.lang.reflect.Type;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Type known only by its name. It's used for types which are not loaded, typically types generated
+ * in the same generation, so they don't have to be compiled before they are referenced.
+ *
+ * @see JavaHelper#toTypeName(Type)
+ */
+public final class SymbolicType implements Type {
+
+    private final TypeName typeName;
+
+
+    public SymbolicType(TypeName typeName) {
+        this.typeName = requireNonNull(typeName);
+    }
+
+    public TypeName getName() {
+        return typeName;
+    }
+
+    @Override
+    public String getTypeName() {
+        return typeName.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SymbolicType that = (SymbolicType) o;
+        return typeName.equals(that.typeName);
+    }
+
+    @Override
+    public int hashCode() {
+        return typeName.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return typeName.toString();
+    }
+}
@@ -0,0 +1,240 @@
+package dvoraka.archbuilder.generate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Type metadata precomputed at build time by the type index processor of the data module. An index is
+ * read only from the class path location of the indexed class, so classes from other locations or
+ * reloaded classes can't get stale metadata. Unknown types and members are left to reflection.
+ */
+public final class TypeIndex {
+
+    public static final String RESOURCE = "META-INF/archbuilder/type-index";
+    public static final String HEADER = "archbuilder-type-index";
+    public static final int VERSION = 2;
+
+    static final TypeIndex EMPTY = new TypeIndex(Collections.emptyMap());
+
+    private static final Logger log = LoggerFactory.getLogger(TypeIndex.class);
+
+    // only strings are cached, so class loaders can be unloaded
+    private static final Map<ClassLoader, Map<String, TypeIndex>> INDEXES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<String, Entry> types;
+
+
+    private TypeIndex(Map<String, Entry> types) {
+        this.types = types;
+    }
+
+    /**
+     * Returns the index of the class path location of a class.
+     *
+     * @param clazz the class
+     * @return the index or an empty index
+     */
+    public static TypeIndex of(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+        if (classLoader == null || codeSource == null || codeSource.getLocation() == null) {
+            return EMPTY;
+        }
+
+        URL location = codeSource.getLocation();
+        return INDEXES.computeIfAbsent(classLoader, loader -> new ConcurrentHashMap<>())
+                .computeIfAbsent(location.toString(), key -> load(location));
+    }
+
+    private static TypeIndex load(URL location) {
+        try {
+            URL resource = location.getPath().endsWith("/")
+                    ? new URL(location, RESOURCE)
+                    : new URL("jar:" + location + "!/" + RESOURCE);
+            URLConnection connection = resource.openConnection();
+            // an index of a replaced jar must not be read from the JVM jar cache
+            connection.setUseCaches(false);
+            try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+                TypeIndex index = read(reader);
+                log.debug("Type index loaded: {}, types: {}", location, index.types.size());
+
+                return index;
+            }
+        } catch (FileNotFoundException e) {
+            return EMPTY;
+        } catch (MalformedURLException e) {
+            log.debug("Unsupported class path location: {}", location);
+            return EMPTY;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Type index reading failed, using reflection: {}", location, e);
+            return EMPTY;
+        }
+    }
+
+    /**
+     * Reads an index. An index with another version is empty.
+     *
+     * @param input the index input
+     * @return the index
+     * @throws IOException if reading fails
+     */
+    static TypeIndex read(Reader input) throws IOException {
+        BufferedReader reader = new BufferedReader(input);
+        String header = reader.readLine();
+        if (!(HEADER + '\t' + VERSION).equals(header)) {
+            log.debug("Unsupported type index: {}", header);
+            return EMPTY;
+        }
+
+        Map<String, Entry> types = new HashMap<>();
+        Map<String, Member> members = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = line.split("\t", -1);
+            if (fields[0].equals("T") && fields.length == 2) {
+                members = new HashMap<>();
+                types.put(fields[1], new Entry(members));
+            } else if (fields[0].equals("M") && fields.length == 4 && members != null) {
+                List<String> parameterNames = fields[3].isEmpty()
+                        ? Collections.emptyList()
+                        : Arrays.asList(fields[3].split(","));
+                members.put(fields[1] + fields[2], new Member(parameterNames));
+            } else {
+                throw new IllegalArgumentException("Invalid type index line: " + line);
+            }
+        }
+
+        return new TypeIndex(types);
+    }
+
+    /**
+     * Finds an indexed type.
+     *
+     * @param clazz the class
+     * @return the type entry
+     */
+    public Optional<Entry> find(Class<?> clazz) {
+        return Optional.ofNullable(types.get(clazz.getName()));
+    }
+
+    public boolean isEmpty() {
+        return types.isEmpty();
+    }
+
+    /**
+     * Returns a key of a method or a constructor, it's the name with the erased descriptor.
+     *
+     * @param executable the method or the constructor
+     * @return the key
+     */
+    static String key(Executable executable) {
+        StringBuilder key = new StringBuilder();
+        key.append(executable instanceof Constructor ? "<init>" : executable.getName());
+        key.append('(');
+        for (Class<?> parameterType : executable.getParameterTypes()) {
+            key.append(descriptor(parameterType));
+        }
+        key.append(')');
+        key.append(executable instanceof Constructor
+                ? "V"
+                : descriptor(((Method) executable).getReturnType()));
+
+        return key.toString();
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isArray()) {
+            return type.getName().replace('.', '/');
+        } else if (type == Void.TYPE) {
+            return "V";
+        } else if (type == Boolean.TYPE) {
+            return "Z";
+        } else if (type == Byte.TYPE) {
+            return "B";
+        } else if (type == Short.TYPE) {
+            return "S";
+        } else if (type == Character.TYPE) {
+            return "C";
+        } else if (type == Integer.TYPE) {
+            return "I";
+        } else if (type == Long.TYPE) {
+            return "J";
+        } else if (type == Float.TYPE) {
+            return "F";
+        } else if (type == Double.TYPE) {
+            return "D";
+        }
+
+        return "L" + type.getName().replace('.', '/') + ";";
+    }
+
+    @Override
+    public String toString() {
+        return "TypeIndex{" +
+                "types=" + types.size() +
+                '}';
+    }
+
+    /**
+     * Indexed type.
+     */
+    public static final class Entry {
+
+        private final Map<String, Member> members;
+
+
+        private Entry(Map<String, Member> members) {
+            this.members = members;
+        }
+
+        /**
+         * Finds a method or a constructor declared in the type.
+         *
+         * @param executable the method or the constructor
+         * @return the member
+         */
+        public Optional<Member> find(Executable executable) {
+            return Optional.ofNullable(members.get(key(executable)));
+        }
+    }
+
+    /**
+     * Indexed method or constructor.
+     */
+    public static final class Member {
+
+        private final List<String> parameterNames;
+
+
+        private Member(List<String> parameterNames) {
+            this.parameterNames = Collections.unmodifiableList(parameterNames);
+        }
+
+        public List<String> getParameterNames() {
+            return parameterNames;
+        }
+    }
+}
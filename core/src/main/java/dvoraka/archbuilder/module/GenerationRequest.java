@@ -0,0 +1,70 @@
+package dvoraka.archbuilder.module;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Request for a generation of one project. Names without a value are from the server builder properties
+ * and properties are overrides of the server builder properties by property path, e.g.
+ * <code>service.name</code>.
+ */
+public class GenerationRequest {
+
+    private String module = ModuleRegistry.DEFAULT_MODULE;
+    private String rootDirName;
+    private String packageName;
+    private String serviceName;
+    private Map<String, String> properties = new HashMap<>();
+
+
+    public String getModule() {
+        return module;
+    }
+
+    public void setModule(String module) {
+        this.module = module;
+    }
+
+    public String getRootDirName() {
+        return rootDirName;
+    }
+
+    public void setRootDirName(String rootDirName) {
+        this.rootDirName = rootDirName;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public void setServiceName(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public void setProperties(Map<String, String> properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationRequest{" +
+                "module='" + module + '\'' +
+                ", rootDirName='" + rootDirName + '\'' +
+                ", packageName='" + packageName + '\'' +
+                ", serviceName='" + serviceName + '\'' +
+                ", properties=" + properties +
+                '}';
+    }
+}
@@ -0,0 +1,198 @@
+package dvoraka.archbuilder.module;
+
+import dvoraka.archbuilder.BuilderHelper;
+import dvoraka.archbuilder.BuilderProperties;
+import dvoraka.archbuilder.data.Directory;
+import dvoraka.archbuilder.module.microservice.DefaultMicroservice;
+import dvoraka.archbuilder.module.microservice.DefaultRestMicroservice;
+import dvoraka.archbuilder.springconfig.SpringConfigGenerator;
+
+import javax.lang.model.SourceVersion;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Registry of modules by name. It builds blueprints for generation requests with request properties
+ * applied on a copy of the default builder properties.
+ * <p>
+ * All names are validated because they become directory and file names.
+ */
+public class ModuleRegistry {
+
+    public static final String DEFAULT_MODULE = "microservice";
+    public static final String REST_MODULE = "rest-microservice";
+
+    private static final Pattern ROOT_DIR_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    private static final Pattern NAME_PART = Pattern.compile("[A-Za-z0-9_$]*");
+
+    private final BuilderProperties properties;
+    private final Map<String, Function<BuilderHelper, Module>> modules;
+
+
+    public ModuleRegistry(BuilderProperties properties) {
+        this.properties = requireNonNull(properties);
+        modules = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a registry with all default modules.
+     *
+     * @param properties      the default builder properties
+     * @param configGenerator the Spring configuration generator for modules
+     * @return the registry
+     */
+    public static ModuleRegistry defaults(BuilderProperties properties, SpringConfigGenerator configGenerator) {
+        requireNonNull(configGenerator);
+
+        ModuleRegistry registry = new ModuleRegistry(properties);
+        registry.register(DEFAULT_MODULE, helper -> new DefaultMicroservice(helper, configGenerator));
+        registry.register(REST_MODULE, helper -> new DefaultRestMicroservice(helper, configGenerator));
+
+        return registry;
+    }
+
+    /**
+     * Registers a module.
+     *
+     * @param name    the module name
+     * @param factory the module factory
+     */
+    public void register(String name, Function<BuilderHelper, Module> factory) {
+        modules.put(requireNonNull(name), requireNonNull(factory));
+    }
+
+    public Set<String> getModules() {
+        return Collections.unmodifiableSet(modules.keySet());
+    }
+
+    /**
+     * Builds a blueprint for a request.
+     *
+     * @param request the request
+     * @return the root directory of the module
+     * @throws IllegalArgumentException if the request is invalid
+     */
+    public Directory build(GenerationRequest request) {
+        Function<BuilderHelper, Module> factory = modules.get(String.valueOf(request.getModule()));
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown module: " + request.getModule());
+        }
+
+        return factory.apply(new BuilderHelper(resolveProperties(request))).getRootDirectory();
+    }
+
+    /**
+     * Returns builder properties of a request. They are the default properties with the request properties
+     * and names applied.
+     *
+     * @param request the request
+     * @return the properties
+     * @throws IllegalArgumentException if the properties are invalid
+     */
+    public BuilderProperties resolveProperties(GenerationRequest request) {
+        BuilderProperties requestProperties = properties.copy();
+        if (request.getProperties() != null) {
+            for (Map.Entry<String, String> property : request.getProperties().entrySet()) {
+                setProperty(requestProperties, property.getKey(), property.getValue());
+            }
+        }
+        if (request.getRootDirName() != null) {
+            requestProperties.setRootDirName(request.getRootDirName());
+        }
+        if (request.getPackageName() != null) {
+            requestProperties.setPackageName(request.getPackageName());
+        }
+        if (request.getServiceName() != null) {
+            requestProperties.getService().setName(request.getServiceName());
+        }
+        validate(requestProperties);
+
+        return requestProperties;
+    }
+
+    private static void setProperty(Object bean, String path, String value) {
+        String[] names = String.valueOf(path).split("\\.");
+        Object target = bean;
+        try {
+            for (int i = 0; i < names.length - 1 && target != null; i++) {
+                target = findProperty(target, names[i], path).getReadMethod().invoke(target);
+            }
+            if (target == null) {
+                throw new IllegalArgumentException("Invalid property: " + path);
+            }
+            PropertyDescriptor property = findProperty(target, names[names.length - 1], path);
+            if (property.getWriteMethod() == null) {
+                throw new IllegalArgumentException("Read-only property: " + path);
+            }
+            property.getWriteMethod().invoke(target, convert(value, property.getPropertyType(), path));
+        } catch (IllegalAccessException | InvocationTargetException | IntrospectionException e) {
+            throw new IllegalArgumentException("Invalid property: " + path, e);
+        }
+    }
+
+    private static PropertyDescriptor findProperty(Object target, String name, String path)
+            throws IntrospectionException {
+
+        for (PropertyDescriptor property : Introspector.getBeanInfo(target.getClass()).getPropertyDescriptors()) {
+            if (property.getName().equals(name) && property.getReadMethod() != null) {
+                return property;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown property: " + path);
+    }
+
+    private static Object convert(String value, Class<?> type, String path) {
+        if (type == String.class) {
+            return value;
+        } else if (type == boolean.class || type == Boolean.class) {
+            return Boolean.valueOf(value);
+        } else if (type == int.class || type == Integer.class) {
+            try {
+                return Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number for property " + path + ": " + value, e);
+            }
+        }
+
+        throw new IllegalArgumentException("Unsupported property type: " + path);
+    }
+
+    private static void validate(BuilderProperties properties) {
+        if (!ROOT_DIR_NAME.matcher(String.valueOf(properties.getRootDirName())).matches()) {
+            throw new IllegalArgumentException("Invalid root directory name: " + properties.getRootDirName());
+        }
+        if (!SourceVersion.isName(String.valueOf(properties.getPackageName()))) {
+            throw new IllegalArgumentException("Invalid package name: " + properties.getPackageName());
+        }
+        if (!SourceVersion.isName(String.valueOf(properties.getService().getPkgName()))) {
+            throw new IllegalArgumentException("Invalid service package name: "
+                    + properties.getService().getPkgName());
+        }
+        String[] nameParts = {
+                properties.getService().getName(),
+                properties.getService().getString(),
+                properties.getAppString(),
+                properties.getConfigString(),
+                properties.getControllerString(),
+                properties.getDefaultString(),
+                properties.getExceptionString(),
+                properties.getServerString(),
+        };
+        for (String namePart : nameParts) {
+            if (!NAME_PART.matcher(String.valueOf(namePart)).matches()) {
+                throw new IllegalArgumentException("Invalid name: " + namePart);
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package dvoraka.archbuilder.output;
+
+import dvoraka.archbuilder.exception.GeneratorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sink writing files into another sink in background writer threads, so generation doesn't wait for I/O.
+ * <p>
+ * Every writer has a bounded queue and the generation waits only when the queue is full. Files are assigned
+ * to writers by their directory, so all files of one directory are written by one writer in the order
+ * of writing, every directory is created only once and a file written again before the first write is done
+ * is written only once.
+ * <p>
+ * Files not written yet are readable from the sink. Write errors are thrown from {@link #flush()}
+ * and {@link #close()}.
+ */
+public class AsyncSink implements OutputSink {
+
+    public static final int DEFAULT_WRITERS = 2;
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    private static final int BATCH_SIZE = 64;
+
+    private final Logger log = LoggerFactory.getLogger(AsyncSink.class);
+
+    private final OutputSink sink;
+    private final List<BlockingQueue<Operation>> queues;
+    private final List<Thread> writers;
+    private final Map<Path, Operation> pending;
+    private final Set<Path> directories;
+    private final AtomicReference<RuntimeException> failure;
+    private final Object lock;
+
+    private long outstanding;
+    private volatile boolean closed;
+
+
+    public AsyncSink(OutputSink sink) {
+        this(sink, DEFAULT_WRITERS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a sink and starts its writers.
+     *
+     * @param sink          the sink for writing
+     * @param writerCount   the number of writer threads
+     * @param queueCapacity the queue capacity of one writer
+     */
+    public AsyncSink(OutputSink sink, int writerCount, int queueCapacity) {
+        if (writerCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Writer count and queue capacity must be positive.");
+        }
+        this.sink = requireNonNull(sink);
+        queues = new ArrayList<>();
+        writers = new ArrayList<>();
+        pending = new ConcurrentHashMap<>();
+        directories = ConcurrentHashMap.newKeySet();
+        failure = new AtomicReference<>();
+        lock = new Object();
+
+        for (int i = 0; i < writerCount; i++) {
+            BlockingQueue<Operation> queue = new ArrayBlockingQueue<>(queueCapacity);
+            Thread writer = new Thread(() -> runWriter(queue), "output-writer-" + i);
+            writer.setDaemon(true);
+            queues.add(queue);
+            writers.add(writer);
+        }
+        writers.forEach(Thread::start);
+    }
+
+    @Override
+    public void createDirectories(Path path) {
+        if (!directories.contains(path)) {
+            submit(path, new Operation(OperationType.CREATE_DIRECTORIES, path, null));
+        }
+    }
+
+    @Override
+    public void write(Path path, byte[] content) {
+        submitFile(new Operation(OperationType.WRITE, path, content));
+    }
+
+    @Override
+    public void replace(Path path, byte[] content) {
+        submitFile(new Operation(OperationType.REPLACE, path, content));
+    }
+
+    @Override
+    public void link(Path path, Path source) {
+        submitFile(new Operation(OperationType.LINK, path, null, source));
+    }
+
+    @Override
+    public Optional<byte[]> read(Path path) {
+        Operation operation = pending.get(path);
+        if (operation != null && operation.type == OperationType.LINK) {
+            try {
+                return Optional.of(Files.readAllBytes(operation.source));
+            } catch (IOException e) {
+                throw new GeneratorException("Reading file failed: " + operation.source, e);
+            }
+        }
+        if (operation != null) {
+            return Optional.ofNullable(operation.content);
+        }
+
+        return sink.read(path);
+    }
+
+    @Override
+    public void delete(Path path) {
+        submitFile(new Operation(OperationType.DELETE, path, null));
+    }
+
+    private void submitFile(Operation operation) {
+        pending.put(operation.path, operation);
+        Path directory = operation.path.getParent();
+        submit(directory != null ? directory : operation.path, operation);
+    }
+
+    private void submit(Path directory, Operation operation) {
+        if (closed) {
+            throw new GeneratorException("Output is closed.");
+        }
+
+        synchronized (lock) {
+            outstanding++;
+        }
+        BlockingQueue<Operation> queue = queues.get(Math.floorMod(directory.hashCode(), queues.size()));
+        try {
+            queue.put(operation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            done(1);
+            throw new GeneratorException("Writing interrupted: " + operation.path, e);
+        }
+    }
+
+    private void runWriter(BlockingQueue<Operation> queue) {
+        List<Operation> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+
+            for (Operation operation : batch) {
+                try {
+                    process(operation);
+                } catch (RuntimeException e) {
+                    log.error("Writing failed: {}", operation.path, e);
+                    failure.compareAndSet(null, e);
+                }
+            }
+            done(batch.size());
+            batch.clear();
+        }
+    }
+
+    private void process(Operation operation) {
+        if (operation.type == OperationType.CREATE_DIRECTORIES) {
+            createDirectoriesOnce(operation.path);
+            return;
+        }
+
+        // a newer operation with the same file is processed later
+        if (pending.get(operation.path) != operation) {
+            return;
+        }
+        if (operation.type != OperationType.DELETE && operation.path.getParent() != null) {
+            createDirectoriesOnce(operation.path.getParent());
+        }
+
+        switch (operation.type) {
+            case WRITE:
+                sink.write(operation.path, operation.content);
+                break;
+            case REPLACE:
+                sink.replace(operation.path, operation.content);
+                break;
+            case LINK:
+                sink.link(operation.path, operation.source);
+                break;
+            case DELETE:
+                sink.delete(operation.path);
+                break;
+            default:
+                throw new GeneratorException("Unknown operation: " + operation.type);
+        }
+        pending.remove(operation.path, operation);
+    }
+
+    private void createDirectoriesOnce(Path path) {
+        if (!directories.contains(path)) {
+            sink.createDirectories(path);
+            for (Path directory = path; directory != null; directory = directory.getParent()) {
+                directories.add(directory);
+            }
+        }
+    }
+
+    private void done(int count) {
+        synchronized (lock) {
+            outstanding -= count;
+            if (outstanding == 0) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        synchronized (lock) {
+            while (outstanding > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GeneratorException("Flushing output interrupted.", e);
+                }
+            }
+        }
+        sink.flush();
+
+        RuntimeException exception = failure.getAndSet(null);
+        if (exception != null) {
+            throw new GeneratorException("Writing output failed.", exception);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            writers.forEach(Thread::interrupt);
+            sink.close();
+        }
+    }
+
+    private enum OperationType {
+        CREATE_DIRECTORIES,
+        WRITE,
+        REPLACE,
+        LINK,
+        DELETE
+    }
+
+    private static final class Operation {
+
+        private final OperationType type;
+        private final Path path;
+        private final byte[] content;
+        private final Path source;
+
+
+        private Operation(OperationType type, Path path, byte[] content) {
+            this(type, path, content, null);
+        }
+
+        private Operation(OperationType type, Path path, byte[] content, Path source) {
+            this.type = type;
+            this.path = path;
+            this.content = content;
+            this.source = source;
+        }
+    }
+}
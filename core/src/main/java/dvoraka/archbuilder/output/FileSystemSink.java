@@ -0,0 +1,168 @@
+package dvoraka.archbuilder.output;
+
+import dvoraka.archbuilder.exception.GeneratorException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sink writing files under a root directory of any NIO file system, so the same sink writes to the local
+ * disk, into a ZIP file system or into an in-memory file system.
+ * <p>
+ * With sync every file is forced to the storage device before the write returns. It's slower but no written
+ * file is lost when the system crashes.
+ */
+public class FileSystemSink implements OutputSink {
+
+    private final Path root;
+    private final boolean sync;
+
+
+    public FileSystemSink(Path root) {
+        this(root, false);
+    }
+
+    public FileSystemSink(Path root, boolean sync) {
+        this.root = requireNonNull(root);
+        this.sync = sync;
+    }
+
+    /**
+     * Returns a sink writing relative to the working directory.
+     *
+     * @return the sink
+     */
+    public static FileSystemSink local() {
+        return new FileSystemSink(Paths.get(""));
+    }
+
+    @Override
+    public void createDirectories(Path path) {
+        Path directory = resolve(path);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new GeneratorException("Creating directory failed: " + directory, e);
+        }
+    }
+
+    @Override
+    public void write(Path path, byte[] content) {
+        Path file = resolve(path);
+        try {
+            writeFile(file, content);
+        } catch (IOException e) {
+            throw new GeneratorException("Writing file failed: " + file, e);
+        }
+    }
+
+    @Override
+    public void replace(Path path, byte[] content) {
+        Path file = resolve(path);
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            writeFile(tmpFile, content);
+            try {
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new GeneratorException("Writing file failed: " + file, e);
+        }
+    }
+
+    /**
+     * Creates a hard link to the source if the source is on the same file system and the file system supports
+     * links, otherwise copies the source. A linked file shares its content with the source, so changing one
+     * of them in place changes both.
+     *
+     * @param path   the file path
+     * @param source the source file
+     */
+    @Override
+    public void link(Path path, Path source) {
+        Path file = resolve(path);
+        try {
+            if (!sync && source.getFileSystem().equals(file.getFileSystem())) {
+                try {
+                    Files.deleteIfExists(file);
+                    Files.createLink(file, source);
+                    return;
+                } catch (UnsupportedOperationException | IOException e) {
+                    // different devices or no links on the file system
+                }
+            }
+            writeFile(file, Files.readAllBytes(source));
+        } catch (IOException e) {
+            throw new GeneratorException("Writing file failed: " + file, e);
+        }
+    }
+
+    private void writeFile(Path file, byte[] content) throws IOException {
+        if (!sync) {
+            Files.write(file, content);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> read(Path path) {
+        Path file = resolve(path);
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new GeneratorException("Reading file failed: " + file, e);
+        }
+    }
+
+    @Override
+    public void delete(Path path) {
+        Path file = resolve(path);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new GeneratorException("Removing failed: " + file, e);
+        }
+    }
+
+    private Path resolve(Path path) {
+        // the path may be from another file system
+        return root.resolve(path.toString().replace('\\', '/'));
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public boolean isSync() {
+        return sync;
+    }
+
+    @Override
+    public void close() {
+        // files are written immediately
+    }
+}
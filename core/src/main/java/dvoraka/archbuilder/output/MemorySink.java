@@ -0,0 +1,65 @@
+package dvoraka.archbuilder.output;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sink keeping all files in memory. It's useful for dry runs and tests.
+ */
+public class MemorySink implements OutputSink {
+
+    private final Map<Path, byte[]> files;
+    private final Set<Path> directories;
+
+
+    public MemorySink() {
+        files = new ConcurrentSkipListMap<>();
+        directories = ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public void createDirectories(Path path) {
+        for (Path directory = path; directory != null; directory = directory.getParent()) {
+            directories.add(directory);
+        }
+    }
+
+    @Override
+    public void write(Path path, byte[] content) {
+        files.put(path, content.clone());
+    }
+
+    @Override
+    public Optional<byte[]> read(Path path) {
+        return Optional.ofNullable(files.get(path))
+                .map(byte[]::clone);
+    }
+
+    @Override
+    public void delete(Path path) {
+        files.remove(path);
+    }
+
+    /**
+     * Returns all files sorted by path.
+     *
+     * @return the files
+     */
+    public Map<Path, byte[]> getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+
+    public Set<Path> getDirectories() {
+        return Collections.unmodifiableSet(directories);
+    }
+
+    @Override
+    public void close() {
+        // the content stays available
+    }
+}
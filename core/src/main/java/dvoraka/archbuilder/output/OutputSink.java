@@ -0,0 +1,86 @@
+package dvoraka.archbuilder.output;
+
+import dvoraka.archbuilder.exception.GeneratorException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Destination of generated files. Paths are relative paths of generated directories and files, so one
+ * generation can go to the local disk, to memory or into an archive.
+ * <p>
+ * Sinks are used by concurrent generations and must be thread-safe.
+ */
+public interface OutputSink extends AutoCloseable {
+
+    /**
+     * Creates a directory with all its parents.
+     *
+     * @param path the directory path
+     */
+    void createDirectories(Path path);
+
+    /**
+     * Writes a file. An existing file is replaced.
+     *
+     * @param path    the file path
+     * @param content the content
+     */
+    void write(Path path, byte[] content);
+
+    /**
+     * Writes a file so readers never see it incomplete. The default implementation is the same as
+     * {@link #write(Path, byte[])}.
+     *
+     * @param path    the file path
+     * @param content the content
+     */
+    default void replace(Path path, byte[] content) {
+        write(path, content);
+    }
+
+    /**
+     * Writes a file with the content of a local file. Sinks on the file system of the source may link
+     * the file instead of copying it. The default implementation reads the source and writes its content.
+     *
+     * @param path   the file path
+     * @param source the source file
+     */
+    default void link(Path path, Path source) {
+        try {
+            write(path, Files.readAllBytes(source));
+        } catch (IOException e) {
+            throw new GeneratorException("Reading file failed: " + source, e);
+        }
+    }
+
+    /**
+     * Reads a file. Write-only sinks never find any file.
+     *
+     * @param path the file path
+     * @return the content
+     */
+    Optional<byte[]> read(Path path);
+
+    /**
+     * Deletes a file if it exists.
+     *
+     * @param path the file path
+     */
+    void delete(Path path);
+
+    /**
+     * Waits until all files written so far are in the output. The default implementation does nothing
+     * because files are written immediately.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Finishes the output. Nothing can be written after closing.
+     */
+    @Override
+    void close();
+}
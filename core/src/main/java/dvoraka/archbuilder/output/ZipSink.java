@@ -0,0 +1,104 @@
+package dvoraka.archbuilder.output;
+
+import dvoraka.archbuilder.exception.GeneratorException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sink streaming files into a ZIP archive, so a whole project can be sent to a socket or saved as one file
+ * without creating any small files. Entries are written in the order of writing and the archive is finished
+ * when the sink is closed.
+ * <p>
+ * The archive is write-only, nothing can be read or deleted from it.
+ */
+public class ZipSink implements OutputSink {
+
+    private final ZipOutputStream output;
+    private final Set<String> entries;
+
+    private boolean closed;
+
+
+    public ZipSink(OutputStream output) {
+        this.output = new ZipOutputStream(requireNonNull(output));
+        entries = new HashSet<>();
+    }
+
+    @Override
+    public synchronized void createDirectories(Path path) {
+        checkOpen();
+        for (int i = 1; i <= path.getNameCount(); i++) {
+            String name = entryName(path.subpath(0, i)) + "/";
+            if (entries.add(name)) {
+                putEntry(name, null);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void write(Path path, byte[] content) {
+        checkOpen();
+        if (path.getParent() != null) {
+            createDirectories(path.getParent());
+        }
+        String name = entryName(path);
+        if (!entries.add(name)) {
+            throw new GeneratorException("File is already in the archive: " + name);
+        }
+        putEntry(name, content);
+    }
+
+    private void putEntry(String name, byte[] content) {
+        try {
+            output.putNextEntry(new ZipEntry(name));
+            if (content != null) {
+                output.write(content);
+            }
+            output.closeEntry();
+        } catch (IOException e) {
+            throw new GeneratorException("Writing archive entry failed: " + name, e);
+        }
+    }
+
+    private static String entryName(Path path) {
+        return path.toString().replace('\\', '/');
+    }
+
+    @Override
+    public Optional<byte[]> read(Path path) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void delete(Path path) {
+        // nothing from previous generations is in the archive
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new GeneratorException("Archive is closed.");
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            output.close();
+        } catch (IOException e) {
+            throw new GeneratorException("Finishing archive failed.", e);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package dvoraka.archbuilder.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import dvoraka.archbuilder.data.BlueprintFormat;
+import dvoraka.archbuilder.data.DirType;
+import dvoraka.archbuilder.data.Directory;
+import dvoraka.archbuilder.exception.GeneratorException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+
+public class DefaultDirService implements DirService {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Directory, SoftReference<DirIndex>> indexes;
+
+
+    public DefaultDirService() {
+        this(new ObjectMapper().registerModule(new Jdk8Module()));
+    }
+
+    public DefaultDirService(ObjectMapper objectMapper) {
+        this.objectMapper = requireNonNull(objectMapper);
+        indexes = Collections.synchronizedMap(new WeakHashMap<>());
+    }
+
+
+    @Override
+    public void processDirs(Directory root, Consumer<Directory> nodeProcessor, Consumer<Directory> leafProcessor) {
+        postOrder(root).forEach(dir -> {
+            if (dir.getChildren().isEmpty()) {
+                leafProcessor.accept(dir);
+            } else {
+                nodeProcessor.accept(dir);
+            }
+        });
+    }
+
+    @Override
+    public void processDirs(Directory root, Consumer<Directory> processor) {
+        processDirs(root, processor, processor);
+    }
+
+    @Override
+    public void processDirLeafs(Directory root, Consumer<Directory> processor) {
+        leaves(root).forEach(processor);
+    }
+
+    @Override
+    public void processDirNodes(Directory root, Consumer<Directory> processor) {
+        traverse(root, DirSpliterator.Order.POST_ORDER, dir -> !dir.getChildren().isEmpty())
+                .forEach(processor);
+    }
+
+    @Override
+    public Stream<Directory> preOrder(Directory root) {
+        return traverse(root, DirSpliterator.Order.PRE_ORDER, dir -> true);
+    }
+
+    @Override
+    public Stream<Directory> postOrder(Directory root) {
+        return traverse(root, DirSpliterator.Order.POST_ORDER, dir -> true);
+    }
+
+    @Override
+    public Stream<Directory> leaves(Directory root) {
+        return traverse(root, DirSpliterator.Order.PRE_ORDER, dir -> dir.getChildren().isEmpty());
+    }
+
+    private static Stream<Directory> traverse(
+            Directory root,
+            DirSpliterator.Order order,
+            Predicate<Directory> filter
+    ) {
+        return StreamSupport.stream(new DirSpliterator(root, order, filter), false);
+    }
+
+    @Override
+    public Optional<Directory> findByType(DirType type, Directory directory) {
+        if (directory.isFrozen()) {
+            return getIndex(directory).findByType(type).stream()
+                    .findFirst();
+        }
+
+        return findByTypeFrom(type, getRoot(directory));
+    }
+
+    @Override
+    public Optional<Directory> findByTypeFrom(DirType type, Directory fromDirectory) {
+        if (fromDirectory.isFrozen()) {
+            return getIndex(fromDirectory).findByType(type).stream()
+                    .filter(found -> isInTree(found, fromDirectory))
+                    .findFirst();
+        }
+
+        return preOrder(fromDirectory)
+                .filter(dir -> dir.getType() == type)
+                .findFirst();
+    }
+
+    private static boolean isInTree(Directory directory, Directory treeRoot) {
+        for (Directory current = directory; current != null; current = current.getParent()) {
+            if (current == treeRoot) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public DirIndex getIndex(Directory directory) {
+        Directory root = getRoot(directory);
+        if (!root.isFrozen()) {
+            return DirIndex.build(root);
+        }
+
+        SoftReference<DirIndex> reference = indexes.get(root);
+        DirIndex index = reference != null ? reference.get() : null;
+        if (index == null) {
+            index = DirIndex.build(root);
+            indexes.put(root, new SoftReference<>(index));
+        }
+
+        return index;
+    }
+
+    @Override
+    public List<Directory> findAllByType(DirType type, Directory directory) {
+        return getIndex(directory).findByType(type);
+    }
+
+    @Override
+    public Optional<Directory> findById(String id, Directory directory) {
+        return getIndex(directory).findById(id);
+    }
+
+    @Override
+    public List<Directory> findByFilename(String filename, Directory directory) {
+        return getIndex(directory).findByFilename(filename);
+    }
+
+    @Override
+    public List<Directory> findByPackage(String packageName, Directory directory) {
+        return getIndex(directory).findByPackage(packageName);
+    }
+
+    @Override
+    public List<Directory> findSubtypes(DirType type, Directory superType) {
+        return getIndex(superType).findSubtypes(superType).stream()
+                .filter(subtype -> subtype.getType() == type)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Directory> findSubtypes(Class<?> superType, Directory directory) {
+        return getIndex(directory).findSubtypes(superType.getName());
+    }
+
+    @Override
+    public List<Directory> findDependents(Directory dependency) {
+        return getIndex(dependency).findDependents(dependency);
+    }
+
+    @Override
+    public List<List<Directory>> findIdenticalSubtrees(Directory directory) {
+        return getIndex(directory).findIdenticalSubtrees();
+    }
+
+    @Override
+    public Directory getRoot(Directory directory) {
+        Directory root = directory;
+        while (!root.isRoot()) {
+            root = root.getParent();
+        }
+
+        return root;
+    }
+
+    @Override
+    public String toJson(Directory directory) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(directory);
+    }
+
+    @Override
+    public Directory fromJson(String json) throws JsonProcessingException {
+        try {
+            return objectMapper.readValue(json, Directory.class);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public void toBinary(Directory directory, OutputStream output) throws IOException {
+        BlueprintFormat.write(directory, output);
+    }
+
+    @Override
+    public Directory fromBinary(InputStream input) throws IOException {
+        return BlueprintFormat.read(input);
+    }
+
+    @Override
+    public Path getFilePath(Directory directory) {
+        return Paths.get(directory.getPath()
+                + File.separator
+                + directory.getFilename().orElseThrow(() -> new GeneratorException("No filename."))
+        );
+    }
+}
@@ -0,0 +1,254 @@
+package dvoraka.archbuilder.service;
+
+import dvoraka.archbuilder.data.DirType;
+import dvoraka.archbuilder.data.Directory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable index of a directory tree. Directories are indexed by type, ID, filename, package, supertype
+ * and dependency, so queries don't walk the whole tree. All lists are in the depth-first order from
+ * the root. Content hashes are indexed on the first query only because they need all texts.
+ * <p>
+ * The index is valid only while the tree doesn't change, so it should be built for frozen trees.
+ *
+ * @see Directory#freeze()
+ */
+public final class DirIndex {
+
+    private final Directory root;
+    private final List<Directory> directories;
+    private final Map<DirType, List<Directory>> byType;
+    private final Map<String, Directory> byId;
+    private final Map<String, List<Directory>> byFilename;
+    private final Map<String, List<Directory>> byPackage;
+    private final Map<String, List<Directory>> byTypeName;
+    private final Map<Directory, List<Directory>> subtypes;
+    private final Map<String, List<Directory>> subtypesByTypeName;
+    private final Map<Directory, List<Directory>> dependents;
+
+    private volatile Map<String, List<Directory>> byContentHash;
+
+
+    private DirIndex(Directory root) {
+        this.root = root;
+        directories = new ArrayList<>();
+        byType = new EnumMap<>(DirType.class);
+        byId = new HashMap<>();
+        byFilename = new HashMap<>();
+        byPackage = new HashMap<>();
+        byTypeName = new HashMap<>();
+        subtypes = new IdentityHashMap<>();
+        subtypesByTypeName = new HashMap<>();
+        dependents = new IdentityHashMap<>();
+    }
+
+    /**
+     * Builds an index of the whole tree of a directory.
+     *
+     * @param directory any directory from the tree
+     * @return the index
+     */
+    public static DirIndex build(Directory directory) {
+        Directory root = directory;
+        while (!root.isRoot()) {
+            root = root.getParent();
+        }
+
+        DirIndex index = new DirIndex(root);
+        Deque<Directory> toVisit = new ArrayDeque<>();
+        toVisit.push(root);
+        while (!toVisit.isEmpty()) {
+            Directory current = toVisit.pop();
+            index.add(current);
+
+            List<Directory> children = current.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                toVisit.push(children.get(i));
+            }
+        }
+
+        return index;
+    }
+
+    private void add(Directory directory) {
+        directories.add(directory);
+        append(byType, directory.getType(), directory);
+        byId.put(directory.getId(), directory);
+        directory.getFilename()
+                .ifPresent(filename -> append(byFilename, filename, directory));
+        String typeName = directory.getTypeName();
+        if (typeName != null) {
+            append(byTypeName, typeName, directory);
+            // abstract directories stand for types from other packages
+            int lastDot = typeName.lastIndexOf('.');
+            append(byPackage, lastDot == -1 ? "" : typeName.substring(0, lastDot), directory);
+        }
+        for (Directory superType : directory.getSuperTypes()) {
+            append(subtypes, superType, directory);
+            if (superType.getTypeName() != null) {
+                append(subtypesByTypeName, superType.getTypeName(), directory);
+            }
+        }
+        for (Directory dependency : directory.getDependencies()) {
+            append(dependents, dependency, directory);
+        }
+    }
+
+    private static <K> void append(Map<K, List<Directory>> map, K key, Directory directory) {
+        map.computeIfAbsent(key, k -> new ArrayList<>()).add(directory);
+    }
+
+    private static <K> List<Directory> get(Map<K, List<Directory>> map, K key) {
+        return Collections.unmodifiableList(map.getOrDefault(key, Collections.emptyList()));
+    }
+
+    public Directory getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns all directories of the tree.
+     *
+     * @return the directories
+     */
+    public List<Directory> getDirectories() {
+        return Collections.unmodifiableList(directories);
+    }
+
+    public List<Directory> findByType(DirType type) {
+        return get(byType, type);
+    }
+
+    public Optional<Directory> findById(String id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Finds directories by filename. Java types have filenames with the .java suffix.
+     *
+     * @param filename the filename
+     * @return the directories
+     */
+    public List<Directory> findByFilename(String filename) {
+        return get(byFilename, filename);
+    }
+
+    /**
+     * Finds Java type directories in a package. The package is from the type name.
+     *
+     * @param packageName the package name
+     * @return the directories
+     */
+    public List<Directory> findByPackage(String packageName) {
+        return get(byPackage, packageName);
+    }
+
+    public List<Directory> findByTypeName(String typeName) {
+        return get(byTypeName, typeName);
+    }
+
+    /**
+     * Finds directories with a given direct supertype.
+     *
+     * @param superType the supertype directory
+     * @return the directories
+     */
+    public List<Directory> findSubtypes(Directory superType) {
+        return get(subtypes, superType);
+    }
+
+    /**
+     * Finds directories with a direct supertype of a given type name, no matter which directory
+     * represents the supertype.
+     *
+     * @param typeName the supertype name
+     * @return the directories
+     */
+    public List<Directory> findSubtypes(String typeName) {
+        return get(subtypesByTypeName, typeName);
+    }
+
+    /**
+     * Finds directories which directly depend on a given directory.
+     *
+     * @param dependency the dependency
+     * @return the dependent directories
+     */
+    public List<Directory> findDependents(Directory dependency) {
+        return get(dependents, dependency);
+    }
+
+    /**
+     * Finds subtrees with a given content hash.
+     *
+     * @param contentHash the content hash
+     * @return the subtree roots
+     * @see Directory#getContentHash()
+     */
+    public List<Directory> findByContentHash(String contentHash) {
+        return get(getByContentHash(), contentHash);
+    }
+
+    /**
+     * Finds groups of identical subtrees. Only the largest identical subtrees are returned, their
+     * descendants are identical too but they are not in any other group.
+     *
+     * @return the groups of identical subtree roots
+     */
+    public List<List<Directory>> findIdenticalSubtrees() {
+        Map<String, List<Directory>> hashes = getByContentHash();
+        List<List<Directory>> groups = new ArrayList<>();
+        Set<Directory> covered = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<String> found = new HashSet<>();
+        for (Directory directory : directories) {
+            if (directory.getParent() != null && covered.contains(directory.getParent())) {
+                covered.add(directory);
+                continue;
+            }
+
+            String contentHash = directory.getContentHash();
+            List<Directory> identical = hashes.get(contentHash);
+            if (identical.size() > 1) {
+                covered.add(directory);
+                if (found.add(contentHash)) {
+                    groups.add(Collections.unmodifiableList(identical));
+                }
+            }
+        }
+
+        return groups;
+    }
+
+    private Map<String, List<Directory>> getByContentHash() {
+        Map<String, List<Directory>> hashes = byContentHash;
+        if (hashes == null) {
+            hashes = new HashMap<>();
+            for (Directory directory : directories) {
+                append(hashes, directory.getContentHash(), directory);
+            }
+            byContentHash = hashes;
+        }
+
+        return hashes;
+    }
+
+    @Override
+    public String toString() {
+        return "DirIndex{" +
+                "root=" + root.getName() +
+                ", directories=" + directories.size() +
+                '}';
+    }
+}
@@ -0,0 +1,195 @@
+package dvoraka.archbuilder.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import dvoraka.archbuilder.data.DirType;
+import dvoraka.archbuilder.data.Directory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public interface DirService {
+
+    void processDirs(Directory root, Consumer<Directory> nodeProcessor, Consumer<Directory> leafProcessor);
+
+    void processDirs(Directory root, Consumer<Directory> processor);
+
+    void processDirLeafs(Directory root, Consumer<Directory> processor);
+
+    void processDirNodes(Directory root, Consumer<Directory> processor);
+
+    /**
+     * Returns a stream of all directories of a tree with parents before children. The stream can be
+     * parallel.
+     *
+     * @param root the tree root
+     * @return the stream
+     */
+    Stream<Directory> preOrder(Directory root);
+
+    /**
+     * Returns a stream of all directories of a tree with children before parents. The stream can be
+     * parallel.
+     *
+     * @param root the tree root
+     * @return the stream
+     */
+    Stream<Directory> postOrder(Directory root);
+
+    /**
+     * Returns a stream of directories without children in a tree. The stream can be parallel.
+     *
+     * @param root the tree root
+     * @return the stream
+     */
+    Stream<Directory> leaves(Directory root);
+
+    /**
+     * Finds a given type in the whole directory.
+     *
+     * @param type      the directory type
+     * @param directory any part of the directory
+     * @return the found directory
+     */
+    Optional<Directory> findByType(DirType type, Directory directory);
+
+    /**
+     * Finds a given type from a given directory.
+     *
+     * @param type          the directory type
+     * @param fromDirectory the root directory for the finding
+     * @return the found directory
+     */
+    Optional<Directory> findByTypeFrom(DirType type, Directory fromDirectory);
+
+    /**
+     * Returns an index of the whole tree of a directory. An index of a frozen tree is built only once.
+     *
+     * @param directory any part of the directory
+     * @return the index
+     */
+    DirIndex getIndex(Directory directory);
+
+    /**
+     * Finds all directories of a given type in the whole directory.
+     *
+     * @param type      the directory type
+     * @param directory any part of the directory
+     * @return the found directories
+     */
+    List<Directory> findAllByType(DirType type, Directory directory);
+
+    /**
+     * Finds a directory by ID in the whole directory.
+     *
+     * @param id        the directory ID
+     * @param directory any part of the directory
+     * @return the found directory
+     */
+    Optional<Directory> findById(String id, Directory directory);
+
+    /**
+     * Finds directories by filename in the whole directory.
+     *
+     * @param filename  the filename
+     * @param directory any part of the directory
+     * @return the found directories
+     */
+    List<Directory> findByFilename(String filename, Directory directory);
+
+    /**
+     * Finds Java type directories in a package in the whole directory.
+     *
+     * @param packageName the package name
+     * @param directory   any part of the directory
+     * @return the found directories
+     */
+    List<Directory> findByPackage(String packageName, Directory directory);
+
+    /**
+     * Finds directories of a given type extending a given supertype in the tree of the supertype.
+     *
+     * @param type      the directory type
+     * @param superType the supertype directory
+     * @return the found directories
+     */
+    List<Directory> findSubtypes(DirType type, Directory superType);
+
+    /**
+     * Finds directories extending a given class in the whole directory.
+     *
+     * @param superType the supertype class
+     * @param directory any part of the directory
+     * @return the found directories
+     */
+    List<Directory> findSubtypes(Class<?> superType, Directory directory);
+
+    /**
+     * Finds directories which directly depend on a given directory in the tree of the directory.
+     *
+     * @param dependency the dependency
+     * @return the dependent directories
+     */
+    List<Directory> findDependents(Directory dependency);
+
+    /**
+     * Finds groups of identical subtrees in the whole directory, so they can be generated or cached
+     * only once.
+     *
+     * @param directory any part of the directory
+     * @return the groups of identical subtree roots
+     * @see Directory#getContentHash()
+     */
+    List<List<Directory>> findIdenticalSubtrees(Directory directory);
+
+    /**
+     * Returns a directory root.
+     *
+     * @param directory the directory
+     * @return the root
+     */
+    Directory getRoot(Directory directory);
+
+    /**
+     * Converts a directory into JSON.
+     *
+     * @param directory the directory
+     * @return the JSON
+     */
+    String toJson(Directory directory) throws JsonProcessingException;
+
+    /**
+     * Loads a directory from JSON.
+     *
+     * @param json the JSON
+     * @return the directory
+     */
+    Directory fromJson(String json) throws JsonProcessingException;
+
+    /**
+     * Writes a directory in the binary blueprint format. The blueprint holds the whole tree
+     * of the directory and all trees it refers to.
+     *
+     * @param directory the directory
+     * @param output    the output
+     * @throws IOException if writing fails
+     * @see dvoraka.archbuilder.data.BlueprintFormat
+     */
+    void toBinary(Directory directory, OutputStream output) throws IOException;
+
+    /**
+     * Reads a directory from the binary blueprint format. Nothing after the blueprint is read.
+     *
+     * @param input the input, it should be buffered
+     * @return the directory
+     * @throws IOException if reading fails
+     */
+    Directory fromBinary(InputStream input) throws IOException;
+
+    Path getFilePath(Directory directory);
+}
@@ -0,0 +1,150 @@
+package dvoraka.archbuilder.service;
+
+import dvoraka.archbuilder.data.Directory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Spliterator of a directory tree. The traversal is iterative, so deep trees can't overflow the stack, and
+ * the spliterator splits into independent subtrees, so the tree can be processed by a parallel stream.
+ * <p>
+ * Pending work is a deque of subtrees and single directories in the traversal order. Splitting returns
+ * the first half of the deque and a single pending subtree is expanded into its directory and child
+ * subtrees first, so the encounter order is the same as in the sequential traversal.
+ */
+public final class DirSpliterator implements Spliterator<Directory> {
+
+    /**
+     * Traversal order.
+     */
+    public enum Order {
+        /**
+         * Parents before children.
+         */
+        PRE_ORDER,
+        /**
+         * Children before parents.
+         */
+        POST_ORDER
+    }
+
+    private final Order order;
+    private final Predicate<Directory> filter;
+    private final Deque<Entry> entries;
+
+
+    /**
+     * Creates a spliterator of a whole tree.
+     *
+     * @param root   the tree root
+     * @param order  the traversal order
+     * @param filter the filter for returned directories
+     */
+    public DirSpliterator(Directory root, Order order, Predicate<Directory> filter) {
+        this(order, filter, new ArrayDeque<>());
+        entries.add(new Entry(requireNonNull(root), true));
+    }
+
+    private DirSpliterator(Order order, Predicate<Directory> filter, Deque<Entry> entries) {
+        this.order = requireNonNull(order);
+        this.filter = requireNonNull(filter);
+        this.entries = entries;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Directory> action) {
+        while (!entries.isEmpty()) {
+            Entry entry = entries.pollFirst();
+            if (entry.subtree && !entry.directory.getChildren().isEmpty()) {
+                expand(entry.directory);
+                continue;
+            }
+
+            if (filter.test(entry.directory)) {
+                action.accept(entry.directory);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void expand(Directory directory) {
+        List<Directory> children = directory.getChildren();
+        if (order == Order.POST_ORDER) {
+            entries.addFirst(new Entry(directory, false));
+        }
+        for (int i = children.size() - 1; i >= 0; i--) {
+            entries.addFirst(new Entry(children.get(i), true));
+        }
+        if (order == Order.PRE_ORDER) {
+            entries.addFirst(new Entry(directory, false));
+        }
+    }
+
+    @Override
+    public Spliterator<Directory> trySplit() {
+        // a single subtree is split into its children
+        if (entries.size() == 1) {
+            Entry entry = entries.peekFirst();
+            if (!entry.subtree || entry.directory.getChildren().isEmpty()) {
+                return null;
+            }
+            entries.pollFirst();
+            expand(entry.directory);
+        }
+
+        int prefixSize = entries.size() / 2;
+        if (prefixSize == 0) {
+            return null;
+        }
+
+        Deque<Entry> prefix = new ArrayDeque<>(prefixSize);
+        for (int i = 0; i < prefixSize; i++) {
+            prefix.addLast(entries.pollFirst());
+        }
+
+        return new DirSpliterator(order, filter, prefix);
+    }
+
+    /**
+     * Estimates the remaining directories from pending entries and children of pending subtrees. Deeper
+     * directories aren't counted, so the estimate is low for deep trees but it's cheap and it shrinks
+     * with splitting.
+     *
+     * @return the estimate
+     */
+    @Override
+    public long estimateSize() {
+        long size = 0;
+        for (Entry entry : entries) {
+            size += entry.subtree ? 1 + entry.directory.getChildren().size() : 1;
+        }
+
+        return size;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL;
+    }
+
+    private static final class Entry {
+
+        private final Directory directory;
+        private final boolean subtree;
+
+
+        private Entry(Directory directory, boolean subtree) {
+            this.directory = directory;
+            this.subtree = subtree;
+        }
+    }
+}
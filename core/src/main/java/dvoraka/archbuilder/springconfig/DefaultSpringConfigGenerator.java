@@ -4,6 +4,7 @@ import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import dvoraka.archbuilder.data.Directory;
 import dvoraka.archbuilder.exception.GeneratorException;
@@ -11,14 +12,12 @@ import dvoraka.archbuilder.generate.JavaHelper;
 import dvoraka.archbuilder.util.JavaUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.stereotype.Service;
 
 import javax.lang.model.element.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
-@Service
 public class DefaultSpringConfigGenerator implements SpringConfigGenerator, JavaHelper {
 
     @Override
@@ -27,10 +26,11 @@ public class DefaultSpringConfigGenerator implements SpringConfigGenerator, Java
         List<MethodSpec> methodSpecs = new ArrayList<>();
         for (BeanMapping mapping : beanMappings) {
 
-            Class<?> mappingClass;
-            mappingClass = mapping.getTypeDir() != null
-                    ? loadClass(mapping.getTypeDir().getTypeName())
-                    : mapping.getType();
+            // generated types are referenced by name only, they don't need to be loaded
+            TypeName mappingType;
+            mappingType = mapping.getTypeDir() != null
+                    ? typeNameOf(mapping.getTypeDir().getTypeName())
+                    : TypeName.get(mapping.getType());
 
             Object code = mapping.getCodeTemplate() != null
                     ? mapping.getCodeTemplate().apply(mapping)
@@ -46,13 +46,13 @@ public class DefaultSpringConfigGenerator implements SpringConfigGenerator, Java
 
             List<ParameterSpec> parameterSpecs = new ArrayList<>();
             for (BeanParameter parameter : mapping.getParameters()) {
-                Class<?> parameterClass;
-                parameterClass = parameter.getTypeDir() != null
-                        ? loadClass(parameter.getTypeDir().getTypeName())
-                        : parameter.getType();
+                TypeName parameterType;
+                parameterType = parameter.getTypeDir() != null
+                        ? typeNameOf(parameter.getTypeDir().getTypeName())
+                        : TypeName.get(parameter.getType());
 
                 parameterSpecs.add(ParameterSpec.builder(
-                        parameterClass,
+                        parameterType,
                         parameter.getName())
                         .build()
                 );
@@ -61,7 +61,7 @@ public class DefaultSpringConfigGenerator implements SpringConfigGenerator, Java
             MethodSpec methodSpec = MethodSpec.methodBuilder(mapping.getName())
                     .addAnnotation(Bean.class)
                     .addModifiers(Modifier.PUBLIC)
-                    .returns(mappingClass)
+                    .returns(mappingType)
                     .addParameters(parameterSpecs)
                     .addStatement(codeBlock)
                     .build();
@@ -86,18 +86,18 @@ public class DefaultSpringConfigGenerator implements SpringConfigGenerator, Java
     @Override
     public CodeBlock simpleReturn(BeanMapping beanMapping) {
 
-        Class<?> returnClass = getReturnClass(beanMapping);
+        TypeName returnType = getReturnType(beanMapping);
 
         return CodeBlock.of(
                 "return new $T()",
-                returnClass
+                returnType
         );
     }
 
     @Override
     public CodeBlock paramReturn(BeanMapping beanMapping) {
 
-        Class<?> returnClass = getReturnClass(beanMapping);
+        TypeName returnType = getReturnType(beanMapping);
 
         StringBuilder templateBuilder = new StringBuilder("return new $T(");
         List<BeanParameter> parameters = beanMapping.getParameters();
@@ -111,7 +111,7 @@ public class DefaultSpringConfigGenerator implements SpringConfigGenerator, Java
         templateBuilder.append(")");
 
         List<Object> templateParameters = new ArrayList<>();
-        templateParameters.add(returnClass);
+        templateParameters.add(returnType);
         templateParameters.addAll(parameters.stream()
                 .map(BeanParameter::getName)
                 .collect(Collectors.toList()));
@@ -122,9 +122,9 @@ public class DefaultSpringConfigGenerator implements SpringConfigGenerator, Java
         );
     }
 
-    private Class<?> getReturnClass(BeanMapping beanMapping) {
+    private TypeName getReturnType(BeanMapping beanMapping) {
         return beanMapping.getToTypeDir() != null
-                ? loadClass(beanMapping.getToTypeDir().getTypeName())
-                : beanMapping.getToType();
+                ? typeNameOf(beanMapping.getToTypeDir().getTypeName())
+                : TypeName.get(beanMapping.getToType());
     }
 }
@@ -4,6 +4,12 @@ import dvoraka.archbuilder.util.TextBuilder;
 
 public class AppPropertiesTemplate implements TextFileTemplate {
 
+    private static final String TEXT = TextBuilder.create()
+            .addLn("# Logging")
+            .addLn("logging.level.root=info")
+            .getText();
+
+
     @Override
     public String getFilename() {
         return "application.properties";
@@ -11,10 +17,7 @@ public class AppPropertiesTemplate implements TextFileTemplate {
 
     @Override
     public String getText() {
-        return TextBuilder.create()
-                .addLn("# Logging")
-                .addLn("logging.level.root=info")
-                .getText();
+        return TEXT;
     }
 
     @Override
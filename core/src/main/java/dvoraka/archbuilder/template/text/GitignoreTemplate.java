@@ -4,6 +4,15 @@ import dvoraka.archbuilder.util.TextBuilder;
 
 public class GitignoreTemplate implements TextFileTemplate {
 
+    private static final String TEXT = TextBuilder.create()
+            .addLn("# Gradle")
+            .addLn(".gradle/")
+            .ln()
+            .addLn("# Idea")
+            .addLn(".idea/")
+            .getText();
+
+
     @Override
     public String getFilename() {
         return ".gitignore";
@@ -11,13 +20,7 @@ public class GitignoreTemplate implements TextFileTemplate {
 
     @Override
     public String getText() {
-        return TextBuilder.create()
-                .addLn("# Gradle")
-                .addLn(".gradle/")
-                .ln()
-                .addLn("# Idea")
-                .addLn(".idea/")
-                .getText();
+        return TEXT;
     }
 
     @Override
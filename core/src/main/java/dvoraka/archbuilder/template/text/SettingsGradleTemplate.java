@@ -1,10 +1,16 @@
 package dvoraka.archbuilder.template.text;
 
 import dvoraka.archbuilder.util.TextBuilder;
+import dvoraka.archbuilder.util.TextTemplate;
+
+import java.util.Collections;
 
 public class SettingsGradleTemplate implements TextFileTemplate {
 
     private static final String FILENAME = "settings.gradle";
+    private static final TextTemplate TEMPLATE = TextTemplate.compile(new TextBuilder()
+            .addLn("rootProject.name = '${name}'")
+            .getText());
 
     private final String projectName;
 
@@ -20,10 +26,7 @@ public class SettingsGradleTemplate implements TextFileTemplate {
 
     @Override
     public String getText() {
-        return new TextBuilder()
-                .addLn("rootProject.name = '${name}'")
-                .variable("name", getProjectName())
-                .render();
+        return TEMPLATE.render(Collections.singletonMap("name", getProjectName()));
     }
 
     @Override
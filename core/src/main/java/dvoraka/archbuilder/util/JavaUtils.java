@@ -0,0 +1,103 @@
+package dvoraka.archbuilder.util;
+
+import dvoraka.archbuilder.compile.ReloadableClassLoader;
+import dvoraka.archbuilder.exception.GeneratorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class JavaUtils {
+
+    private static final Logger log = LoggerFactory.getLogger(JavaUtils.class);
+
+
+    private JavaUtils() {
+    }
+
+    /**
+     * Returns a system independent relative filesystem path string for a package.
+     *
+     * @param packageName the package
+     * @return the filesystem path string
+     */
+    public static String pkg2path(String packageName) {
+        return packageName.replace('.', File.separatorChar);
+    }
+
+    public static String path2pkg(String path) {
+        return path.replace(File.separatorChar, '.');
+    }
+
+    public static String javaSuffix(String filename) {
+        return filename + ".java";
+    }
+
+    public static String removeJavaSuffix(String filename) {
+        if (!filename.contains(".")) {
+            throw new GeneratorException("No .java suffix found.");
+        }
+
+        return filename.substring(0, filename.lastIndexOf('.'));
+    }
+
+    /**
+     * Returns the class path for compiling generated sources. Entries from the {@code java.class.path}
+     * property are followed by file entries of URL class loaders from a given loader hierarchy, so it works
+     * on all JDKs and with application servers and test runners which don't use the system class path.
+     * Entries of reloadable class loaders are first because their classes take precedence.
+     *
+     * @param classLoader the class loader
+     * @return the class path entries
+     */
+    public static List<File> getClassPath(ClassLoader classLoader) {
+        Set<File> classPath = new LinkedHashSet<>();
+
+        for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+            if (loader instanceof ReloadableClassLoader) {
+                for (URL url : ((ReloadableClassLoader) loader).getURLs()) {
+                    toFile(url).ifPresent(classPath::add);
+                }
+            }
+        }
+
+        String javaClassPath = System.getProperty("java.class.path", "");
+        for (String entry : javaClassPath.split(Pattern.quote(File.pathSeparator))) {
+            if (!entry.isEmpty()) {
+                classPath.add(new File(entry));
+            }
+        }
+
+        for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+            if (loader instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) loader).getURLs()) {
+                    toFile(url).ifPresent(classPath::add);
+                }
+            }
+        }
+
+        return new ArrayList<>(classPath);
+    }
+
+    private static Optional<File> toFile(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new File(url.toURI()));
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            log.debug("Skipping class path URL: {}", url);
+            return Optional.empty();
+        }
+    }
+}
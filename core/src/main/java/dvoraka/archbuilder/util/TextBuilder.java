@@ -2,8 +2,6 @@ package dvoraka.archbuilder.util;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class TextBuilder {
 
@@ -64,14 +62,22 @@ public class TextBuilder {
         return builder.toString();
     }
 
+    /**
+     * Renders the text with variable values. Variables without a value are kept as they are.
+     *
+     * @return the rendered text
+     * @see TextTemplate
+     */
     public String render() {
-        String newText = getText();
-        for (Map.Entry<String, String> varEntry : variables.entrySet()) {
-            String varRegex = "\\$\\{" + Pattern.quote(varEntry.getKey()) + "}";
-            String varValue = Matcher.quoteReplacement(varEntry.getValue());
-            newText = newText.replaceAll(varRegex, varValue);
-        }
-
-        return newText;
+        return TextTemplate.compile(getText()).renderPartially(variables);
+    }
+
+    /**
+     * Renders the text into an output. All variables must have a value.
+     *
+     * @param output the output
+     */
+    public void render(Appendable output) {
+        TextTemplate.compile(getText()).render(variables, output);
     }
 }
@@ -0,0 +1,184 @@
+package dvoraka.archbuilder.util;
+
+import dvoraka.archbuilder.exception.GeneratorException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled text template with <code>${name}</code> variables. The text is parsed only once into literal
+ * and variable segments and rendering is one pass over the segments, so a template is rendered quickly
+ * as many times as needed. A <code>${</code> without a closing brace is a literal.
+ * <p>
+ * Templates are immutable and compiled templates are cached.
+ */
+public final class TextTemplate {
+
+    private static final int MAX_CACHED = 1024;
+    private static final String VARIABLE_START = "${";
+    private static final char VARIABLE_END = '}';
+
+    private static final Map<String, TextTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private final String text;
+    // even segments are literals and odd segments are variable names
+    private final String[] segments;
+    private final Set<String> variables;
+
+
+    private TextTemplate(String text, List<String> segments) {
+        this.text = text;
+        this.segments = segments.toArray(new String[0]);
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = 1; i < this.segments.length; i += 2) {
+            names.add(this.segments[i]);
+        }
+        variables = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Returns a compiled template of a text. The template is compiled only once for the same text.
+     *
+     * @param text the template text
+     * @return the template
+     */
+    public static TextTemplate compile(String text) {
+        TextTemplate template = CACHE.get(text);
+        if (template != null) {
+            return template;
+        }
+
+        template = parse(text);
+        if (CACHE.size() >= MAX_CACHED) {
+            // texts built at runtime could fill the memory
+            CACHE.clear();
+        }
+        CACHE.put(text, template);
+
+        return template;
+    }
+
+    private static TextTemplate parse(String text) {
+        List<String> segments = new ArrayList<>();
+        int literalStart = 0;
+        int start = text.indexOf(VARIABLE_START);
+        while (start != -1) {
+            int end = text.indexOf(VARIABLE_END, start + VARIABLE_START.length());
+            if (end == -1) {
+                break;
+            }
+            segments.add(text.substring(literalStart, start));
+            segments.add(text.substring(start + VARIABLE_START.length(), end));
+            literalStart = end + 1;
+            start = text.indexOf(VARIABLE_START, literalStart);
+        }
+        segments.add(text.substring(literalStart));
+
+        return new TextTemplate(text, segments);
+    }
+
+    /**
+     * Renders the template. All variables must have a value.
+     *
+     * @param values the variable values by name
+     * @return the text
+     * @throws GeneratorException if a variable has no value
+     */
+    public String render(Map<String, String> values) {
+        StringBuilder builder = new StringBuilder(text.length() + 16 * (segments.length / 2));
+        render(values, builder);
+
+        return builder.toString();
+    }
+
+    /**
+     * Renders the template into an output. All variables must have a value and nothing is written
+     * if any of them is missing.
+     *
+     * @param values the variable values by name
+     * @param output the output
+     * @throws GeneratorException if a variable has no value or writing fails
+     */
+    public void render(Map<String, String> values, Appendable output) {
+        List<String> missing = findMissing(values);
+        if (!missing.isEmpty()) {
+            throw new GeneratorException("Missing template variables: " + missing);
+        }
+
+        renderTo(values, output);
+    }
+
+    /**
+     * Renders the template and keeps variables without a value as they are.
+     *
+     * @param values the variable values by name
+     * @return the text
+     */
+    public String renderPartially(Map<String, String> values) {
+        StringBuilder builder = new StringBuilder(text.length() + 16 * (segments.length / 2));
+        renderTo(values, builder);
+
+        return builder.toString();
+    }
+
+    private void renderTo(Map<String, String> values, Appendable output) {
+        try {
+            output.append(segments[0]);
+            for (int i = 1; i < segments.length; i += 2) {
+                String value = values.get(segments[i]);
+                if (value != null) {
+                    output.append(value);
+                } else {
+                    output.append(VARIABLE_START).append(segments[i]).append(VARIABLE_END);
+                }
+                output.append(segments[i + 1]);
+            }
+        } catch (IOException e) {
+            throw new GeneratorException("Rendering template failed.", e);
+        }
+    }
+
+    /**
+     * Finds variables without a value.
+     *
+     * @param values the variable values by name
+     * @return the missing variable names
+     */
+    public List<String> findMissing(Map<String, String> values) {
+        List<String> missing = new ArrayList<>();
+        for (String variable : variables) {
+            if (values.get(variable) == null) {
+                missing.add(variable);
+            }
+        }
+
+        return missing;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns names of all variables in the order of their first occurrence.
+     *
+     * @return the variable names
+     */
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    @Override
+    public String toString() {
+        return "TextTemplate{" +
+                "segments=" + segments.length +
+                ", variables=" + variables +
+                '}';
+    }
+}
@@ -5,13 +5,14 @@ import dvoraka.archbuilder.data.Directory;
 import dvoraka.archbuilder.exception.GeneratorException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Comparator;
 
 public final class Utils {
@@ -41,23 +42,6 @@ public final class Utils {
                 .forEach(File::delete);
     }
 
-    public static void removeClassFiles(String rootDirName) throws IOException {
-        log.debug("Cleaning up class files...");
-
-        Path path = Paths.get(rootDirName);
-        if (Files.notExists(path)) {
-            return;
-        }
-
-        Files.walk(path)
-                .sorted(Comparator.reverseOrder())
-                .map(Path::toFile)
-                .filter(File::isFile)
-                .filter(file -> file.getName().endsWith(".class"))
-                .peek(p -> log.debug("Deleting: {}", p))
-                .forEach(File::delete);
-    }
-
     public static Directory createAbstractDirFor(Class<?> cls, Directory srcBase) {
         return new Directory.Builder("util", DirType.ABSTRACT)
                 .parent(srcBase)
@@ -70,6 +54,38 @@ public final class Utils {
     }
 
     public static String uncapitalize(String string) {
-        return StringUtils.uncapitalize(string);
+        if (string == null || string.isEmpty()) {
+            return string;
+        }
+
+        return Character.toLowerCase(string.charAt(0)) + string.substring(1);
+    }
+
+    /**
+     * Returns a SHA-256 hash of data as a lowercase hex string.
+     *
+     * @param data the data
+     * @return the hash
+     */
+    public static String sha256(byte[] data) {
+        return toHex(newSha256().digest(data));
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new GeneratorException(e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return sb.toString();
     }
 }
@@ -0,0 +1,504 @@
+package dvoraka.archbuilder.watch;
+
+import dvoraka.archbuilder.compile.CompilerSession;
+import dvoraka.archbuilder.compile.ReloadableClassLoader;
+import dvoraka.archbuilder.data.DirType;
+import dvoraka.archbuilder.data.Directory;
+import dvoraka.archbuilder.exception.GeneratorException;
+import dvoraka.archbuilder.generate.DependencyGraph;
+import dvoraka.archbuilder.generate.GenerationContext;
+import dvoraka.archbuilder.generate.GenerationManifest;
+import dvoraka.archbuilder.generate.GenerationStats;
+import dvoraka.archbuilder.generate.MainGenerator;
+import dvoraka.archbuilder.output.OutputSink;
+import dvoraka.archbuilder.service.DirService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Watch mode. It watches abstraction classes, abstraction sources and blueprint files and after every change
+ * it regenerates only directories affected by the change. The JVM, class metadata and the class cache stay
+ * warm between changes.
+ * <p>
+ * Affected directories are directories with a changed blueprint and directories whose abstract type
+ * changed, with all directories depending on them through supertype, parameter and dependency edges.
+ * Spring configurations are regenerated with any generated type. Abstraction classes are loaded
+ * by a new class loader for every generation, so changed classes are used without a restart.
+ * <p>
+ * A generation removing directories from the blueprint is a full generation.
+ */
+public class ArchitectureWatcher implements AutoCloseable {
+
+    private static final long QUIET_PERIOD_MILLIS = 300;
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String JAVA_SUFFIX = ".java";
+
+    private final Logger log = LoggerFactory.getLogger(ArchitectureWatcher.class);
+
+    private final MainGenerator generator;
+    private final DirService dirService;
+    private final Supplier<Directory> blueprint;
+    private final Supplier<OutputSink> sinkFactory;
+    private final List<Path> classRoots;
+    private final List<Path> sourceRoots;
+    private final Set<Path> blueprintFiles;
+    private final Map<WatchKey, Path> watchedDirs;
+
+    private volatile Consumer<WatchIteration> listener;
+    private volatile WatchService watchService;
+
+    private Map<String, String> leafHashes;
+    private GenerationManifest manifest;
+
+
+    /**
+     * Creates a watcher.
+     *
+     * @param generator   the generator
+     * @param dirService  the directory service
+     * @param blueprint   the blueprint supplier, it's called for every generation
+     * @param sinkFactory the factory of output sinks, a sink is used for one generation
+     */
+    public ArchitectureWatcher(
+            MainGenerator generator,
+            DirService dirService,
+            Supplier<Directory> blueprint,
+            Supplier<OutputSink> sinkFactory
+    ) {
+        this.generator = requireNonNull(generator);
+        this.dirService = requireNonNull(dirService);
+        this.blueprint = requireNonNull(blueprint);
+        this.sinkFactory = requireNonNull(sinkFactory);
+        classRoots = new ArrayList<>();
+        sourceRoots = new ArrayList<>();
+        blueprintFiles = new HashSet<>();
+        watchedDirs = new ConcurrentHashMap<>();
+        listener = iteration -> {
+        };
+        manifest = new GenerationManifest();
+    }
+
+    /**
+     * Watches a class directory of abstractions. Classes from the directory are reloaded for every
+     * generation.
+     *
+     * @param root the class directory
+     */
+    public void watchClasses(Path root) {
+        classRoots.add(root.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Watches a source directory of abstractions.
+     *
+     * @param root the source directory
+     */
+    public void watchSources(Path root) {
+        sourceRoots.add(root.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Watches a blueprint file. The blueprint supplier should read it.
+     *
+     * @param file the blueprint file
+     */
+    public void watchBlueprint(Path file) {
+        blueprintFiles.add(file.toAbsolutePath().normalize());
+    }
+
+    public void setListener(Consumer<WatchIteration> listener) {
+        this.listener = requireNonNull(listener);
+    }
+
+    /**
+     * Generates the whole blueprint and then regenerates it after every change until the watcher is closed
+     * or the thread is interrupted. A failed generation is logged and the watching continues.
+     */
+    public void run() {
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            watchService = service;
+            for (Path root : roots()) {
+                register(root);
+            }
+            for (Path file : blueprintFiles) {
+                registerDirectory(file.getParent());
+            }
+
+            notify(this::generate);
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changes = new LinkedHashSet<>();
+                if (!collect(service.take(), changes)) {
+                    notify(this::generate);
+                    continue;
+                }
+                // one save of an editor or a build usually means many events
+                WatchKey key;
+                boolean complete = true;
+                while ((key = service.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    complete &= collect(key, changes);
+                }
+                if (!complete) {
+                    notify(this::generate);
+                } else if (!changes.isEmpty()) {
+                    notify(() -> regenerate(changes));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Watch service closed");
+        } catch (IOException e) {
+            throw new GeneratorException("Watching failed.", e);
+        } finally {
+            watchService = null;
+            watchedDirs.clear();
+        }
+    }
+
+    private void notify(Supplier<WatchIteration> generation) {
+        try {
+            WatchIteration iteration = generation.get();
+            log.info("Watch generation: {}", iteration);
+            listener.accept(iteration);
+        } catch (GeneratorException | IllegalArgumentException e) {
+            // abstractions are often broken in the middle of editing
+            log.error("Watch generation failed: {}", e.getMessage());
+            log.debug("Watch generation failure", e);
+        }
+    }
+
+    private List<Path> roots() {
+        List<Path> roots = new ArrayList<>(classRoots);
+        roots.addAll(sourceRoots);
+
+        return roots;
+    }
+
+    private void register(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            log.warn("Watched directory doesn't exist: {}", root);
+            return;
+        }
+        try (Stream<Path> dirs = Files.walk(root)) {
+            for (Path dir : dirs.filter(Files::isDirectory).collect(Collectors.toList())) {
+                registerDirectory(dir);
+            }
+        }
+    }
+
+    private void registerDirectory(Path dir) throws IOException {
+        WatchKey key = dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        watchedDirs.put(key, dir);
+    }
+
+    /**
+     * Collects changed paths of a key.
+     *
+     * @param key     the key
+     * @param changes the changed paths
+     * @return false if events were lost
+     * @throws IOException if a new directory can't be watched
+     */
+    private boolean collect(WatchKey key, Set<Path> changes) throws IOException {
+        Path dir = watchedDirs.get(key);
+        boolean complete = dir != null;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                complete = false;
+                continue;
+            }
+
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                // files can be created before the new directory is registered
+                register(path);
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.filter(Files::isRegularFile).forEach(changes::add);
+                }
+            } else if (blueprintFiles.contains(path) || inRoots(path)) {
+                changes.add(path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+
+        return complete;
+    }
+
+    private boolean inRoots(Path path) {
+        return roots().stream().anyMatch(path::startsWith);
+    }
+
+    /**
+     * Generates the whole blueprint. After a failure the next iteration generates the whole blueprint again.
+     *
+     * @return the iteration
+     */
+    public WatchIteration generate() {
+        long start = System.nanoTime();
+        // the state is known again only after a successful generation
+        leafHashes = null;
+        Directory root = blueprint.get();
+        root.freeze();
+
+        Map<String, String> newLeafHashes = leafHashes(DependencyGraph.build(root, dirService));
+        WatchIteration iteration;
+        try (ReloadableClassLoader classLoader = newClassLoader();
+             GenerationContext context = newContext(classLoader)) {
+            generator.generate(root, context);
+
+            manifest = generator.isIncremental()
+                    ? GenerationManifest.load(Paths.get(root.getPath()), context.getSink())
+                    : context.getManifest();
+
+            GenerationStats stats = context.getStats();
+            iteration = new WatchIteration(true, 0, newLeafHashes.size(),
+                    stats.getWrittenFiles(), stats.getUnchangedFiles(), elapsedMillis(start));
+        } catch (IOException e) {
+            throw new GeneratorException("Closing class loader failed.", e);
+        }
+        leafHashes = newLeafHashes;
+
+        return iteration;
+    }
+
+    /**
+     * Regenerates directories affected by changed files. The blueprint state is updated only after
+     * a successful generation and after a failure the next iteration generates the whole blueprint, so
+     * no change is lost.
+     *
+     * @param changedPaths the changed abstraction and blueprint files
+     * @return the iteration
+     */
+    public WatchIteration regenerate(Set<Path> changedPaths) {
+        Map<String, String> previousLeafHashes = leafHashes;
+        if (previousLeafHashes == null) {
+            return generate();
+        }
+
+        long start = System.nanoTime();
+        // changed types are known only in this iteration, so a failed one is followed by a full generation
+        leafHashes = null;
+        Directory root = blueprint.get();
+        root.freeze();
+        DependencyGraph graph = DependencyGraph.build(root, dirService);
+        Map<String, String> newLeafHashes = leafHashes(graph);
+        if (!newLeafHashes.keySet().containsAll(previousLeafHashes.keySet())) {
+            log.info("Directories removed from the blueprint, generating all...");
+            return generate();
+        }
+
+        Set<String> changedTypes = changedTypes(changedPaths);
+        Set<Directory> changed = new LinkedHashSet<>();
+        for (Directory directory : graph.getDirectories()) {
+            if (!directory.getChildren().isEmpty()) {
+                continue;
+            }
+            String key = key(directory);
+            boolean blueprintChanged = !newLeafHashes.get(key).equals(previousLeafHashes.get(key));
+            if (blueprintChanged || changedTypes.contains(directory.getTypeName())) {
+                changed.add(directory);
+            }
+        }
+
+        Set<Directory> affected = affected(changed, graph);
+        if (affected.isEmpty()) {
+            leafHashes = newLeafHashes;
+            return new WatchIteration(false, changedTypes.size(), 0, 0, 0, elapsedMillis(start));
+        }
+
+        WatchIteration iteration;
+        try (ReloadableClassLoader classLoader = newClassLoader();
+             GenerationContext context = newContext(classLoader)) {
+            context.setPreviousManifest(manifest);
+            generator.generatePartially(affected, context);
+
+            GenerationManifest iterationManifest = context.getManifest();
+            for (Path path : iterationManifest.getPaths()) {
+                iterationManifest.getHash(path).ifPresent(hash -> manifest.put(path, hash));
+            }
+            if (generator.isIncremental()) {
+                manifest.setFingerprint(generator.fingerprint(root, context));
+                manifest.save(Paths.get(root.getPath()), context.getSink());
+                context.getSink().flush();
+            }
+
+            GenerationStats stats = context.getStats();
+            iteration = new WatchIteration(false, changedTypes.size(), affected.size(),
+                    stats.getWrittenFiles(), stats.getUnchangedFiles(), elapsedMillis(start));
+        } catch (IOException e) {
+            throw new GeneratorException("Closing class loader failed.", e);
+        }
+        leafHashes = newLeafHashes;
+
+        return iteration;
+    }
+
+    /**
+     * Returns generated directories depending on changed directories, with the changed ones.
+     */
+    private Set<Directory> affected(Set<Directory> changed, DependencyGraph graph) {
+        Map<Directory, List<Directory>> dependents = new HashMap<>();
+        for (Directory directory : graph.getDirectories()) {
+            for (Directory dependency : graph.getDependencies(directory)) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(directory);
+            }
+        }
+
+        Set<Directory> reached = new LinkedHashSet<>(changed);
+        Deque<Directory> toVisit = new ArrayDeque<>(changed);
+        while (!toVisit.isEmpty()) {
+            for (Directory dependent : dependents.getOrDefault(toVisit.poll(), Collections.emptyList())) {
+                if (reached.add(dependent)) {
+                    toVisit.add(dependent);
+                }
+            }
+        }
+
+        Set<Directory> affected = reached.stream()
+                .filter(directory -> !directory.getType().isAbstract())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        // bean types in configurations could change
+        boolean typeAffected = affected.stream()
+                .anyMatch(directory -> directory.getTypeName() != null);
+        if (typeAffected) {
+            graph.getDirectories().stream()
+                    .filter(directory -> directory.getType() == DirType.SPRING_CONFIG)
+                    .forEach(affected::add);
+        }
+
+        return affected;
+    }
+
+    private Set<String> changedTypes(Set<Path> changedPaths) {
+        Set<String> types = new HashSet<>();
+        for (Path path : changedPaths) {
+            Path absolutePath = path.toAbsolutePath().normalize();
+            typeName(absolutePath, classRoots, CLASS_SUFFIX).ifPresent(types::add);
+            typeName(absolutePath, sourceRoots, JAVA_SUFFIX).ifPresent(types::add);
+        }
+
+        return types;
+    }
+
+    private static Optional<String> typeName(Path path, List<Path> roots, String suffix) {
+        String fileName = String.valueOf(path.getFileName());
+        if (!fileName.endsWith(suffix)) {
+            return Optional.empty();
+        }
+
+        for (Path root : roots) {
+            if (path.startsWith(root)) {
+                String relativePath = root.relativize(path).toString();
+                String name = relativePath.substring(0, relativePath.length() - suffix.length())
+                        .replace(path.getFileSystem().getSeparator(), ".");
+                // nested classes change their top level class
+                int nestedStart = name.indexOf('$');
+
+                return Optional.of(nestedStart == -1 ? name : name.substring(0, nestedStart));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private Map<String, String> leafHashes(DependencyGraph graph) {
+        Map<String, String> hashes = new HashMap<>();
+        for (Directory directory : graph.getDirectories()) {
+            if (directory.getChildren().isEmpty()) {
+                hashes.put(key(directory), directory.getContentHash());
+            }
+        }
+
+        return hashes;
+    }
+
+    private static String key(Directory directory) {
+        String name = directory.getFilename().orElse(directory.getTypeName());
+
+        return directory.getType() + ":" + directory.getPath() + "/" + name;
+    }
+
+    private ReloadableClassLoader newClassLoader() {
+        List<URL> urls = new ArrayList<>();
+        for (Path root : classRoots) {
+            try {
+                urls.add(root.toUri().toURL());
+            } catch (MalformedURLException e) {
+                throw new GeneratorException("Invalid class directory: " + root, e);
+            }
+        }
+
+        return new ReloadableClassLoader(
+                urls.toArray(new URL[0]), ArchitectureWatcher.class.getClassLoader());
+    }
+
+    private GenerationContext newContext(ClassLoader classLoader) {
+        return new GenerationContext(
+                new CompilerSession(classLoader, generator.getClassCache()), sinkFactory.get());
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Stops watching. A running generation is finished.
+     */
+    @Override
+    public void close() {
+        WatchService service = watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                log.warn("Closing watch service failed", e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ArchitectureWatcher{" +
+                "classRoots=" + classRoots +
+                ", sourceRoots=" + sourceRoots +
+                ", blueprintFiles=" + blueprintFiles +
+                '}';
+    }
+}
@@ -0,0 +1,82 @@
+package dvoraka.archbuilder.watch;
+
+/**
+ * Result of one watch mode generation.
+ */
+public final class WatchIteration {
+
+    private final boolean full;
+    private final int changedTypes;
+    private final int affectedDirectories;
+    private final long writtenFiles;
+    private final long unchangedFiles;
+    private final long millis;
+
+
+    public WatchIteration(
+            boolean full,
+            int changedTypes,
+            int affectedDirectories,
+            long writtenFiles,
+            long unchangedFiles,
+            long millis
+    ) {
+        this.full = full;
+        this.changedTypes = changedTypes;
+        this.affectedDirectories = affectedDirectories;
+        this.writtenFiles = writtenFiles;
+        this.unchangedFiles = unchangedFiles;
+        this.millis = millis;
+    }
+
+    /**
+     * Returns true if the whole blueprint was generated.
+     *
+     * @return true for a full generation
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Returns the number of changed abstraction types.
+     *
+     * @return the number of types
+     */
+    public int getChangedTypes() {
+        return changedTypes;
+    }
+
+    /**
+     * Returns the number of regenerated directories without the directories they only needed.
+     *
+     * @return the number of directories
+     */
+    public int getAffectedDirectories() {
+        return affectedDirectories;
+    }
+
+    public long getWrittenFiles() {
+        return writtenFiles;
+    }
+
+    public long getUnchangedFiles() {
+        return unchangedFiles;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    @Override
+    public String toString() {
+        return "WatchIteration{" +
+                "full=" + full +
+                ", changedTypes=" + changedTypes +
+                ", affectedDirectories=" + affectedDirectories +
+                ", writtenFiles=" + writtenFiles +
+                ", unchangedFiles=" + unchangedFiles +
+                ", millis=" + millis +
+                '}';
+    }
+}
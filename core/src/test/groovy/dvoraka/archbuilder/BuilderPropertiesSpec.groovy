@@ -0,0 +1,42 @@
+package dvoraka.archbuilder
+
+import spock.lang.Specification
+
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+
+class BuilderPropertiesSpec extends Specification {
+
+    def "cache key changes with every property"() {
+        given:
+            BuilderProperties properties = new BuilderProperties()
+            String key = properties.cacheKey()
+        when:
+            target(properties, field).with { field.set(it, 'changed') }
+        then:
+            properties.cacheKey() != key
+        where:
+            field << propertyFields(BuilderProperties) + propertyFields(BuilderProperties.Service)
+    }
+
+    def "copy has the same cache key"() {
+        given:
+            BuilderProperties properties = new BuilderProperties()
+            properties.getService().setName('Budget')
+        expect:
+            properties.copy().cacheKey() == properties.cacheKey()
+    }
+
+    static List<Field> propertyFields(Class<?> type) {
+        List<Field> fields = type.getDeclaredFields().findAll {
+            !Modifier.isStatic(it.getModifiers()) && !it.isSynthetic() && it.getType() != BuilderProperties.Service
+        }
+        fields.each { it.setAccessible(true) }
+
+        return fields
+    }
+
+    static Object target(BuilderProperties properties, Field field) {
+        return field.getDeclaringClass() == BuilderProperties.Service ? properties.getService() : properties
+    }
+}
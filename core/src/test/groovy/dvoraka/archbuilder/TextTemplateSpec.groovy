@@ -0,0 +1,53 @@
+package dvoraka.archbuilder
+
+import dvoraka.archbuilder.exception.GeneratorException
+import dvoraka.archbuilder.util.TextBuilder
+import dvoraka.archbuilder.util.TextTemplate
+import spock.lang.Specification
+
+class TextTemplateSpec extends Specification {
+
+    def "render variables"() {
+        given:
+            TextTemplate template = TextTemplate.compile('a ${.var1} b ${$.var*} c ${.var1}')
+        expect:
+            template.getVariables() == ['.var1', '$.var*'] as Set
+            template.render(['.var1': 'house$$', '$.var*': 'car*']) == 'a house$$ b car* c house$$'
+    }
+
+    def "values are not rendered again"() {
+        expect:
+            TextTemplate.compile('${a}${b}').render([a: '${b}', b: 'x']) == '${b}x'
+    }
+
+    def "missing variables"() {
+        given:
+            TextTemplate template = TextTemplate.compile('${name} ${version} ${unclosed')
+            StringBuilder output = new StringBuilder()
+        when:
+            template.render([name: 'app'], output)
+        then:
+            GeneratorException e = thrown()
+            e.getMessage().contains('version')
+            output.length() == 0
+            template.findMissing([name: 'app']) == ['version']
+            template.renderPartially([name: 'app']) == 'app ${version} ${unclosed'
+    }
+
+    def "render into an output"() {
+        given:
+            StringWriter writer = new StringWriter()
+        when:
+            new TextBuilder()
+                    .add('rootProject.name = \'${name}\'')
+                    .variable('name', 'test')
+                    .render(writer)
+        then:
+            writer.toString() == 'rootProject.name = \'test\''
+    }
+
+    def "compiled templates are cached"() {
+        expect:
+            TextTemplate.compile('cached ${x}').is(TextTemplate.compile('cached ${x}'))
+    }
+}
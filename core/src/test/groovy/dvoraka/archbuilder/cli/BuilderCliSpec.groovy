@@ -0,0 +1,71 @@
+package dvoraka.archbuilder.cli
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class BuilderCliSpec extends Specification {
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream()
+    ByteArrayOutputStream err = new ByteArrayOutputStream()
+
+
+    def "project is generated without Spring"() {
+        given:
+            Path output = Files.createTempDirectory('cli')
+            String[] args = [
+                    '--root-dir', 'cli-service',
+                    '--package', 'test.cli',
+                    '--service', 'Cli',
+                    '--set', 'defaultString=Basic',
+                    '--output', output.toString(),
+            ]
+        when:
+            int code = BuilderCli.run(args, new PrintStream(out), new PrintStream(err))
+        then:
+            code == BuilderCli.OK
+            Files.exists(output.resolve('cli-service/build.gradle'))
+            Files.walk(output).anyMatch { it.endsWith('BasicCliService.java') }
+            out.toString().contains('cli-service')
+        cleanup:
+            output.toFile().deleteDir()
+    }
+
+    def "compiled classes and projects are cached in the cache directory"() {
+        given:
+            Path output = Files.createTempDirectory('cli')
+            Path cache = Files.createTempDirectory('cli-cache')
+            String[] args = [
+                    '--root-dir', 'cached-service',
+                    '--package', 'test.cached',
+                    '--service', 'Cached',
+                    '--output', output.toString(),
+                    '--cache-dir', cache.toString(),
+            ]
+        when:
+            int code = BuilderCli.run(args, new PrintStream(out), new PrintStream(err))
+        then:
+            code == BuilderCli.OK
+            cache.resolve('classes').toFile().list().length > 0
+            cache.resolve('projects/entries').toFile().list().length == 1
+        cleanup:
+            output.toFile().deleteDir()
+            cache.toFile().deleteDir()
+    }
+
+    def "invalid arguments"() {
+        expect:
+            BuilderCli.run(args as String[], new PrintStream(out), new PrintStream(err)) == code
+        where:
+            args                                    || code
+            ['--unknown']                           || BuilderCli.USAGE
+            ['--root-dir']                          || BuilderCli.USAGE
+            ['--set', 'noValue']                    || BuilderCli.USAGE
+            ['--parallelism', '0']                  || BuilderCli.USAGE
+            ['--class-cache-size', '-1']            || BuilderCli.USAGE
+            ['--project-cache-size', 'big']         || BuilderCli.USAGE
+            ['--help']                              || BuilderCli.OK
+            ['--package', 'package', '--no-verify'] || BuilderCli.FAILED
+    }
+}
@@ -0,0 +1,105 @@
+package dvoraka.archbuilder.compile
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ClassCacheSpec extends Specification {
+
+    static final String BASE = 'test.cache.Base'
+    static final String CHILD = 'test.cache.Child'
+
+    Path cacheDir
+
+
+    def setup() {
+        cacheDir = Files.createTempDirectory('class-cache')
+    }
+
+    def cleanup() {
+        cacheDir.toFile().deleteDir()
+    }
+
+    def "cached classes are loaded without compiling"() {
+        given:
+            ClassCache cache = new ClassCache(cacheDir)
+            CompilerSession first = new CompilerSession(getClass().getClassLoader(), cache)
+            CompilerSession second = new CompilerSession(getClass().getClassLoader(), cache)
+        when:
+            first.addSource(BASE, base('first'))
+            first.addSource(CHILD, child())
+            first.loadClass(CHILD)
+            second.addSource(BASE, base('first'))
+            second.addSource(CHILD, child())
+            Class<?> child = second.loadClass(CHILD)
+        then:
+            first.getCompilations() == 1
+            second.getCompilations() == 0
+            cache.getHits() == 1
+            child.getSuperclass().getField('VALUE').get(null) == 'first'
+            second.getPendingSources().isEmpty()
+        cleanup:
+            first?.close()
+            second?.close()
+    }
+
+    def "changed dependency is compiled again"() {
+        given:
+            ClassCache cache = new ClassCache(cacheDir)
+            CompilerSession first = new CompilerSession(getClass().getClassLoader(), cache)
+            CompilerSession second = new CompilerSession(getClass().getClassLoader(), cache)
+        when:
+            first.addSource(BASE, base('first'))
+            first.loadClass(BASE)
+            first.compile(CHILD, child())
+            second.addSource(BASE, base('second'))
+            second.loadClass(BASE)
+            second.compile(CHILD, child())
+        then:
+            second.getCompilations() == 2
+            second.loadClass(CHILD).getSuperclass().getField('VALUE').get(null) == 'second'
+        cleanup:
+            first?.close()
+            second?.close()
+    }
+
+    def "least recently used entries are evicted"() {
+        given:
+            ClassCache cache = new ClassCache(cacheDir, 1)
+            CompilerSession session = new CompilerSession(getClass().getClassLoader(), cache)
+        when:
+            session.compile(BASE, base('first'))
+        then:
+            cache.getSize() <= 1
+            Files.walk(cacheDir).noneMatch { it.toString().endsWith('.entry') }
+        cleanup:
+            session?.close()
+    }
+
+    def "entry is saved and loaded"() {
+        given:
+            ClassCache cache = new ClassCache(cacheDir)
+            ClassCache.Entry entry = new ClassCache.Entry([(BASE): 'hash'], [(BASE): [1, 2, 3] as byte[]])
+        when:
+            cache.put('abcdef', entry)
+            ClassCache.Entry loaded = new ClassCache(cacheDir).get('abcdef').get()
+        then:
+            loaded.getDependencies() == [(BASE): 'hash']
+            loaded.getClasses()[BASE] == [1, 2, 3] as byte[]
+            !cache.get('abcdeg').isPresent()
+    }
+
+    String base(String value) {
+        return """package test.cache;
+
+public class Base {
+    public static final String VALUE = "${value}";
+}
+"""
+    }
+
+    String child() {
+        return 'package test.cache; public class Child extends Base {}'
+    }
+}
@@ -0,0 +1,144 @@
+package dvoraka.archbuilder.compile
+
+import dvoraka.archbuilder.exception.GeneratorException
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+class CompilerSessionSpec extends Specification {
+
+    static final String CLASS_NAME = 'test.session.Sample'
+
+
+    def "compiled class is loadable only from the session"() {
+        given:
+            CompilerSession session = new CompilerSession()
+        when:
+            boolean compiled = session.compile(CLASS_NAME, source('first'))
+            Class<?> clazz = session.loadClass(CLASS_NAME)
+        then:
+            compiled
+            clazz.getClassLoader() == session.getClassLoader()
+        when:
+            Class.forName(CLASS_NAME, false, CompilerSession.class.getClassLoader())
+        then:
+            thrown(ClassNotFoundException)
+        cleanup:
+            session?.close()
+    }
+
+    def "sessions are isolated"() {
+        given:
+            CompilerSession first = new CompilerSession()
+            CompilerSession second = new CompilerSession()
+        when:
+            first.compile(CLASS_NAME, source('first'))
+            second.compile(CLASS_NAME, source('second'))
+            Class<?> firstClass = first.loadClass(CLASS_NAME)
+            Class<?> secondClass = second.loadClass(CLASS_NAME)
+        then:
+            firstClass != secondClass
+            firstClass.getField('VALUE').get(null) == 'first'
+            secondClass.getField('VALUE').get(null) == 'second'
+        cleanup:
+            first?.close()
+            second?.close()
+    }
+
+    def "class from a closed session is not loadable"() {
+        given:
+            CompilerSession session = new CompilerSession()
+            session.compile(CLASS_NAME, source('first'))
+        when:
+            session.close()
+            session.loadClass(CLASS_NAME)
+        then:
+            thrown(GeneratorException)
+    }
+
+    def "added source is compiled when loaded"() {
+        given:
+            CompilerSession session = new CompilerSession()
+            session.addSource('test.session.Base', 'package test.session; public class Base {}')
+            session.addSource('test.session.Child', 'package test.session; public class Child extends Base {}')
+            session.addSource('test.session.Other', 'package test.session; public class Other {}')
+        expect:
+            session.getCompilations() == 0
+        when:
+            Class<?> child = session.loadClass('test.session.Child')
+        then:
+            child.getSuperclass().getName() == 'test.session.Base'
+            session.getCompilations() == 1
+            session.getPendingSources() == ['test.session.Other'] as Set
+        cleanup:
+            session?.close()
+    }
+
+    def "concurrently loaded source is compiled once"() {
+        given:
+            CompilerSession session = new CompilerSession()
+            session.addSource('test.session.Shared', 'package test.session; public class Shared {}')
+            ExecutorService executor = Executors.newFixedThreadPool(8)
+        when:
+            List<Future<Class<?>>> futures = (1..16).collect {
+                executor.submit({ session.loadClass('test.session.Shared') } as Callable<Class<?>>)
+            }
+            Set<Class<?>> classes = futures.collect { it.get() } as Set
+        then:
+            classes.size() == 1
+            session.getCompilations() == 1
+        cleanup:
+            executor?.shutdownNow()
+            session?.close()
+    }
+
+    def "pending sources are compiled at once"() {
+        given:
+            CompilerSession session = new CompilerSession()
+            session.addSource('test.session.First', 'package test.session; public class First {}')
+            session.addSource('test.session.Second', 'package test.session; public class Second {}')
+        when:
+            CompilationResult result = session.compilePending()
+        then:
+            result.isSuccess()
+            session.getCompilations() == 1
+            session.getPendingSources().isEmpty()
+            session.loadClass('test.session.Second')
+        cleanup:
+            session?.close()
+    }
+
+    def "pending sources are compiled in partitions by level"() {
+        given:
+            CompilerSession session = new CompilerSession()
+            session.addSource('test.session.Base', 'package test.session; public class Base {}')
+            session.addSource('test.session.First', 'package test.session; public class First extends Base {}')
+            session.addSource('test.session.Second', 'package test.session; public class Second extends Base {}')
+            session.addSource('test.session.Broken', 'package test.session; public class Broken extends Missing {}')
+            List<List<String>> levels = [['test.session.Base'], ['test.session.First', 'test.session.Second']]
+        when:
+            CompilationResult result = session.compilePending(levels, { it.run() } as Executor, 2)
+        then:
+            !result.isSuccess()
+            result.getPartitions().size() == 4
+            result.getPartitions()*.getLevel() == [0, 1, 1, 2]
+            result.getPartitions().find { it.getClassNames() == ['test.session.Broken'] }.getMessages()
+            result.getErrors().every { it.getSource() == 'test.session.Broken' }
+            session.getPendingSources() == ['test.session.Broken'] as Set
+        cleanup:
+            session?.close()
+    }
+
+    String source(String value) {
+        return """package test.session;
+
+public class Sample {
+    public static final String VALUE = "${value}";
+}
+"""
+    }
+}
@@ -0,0 +1,90 @@
+package dvoraka.archbuilder.data
+
+import dvoraka.archbuilder.BuilderHelper
+import dvoraka.archbuilder.BuilderProperties
+import dvoraka.archbuilder.generate.GenerationContext
+import dvoraka.archbuilder.generate.JavaGenerator
+import dvoraka.archbuilder.generate.MainGenerator
+import dvoraka.archbuilder.module.microservice.DefaultMicroservice
+import dvoraka.archbuilder.output.MemorySink
+import dvoraka.archbuilder.service.DefaultDirService
+import dvoraka.archbuilder.service.DirService
+import dvoraka.archbuilder.springconfig.DefaultSpringConfigGenerator
+import spock.lang.Specification
+
+import java.nio.file.Path
+
+class BlueprintFormatSpec extends Specification {
+
+    DirService dirService = new DefaultDirService()
+    BuilderProperties properties = new BuilderProperties()
+
+
+    def "module blueprint is generated after reading"() {
+        given:
+            Directory root = new DefaultMicroservice(
+                    new BuilderHelper(properties, 'binary-service', 'test.binary', 'Binary'),
+                    new DefaultSpringConfigGenerator()
+            ).getRootDirectory()
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+            dirService.toBinary(root, output)
+        when:
+            Directory loadedRoot = dirService.fromBinary(new ByteArrayInputStream(output.toByteArray()))
+            MemorySink loadedSink = generate(loadedRoot)
+            MemorySink sink = generate(root)
+        then:
+            loadedSink.getFiles().keySet().any { Path path -> path.toString().endsWith('BinaryConfig.java') }
+            loadedSink.getFiles().keySet() == sink.getFiles().keySet()
+            loadedSink.getFiles().every { Path path, byte[] content -> content == sink.getFiles()[path] }
+    }
+
+    def "data after a blueprint is not read"() {
+        given:
+            Directory root = new DefaultMicroservice(
+                    new BuilderHelper(properties, 'binary-service', 'test.binary', 'Binary'),
+                    new DefaultSpringConfigGenerator()
+            ).getRootDirectory()
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+            dirService.toBinary(root, output)
+            output.write('rest'.getBytes('UTF-8'))
+            InputStream input = new ByteArrayInputStream(output.toByteArray())
+        when:
+            dirService.fromBinary(input)
+        then:
+            input.getText('UTF-8') == 'rest'
+    }
+
+    def "invalid blueprint is not read"() {
+        when:
+            BlueprintFormat.read(new ByteArrayInputStream(bytes as byte[]))
+        then:
+            thrown(IOException)
+        where:
+            bytes << [
+                    // truncated
+                    [0x41, 0x42, 0x42, 0x50, 1],
+                    // negative directory count
+                    [0x41, 0x42, 0x42, 0x50, 1, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F],
+                    // huge string length
+                    [0x41, 0x42, 0x42, 0x50, 1, 1, 1, 0xFF, 0xFF, 0xFF, 0xFF, 0x07],
+                    // unknown directory type
+                    [0x41, 0x42, 0x42, 0x50, 1, 1, 0, 0, 0, 0, 1, 1, 0x58],
+            ]
+    }
+
+    MemorySink generate(Directory root) {
+        MemorySink sink = new MemorySink()
+        MainGenerator generator = new MainGenerator.Builder(dirService, new JavaGenerator())
+                .properties(properties)
+                .build()
+        GenerationContext context = new GenerationContext(sink)
+        try {
+            generator.generate(root, context)
+            assert context.getVerification().isSuccess()
+        } finally {
+            context.close()
+        }
+
+        return sink
+    }
+}
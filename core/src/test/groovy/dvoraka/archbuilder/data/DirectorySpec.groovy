@@ -0,0 +1,100 @@
+package dvoraka.archbuilder.data
+
+import dvoraka.archbuilder.exception.GeneratorException
+import dvoraka.archbuilder.template.TemplateHelper
+import dvoraka.archbuilder.util.JavaUtils
+import spock.lang.Specification
+
+class DirectorySpec extends Specification implements TemplateHelper {
+
+    def "get package name"() {
+        setup:
+            String basePkgPath = 'test/abc/efg'
+            String basePkgName = JavaUtils.path2pkg(basePkgPath)
+
+            Directory root = root('testDir')
+            Directory srcBase = srcRootAndBase(root, basePkgPath)
+
+            String dir1pkgPath = 'dir1'
+            String dir1pkgName = dir1pkgPath
+            Directory dir1 = new Directory.Builder(dir1pkgPath, DirType.CUSTOM_TYPE)
+                    .filename('abc')
+                    .parent(srcBase)
+                    .build()
+
+            String dir2pkgPath = 'dir2/package1/subpackage'
+            String dir2pkgName = JavaUtils.path2pkg(dir2pkgPath)
+            Directory dir2 = new Directory.Builder(dir2pkgPath, DirType.CUSTOM_TYPE)
+                    .filename('def')
+                    .parent(srcBase)
+                    .build()
+
+        expect:
+            basePkgName == srcBase.getPackageName()
+
+            "$basePkgName.$dir1pkgName" == dir1.getPackageName()
+            "$basePkgName.$dir2pkgName" == dir2.getPackageName()
+    }
+
+    def "frozen tree"() {
+        given:
+            Directory root = root('testDir')
+            Directory srcBase = srcRootAndBase(root, 'test/app')
+            Directory type = new Directory.Builder('data', DirType.NEW_TYPE)
+                    .parent(srcBase)
+                    .filename('Data')
+                    .build()
+            String path = type.getPath()
+            int hashCode = root.hashCode()
+        when:
+            type.freeze()
+        then:
+            root.isFrozen()
+            srcBase.isFrozen()
+            type.getPath() == path
+            type.getPath().is(type.getPath())
+            type.getPackageName() == 'test.app.data'
+            root.hashCode() == hashCode
+        when:
+            new Directory.Builder('data', DirType.NEW_TYPE)
+                    .parent(srcBase)
+                    .filename('Other')
+                    .build()
+        then:
+            thrown(GeneratorException)
+            srcBase.getChildren().size() == 1
+    }
+
+    def "identical trees have the same content hash"() {
+        given:
+            Directory first = tree('Data')
+            Directory second = tree('Data')
+            Directory changed = tree('Other')
+        expect:
+            first != second
+            first.getContentHash() == second.getContentHash()
+            first.getContentHash() != changed.getContentHash()
+    }
+
+    def "content hash of a frozen tree is computed once"() {
+        given:
+            Directory root = tree('Data')
+            String hash = root.getContentHash()
+        when:
+            root.freeze()
+        then:
+            root.getContentHash() == hash
+            root.getContentHash().is(root.getContentHash())
+    }
+
+    Directory tree(String typeName) {
+        Directory root = root('testDir')
+        Directory srcBase = srcRootAndBase(root, 'test/app')
+        new Directory.Builder('data', DirType.NEW_TYPE)
+                .parent(srcBase)
+                .filename(typeName)
+                .build()
+
+        return root
+    }
+}
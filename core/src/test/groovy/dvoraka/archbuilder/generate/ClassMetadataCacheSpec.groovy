@@ -0,0 +1,51 @@
+package dvoraka.archbuilder.generate
+
+import dvoraka.archbuilder.sample.generic.AbstractClassE1p3am
+import dvoraka.archbuilder.sample.generic.AbstractClassEE2p4am
+import dvoraka.archbuilder.sample.generic.Interface1p1am
+import dvoraka.archbuilder.sample.generic.Interface1p1am2
+import dvoraka.archbuilder.sample.microservice.data.message.ResponseMessage
+import spock.lang.Specification
+
+import java.lang.reflect.ParameterizedType
+
+class ClassMetadataCacheSpec extends Specification {
+
+    ClassMetadataCache cache = new ClassMetadataCache()
+
+
+    def "metadata are computed once"() {
+        when:
+            ClassMetadata first = cache.get(ResponseMessage)
+            ClassMetadata second = cache.get(ResponseMessage)
+        then:
+            first.is(second)
+            cache.getMisses() == 1
+            cache.getHits() == 1
+    }
+
+    def "generic supertypes are in depth-first order"() {
+        when:
+            List<ParameterizedType> superTypes = cache.get(AbstractClassEE2p4am).getGenericSuperTypes()
+        then:
+            superTypes*.getRawType() == [AbstractClassE1p3am, Interface1p1am, Interface1p1am2]
+    }
+
+    def "merged methods are computed once"() {
+        given:
+            ClassMetadata metadata = cache.get(AbstractClassE1p3am)
+            int calls = 0
+        when:
+            metadata.getMergedMethods({ calls++; it })
+            metadata.getMergedMethods({ calls++; it })
+        then:
+            calls == 1
+    }
+
+    def "cached lists are unmodifiable"() {
+        when:
+            cache.get(ResponseMessage).getMethods().clear()
+        then:
+            thrown(UnsupportedOperationException)
+    }
+}
@@ -0,0 +1,117 @@
+package dvoraka.archbuilder.generate
+
+import dvoraka.archbuilder.data.DirType
+import dvoraka.archbuilder.data.Directory
+import dvoraka.archbuilder.exception.GeneratorException
+import dvoraka.archbuilder.sample.SimpleInterface
+import dvoraka.archbuilder.service.DefaultDirService
+import dvoraka.archbuilder.service.DirService
+import dvoraka.archbuilder.template.TemplateHelper
+import spock.lang.Specification
+
+class DependencyGraphSpec extends Specification implements TemplateHelper {
+
+    DirService dirService = new DefaultDirService()
+
+    Directory rootDir
+    Directory srcBase
+
+
+    def setup() {
+        rootDir = root('testDir')
+        srcBase = srcRootAndBase(rootDir, 'test/app')
+    }
+
+    def "dependencies are in previous levels"() {
+        given:
+            Directory newType = new Directory.Builder('data', DirType.NEW_TYPE)
+                    .parent(srcBase)
+                    .filename('Data')
+                    .interfaceType()
+                    .build()
+            Directory impl = new Directory.Builder('data', DirType.IMPL)
+                    .parent(srcBase)
+                    .superType(newType)
+                    .filename('DefaultData')
+                    .build()
+            Directory ext = new Directory.Builder('data', DirType.IMPL)
+                    .parent(srcBase)
+                    .superType(impl)
+                    .filename('SpecialData')
+                    .build()
+        when:
+            DependencyGraph graph = DependencyGraph.build(rootDir, dirService)
+            List<List<Directory>> levels = graph.getLevels()
+        then:
+            levels.size() == 3
+            levels[0].contains(newType)
+            levels[1] == [impl]
+            levels[2] == [ext]
+            graph.getDependencies(ext) == [impl] as Set
+    }
+
+    def "independent directories are in one level"() {
+        given:
+            Directory abs = new Directory.Builder('test', DirType.ABSTRACT)
+                    .parent(srcBase)
+                    .typeClass(SimpleInterface)
+                    .build()
+            Directory impl1 = new Directory.Builder('test', DirType.IMPL)
+                    .parent(srcBase)
+                    .superType(abs)
+                    .filename('Impl1')
+                    .build()
+            Directory impl2 = new Directory.Builder('test', DirType.IMPL)
+                    .parent(srcBase)
+                    .superType(abs)
+                    .filename('Impl2')
+                    .build()
+        when:
+            List<List<Directory>> levels = DependencyGraph.build(rootDir, dirService).getLevels()
+        then:
+            levels.size() == 2
+            levels[1].containsAll([impl1, impl2])
+    }
+
+    def "Spring configuration is last"() {
+        given:
+            Directory config = new Directory.Builder('config', DirType.SPRING_CONFIG)
+                    .parent(srcBase)
+                    .filename('Config')
+                    .build()
+            Directory newType = new Directory.Builder('data', DirType.NEW_TYPE)
+                    .parent(srcBase)
+                    .filename('Data')
+                    .build()
+            Directory impl = new Directory.Builder('data', DirType.IMPL)
+                    .parent(srcBase)
+                    .superType(newType)
+                    .filename('DefaultData')
+                    .build()
+        when:
+            List<List<Directory>> levels = DependencyGraph.build(rootDir, dirService).getLevels()
+        then:
+            levels.last() == [config]
+            levels.flatten().count { it == config } == 1
+    }
+
+    def "dependency cycle"() {
+        given:
+            Directory first = new Directory.Builder('data', DirType.NEW_TYPE)
+                    .parent(srcBase)
+                    .filename('First')
+                    .parameterType('test.app.data.Second')
+                    .build()
+            Directory second = new Directory.Builder('data', DirType.IMPL)
+                    .parent(srcBase)
+                    .superType(first)
+                    .filename('Second')
+                    .build()
+        when:
+            DependencyGraph.build(rootDir, dirService)
+        then:
+            GeneratorException e = thrown()
+            e.getMessage().contains('test.app.data.First')
+            e.getMessage().contains('test.app.data.Second')
+    }
+}
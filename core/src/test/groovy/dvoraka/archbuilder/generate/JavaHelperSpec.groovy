@@ -1,5 +1,6 @@
 package dvoraka.archbuilder.generate
 
+import com.squareup.javapoet.ClassName
 import dvoraka.archbuilder.sample.microservice.data.message.ResponseMessage
 import spock.lang.Specification
 
@@ -14,4 +15,12 @@ class JavaHelperSpec extends Specification {
             !helper.isConstructorNeeded(Object.class)
             helper.isConstructorNeeded(ResponseMessage.class)
     }
+
+    def "symbolic type name"() {
+        given:
+            ClassName typeName = helper.typeNameOf('test.app.Outer$Inner')
+        expect:
+            helper.toTypeName(new SymbolicType(typeName)) == ClassName.get('test.app', 'Outer', 'Inner')
+            helper.toTypeName(String) == ClassName.get(String)
+    }
 }
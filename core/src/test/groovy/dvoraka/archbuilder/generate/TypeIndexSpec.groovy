@@ -0,0 +1,66 @@
+package dvoraka.archbuilder.generate
+
+import dvoraka.archbuilder.sample.AbstractClassE3c1am1m
+import dvoraka.archbuilder.sample.generic.Class2pp
+import dvoraka.archbuilder.sample.generic.Interface1p1am
+import dvoraka.archbuilder.sample.microservice.net.BaseNetComponent
+import spock.lang.Specification
+
+class TypeIndexSpec extends Specification {
+
+    ClassMetadataCache cache = new ClassMetadataCache()
+
+
+    def "abstractions are indexed"() {
+        expect:
+            cache.get(type).isIndexed()
+        where:
+            type << [Interface1p1am, Class2pp, BaseNetComponent, AbstractClassE3c1am1m]
+    }
+
+    def "other types are not indexed"() {
+        expect:
+            !cache.get(type).isIndexed()
+        where:
+            type << [List, String, TypeIndexSpec]
+    }
+
+    def "parameter names are indexed"() {
+        expect:
+            cache.get(Interface1p1am).getParameterNames(Interface1p1am.getMethod('get', List)) == ['input']
+            cache.get(AbstractClassE3c1am1m).getParameterNames(
+                    AbstractClassE3c1am1m.getDeclaredConstructor(List)) == ['names']
+    }
+
+    def "members are found by erased descriptors"() {
+        given:
+            TypeIndex index = TypeIndex.read(new StringReader(
+                    "${TypeIndex.HEADER}\t${TypeIndex.VERSION}\n"
+                            + "T\t${Interface1p1am.getName()}\n"
+                            + "M\tget\t(Ljava/util/List;)Ljava/lang/Object;\tvalues\n"))
+        expect:
+            index.find(Interface1p1am).get().find(Interface1p1am.getMethod('get', List)).get()
+                    .getParameterNames() == ['values']
+            !index.find(Class2pp).isPresent()
+    }
+
+    def "not indexed parameter names are from reflection"() {
+        expect:
+            cache.get(List).getParameterNames(List.getMethod('get', int)) == ['arg0']
+    }
+
+    def "index with another version is empty"() {
+        when:
+            TypeIndex index = TypeIndex.read(new StringReader(
+                    "${TypeIndex.HEADER}\t${TypeIndex.VERSION + 1}\nT\tsome.Type\n"))
+        then:
+            index.isEmpty()
+    }
+
+    def "invalid index is not read"() {
+        when:
+            TypeIndex.read(new StringReader("${TypeIndex.HEADER}\t${TypeIndex.VERSION}\nX\n"))
+        then:
+            thrown(IllegalArgumentException)
+    }
+}
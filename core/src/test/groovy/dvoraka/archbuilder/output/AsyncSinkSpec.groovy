@@ -0,0 +1,73 @@
+package dvoraka.archbuilder.output
+
+import dvoraka.archbuilder.exception.GeneratorException
+import spock.lang.Specification
+
+import java.nio.file.Path
+import java.nio.file.Paths
+
+class AsyncSinkSpec extends Specification {
+
+    def "files are written after flush"() {
+        given:
+            MemorySink memorySink = new MemorySink()
+            AsyncSink sink = new AsyncSink(memorySink, 2, 4)
+            List<Path> paths = (1..100).collect { Paths.get("dir${it % 7}", "File${it}.java") }
+        when:
+            paths.each { sink.write(it, it.toString().getBytes('UTF-8')) }
+            sink.flush()
+        then:
+            memorySink.getFiles().size() == 100
+            paths.every { new String(memorySink.getFiles()[it], 'UTF-8') == it.toString() }
+            memorySink.getDirectories().containsAll(paths*.getParent())
+        cleanup:
+            sink?.close()
+    }
+
+    def "last operation with a file wins"() {
+        given:
+            MemorySink memorySink = new MemorySink()
+            AsyncSink sink = new AsyncSink(memorySink)
+            Path first = Paths.get('dir', 'First.java')
+            Path second = Paths.get('dir', 'Second.java')
+        when:
+            sink.write(first, [1] as byte[])
+            sink.write(first, [2] as byte[])
+            sink.write(second, [3] as byte[])
+            sink.delete(second)
+        then:
+            sink.read(first).get() == [2] as byte[]
+            !sink.read(second).isPresent()
+        when:
+            sink.flush()
+        then:
+            memorySink.getFiles() == [(first): [2] as byte[]]
+        cleanup:
+            sink?.close()
+    }
+
+    def "write failure is thrown from flush"() {
+        given:
+            OutputSink failingSink = Mock()
+            failingSink.write(_, _) >> { throw new GeneratorException('disk full') }
+            AsyncSink sink = new AsyncSink(failingSink)
+        when:
+            sink.write(Paths.get('dir', 'File.java'), [1] as byte[])
+            sink.flush()
+        then:
+            GeneratorException e = thrown()
+            e.getCause().getMessage() == 'disk full'
+        cleanup:
+            sink?.close()
+    }
+
+    def "nothing is written after close"() {
+        given:
+            AsyncSink sink = new AsyncSink(new MemorySink())
+            sink.close()
+        when:
+            sink.write(Paths.get('File.java'), [1] as byte[])
+        then:
+            thrown(GeneratorException)
+    }
+}
@@ -0,0 +1,148 @@
+package dvoraka.archbuilder.service
+
+import dvoraka.archbuilder.data.DirType
+import dvoraka.archbuilder.data.Directory
+import dvoraka.archbuilder.sample.SimpleInterface
+import dvoraka.archbuilder.template.TemplateHelper
+import spock.lang.Specification
+
+class DefaultDirServiceSpec extends Specification implements TemplateHelper {
+
+    DirService dirService = new DefaultDirService()
+
+    Directory rootDir
+    Directory srcBase
+    Directory abs
+    Directory impl
+    Directory other
+
+
+    def setup() {
+        rootDir = root('testDir')
+        srcBase = srcRootAndBase(rootDir, 'test/app')
+        abs = new Directory.Builder('test', DirType.ABSTRACT)
+                .parent(srcBase)
+                .typeClass(SimpleInterface)
+                .build()
+        impl = new Directory.Builder('test', DirType.IMPL)
+                .parent(srcBase)
+                .superType(abs)
+                .filename('Impl')
+                .build()
+        other = new Directory.Builder('other', DirType.NEW_TYPE)
+                .parent(srcBase)
+                .dependsOn(impl)
+                .filename('Other')
+                .build()
+    }
+
+    def "queries of a frozen tree"() {
+        given:
+            rootDir.freeze()
+        expect:
+            dirService.findAllByType(DirType.IMPL, other) == [impl]
+            dirService.findById(impl.getId(), rootDir).get().is(impl)
+            dirService.findByFilename('Impl.java', rootDir) == [impl]
+            dirService.findByPackage('test.app.test', rootDir) == [impl]
+            dirService.findSubtypes(DirType.IMPL, abs) == [impl]
+            dirService.findSubtypes(SimpleInterface, rootDir) == [impl]
+            dirService.findDependents(impl) == [other]
+            dirService.getIndex(impl).is(dirService.getIndex(other))
+    }
+
+    def "index finds the same directories as the traversal"() {
+        given:
+            Optional<Directory> beforeFreeze = dirService.findByType(DirType.IMPL, other)
+            Optional<Directory> fromSrcBase = dirService.findByTypeFrom(DirType.SRC_BASE, srcBase)
+        when:
+            rootDir.freeze()
+        then:
+            dirService.findByType(DirType.IMPL, other) == beforeFreeze
+            dirService.findByTypeFrom(DirType.SRC_BASE, srcBase) == fromSrcBase
+            !dirService.findByTypeFrom(DirType.ROOT, srcBase).isPresent()
+    }
+
+    def "index of a tree which is not frozen is not cached"() {
+        expect:
+            !dirService.getIndex(rootDir).is(dirService.getIndex(rootDir))
+    }
+
+    def "traversal orders"() {
+        given:
+            Directory srcRoot = srcBase.getParent()
+        expect:
+            dirService.preOrder(rootDir).collect() == [rootDir, srcRoot, srcBase, abs, impl, other]
+            dirService.postOrder(rootDir).collect() == [abs, impl, other, srcBase, srcRoot, rootDir]
+            dirService.leaves(rootDir).collect() == [abs, impl, other]
+    }
+
+    def "parallel traversal keeps the order"() {
+        given:
+            (1..200).each {
+                new Directory.Builder("dir${it}", DirType.TEXT)
+                        .parent(it % 2 ? srcBase : rootDir)
+                        .filename("file${it}")
+                        .build()
+            }
+        expect:
+            dirService.preOrder(rootDir).parallel().collect() == dirService.preOrder(rootDir).collect()
+            dirService.postOrder(rootDir).parallel().collect() == dirService.postOrder(rootDir).collect()
+            dirService.leaves(rootDir).parallel().count() == 203
+    }
+
+    def "spliterator estimates remaining directories"() {
+        given:
+            DirSpliterator spliterator = new DirSpliterator(rootDir, DirSpliterator.Order.PRE_ORDER, { true })
+            long initial = spliterator.estimateSize()
+        when:
+            Spliterator<Directory> prefix = spliterator.trySplit()
+        then:
+            initial == 2
+            prefix.estimateSize() == 1
+            spliterator.estimateSize() == 2
+        when:
+            spliterator.forEachRemaining({})
+        then:
+            spliterator.estimateSize() == 0
+    }
+
+    def "deep tree doesn't overflow the stack"() {
+        given:
+            Directory parent = rootDir
+            100_000.times {
+                parent = new Directory.Builder('d', DirType.SRC_ROOT)
+                        .parent(parent)
+                        .build()
+            }
+        when:
+            List<Directory> nodes = []
+            dirService.processDirNodes(rootDir, { nodes << it })
+        then:
+            dirService.leaves(rootDir).collect().contains(parent)
+            nodes.last() == rootDir
+    }
+
+    def "identical subtrees"() {
+        given:
+            Directory copy = new Directory.Builder('copy', DirType.SRC_ROOT)
+                    .parent(rootDir)
+                    .build()
+            [rootDir, copy].each { parent ->
+                Directory module = new Directory.Builder('net', DirType.SRC_ROOT)
+                        .parent(parent)
+                        .build()
+                new Directory.Builder('', DirType.TEXT)
+                        .parent(module)
+                        .filename('README')
+                        .text('net module')
+                        .build()
+            }
+            rootDir.freeze()
+        when:
+            List<List<Directory>> groups = dirService.findIdenticalSubtrees(rootDir)
+        then:
+            groups.size() == 1
+            groups[0]*.getName() == ['net', 'net']
+            groups[0]*.getParent()*.getName() == ['copy', 'testDir']
+    }
+}
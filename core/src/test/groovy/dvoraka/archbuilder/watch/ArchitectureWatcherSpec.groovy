@@ -0,0 +1,142 @@
+package dvoraka.archbuilder.watch
+
+import dvoraka.archbuilder.BuilderProperties
+import dvoraka.archbuilder.data.DirType
+import dvoraka.archbuilder.data.Directory
+import dvoraka.archbuilder.exception.GeneratorException
+import dvoraka.archbuilder.generate.DependencyGraph
+import dvoraka.archbuilder.generate.JavaGenerator
+import dvoraka.archbuilder.generate.MainGenerator
+import dvoraka.archbuilder.module.GenerationRequest
+import dvoraka.archbuilder.module.ModuleRegistry
+import dvoraka.archbuilder.output.FileSystemSink
+import dvoraka.archbuilder.service.DefaultDirService
+import dvoraka.archbuilder.service.DirService
+import dvoraka.archbuilder.springconfig.DefaultSpringConfigGenerator
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ArchitectureWatcherSpec extends Specification {
+
+    DirService dirService = new DefaultDirService()
+    BuilderProperties properties = new BuilderProperties()
+    ModuleRegistry modules = ModuleRegistry.defaults(properties, new DefaultSpringConfigGenerator())
+    GenerationRequest request = new GenerationRequest(
+            rootDirName: 'watched', packageName: 'test.watched', serviceName: 'Watched')
+
+    MainGenerator generator
+    ArchitectureWatcher watcher
+    Path output
+    Path classRoot
+
+
+    def setup() {
+        output = Files.createTempDirectory('watch')
+        classRoot = Files.createTempDirectory('watch-classes')
+
+        generator = new MainGenerator.Builder(dirService, new JavaGenerator())
+                .properties(properties)
+                .verify(false)
+                .incremental(true)
+                .build()
+
+        watcher = new ArchitectureWatcher(generator, dirService,
+                { modules.build(request) }, { new FileSystemSink(output) })
+        watcher.watchClasses(classRoot)
+    }
+
+    def cleanup() {
+        watcher.close()
+        output.toFile().deleteDir()
+        classRoot.toFile().deleteDir()
+    }
+
+    def "first generation is full"() {
+        when:
+            WatchIteration iteration = watcher.regenerate([] as Set)
+        then:
+            iteration.isFull()
+            iteration.getWrittenFiles() > 0
+            Files.exists(output.resolve('watched/build.gradle'))
+    }
+
+    def "nothing is regenerated without changes"() {
+        given:
+            watcher.generate()
+        when:
+            WatchIteration iteration = watcher.regenerate([classRoot.resolve('Unknown.class')] as Set)
+        then:
+            !iteration.isFull()
+            iteration.getAffectedDirectories() == 0
+            iteration.getWrittenFiles() == 0
+    }
+
+    def "only directories depending on a changed class are regenerated"() {
+        given:
+            WatchIteration full = watcher.generate()
+            Directory abstraction = DependencyGraph.build(modules.build(request), dirService)
+                    .getDirectories()
+                    .find { it.getType() == DirType.ABSTRACT && it.getTypeName() != null }
+            Path changedClass = classRoot.resolve(abstraction.getTypeName().replace('.', '/') + '$Inner.class')
+        when:
+            WatchIteration iteration = watcher.regenerate([changedClass] as Set)
+        then:
+            !iteration.isFull()
+            iteration.getChangedTypes() == 1
+            iteration.getAffectedDirectories() > 0
+            iteration.getAffectedDirectories() < full.getAffectedDirectories()
+            // the class content is the same, so generated files are too
+            iteration.getWrittenFiles() == 0
+            iteration.getUnchangedFiles() > 0
+    }
+
+    def "renamed directories are generated fully"() {
+        given:
+            watcher.generate()
+            request.getProperties().put('defaultString', 'Changed')
+        when:
+            WatchIteration iteration = watcher.regenerate([] as Set)
+        then:
+            iteration.isFull()
+            iteration.getWrittenFiles() > 0
+            Files.walk(output).anyMatch { it.endsWith('ChangedWatchedService.java') }
+    }
+
+    def "blueprint change of a failed iteration is generated next time"() {
+        given:
+            boolean withNotes = false
+            boolean failing = false
+            watcher.close()
+            watcher = new ArchitectureWatcher(generator, dirService, {
+                Directory root = modules.build(request)
+                if (withNotes) {
+                    new Directory.Builder('', DirType.TEXT)
+                            .parent(root)
+                            .filename('notes.txt')
+                            .text('notes')
+                            .build()
+                }
+                root
+            }, {
+                if (failing) {
+                    throw new GeneratorException('Output failed.')
+                }
+                new FileSystemSink(output)
+            })
+            watcher.generate()
+            withNotes = true
+            failing = true
+        when:
+            watcher.regenerate([] as Set)
+        then:
+            thrown(GeneratorException)
+        when:
+            failing = false
+            WatchIteration iteration = watcher.regenerate([] as Set)
+        then:
+            iteration.isFull()
+            Files.exists(output.resolve('watched/notes.txt'))
+    }
+}
@@ -0,0 +1,156 @@
+package dvoraka.archbuilder.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Annotation processor writing an index of type metadata of all compiled types, so the generator has
+ * parameter names of abstractions even if they are compiled without them.
+ * <p>
+ * The index is a UTF-8 text resource {@value #RESOURCE}. The first line is a header with a version, then
+ * every type line is followed by lines of its methods and constructors. Fields are separated by tabs:
+ * <pre>
+ * archbuilder-type-index  2
+ * T  binary name
+ * M  name  erased descriptor  parameter names separated by commas
+ * </pre>
+ * Descriptors are in the class file format. Constructors are methods named {@code <init>}.
+ */
+@SupportedAnnotationTypes("*")
+public class TypeIndexProcessor extends AbstractProcessor {
+
+    public static final String RESOURCE = "META-INF/archbuilder/type-index";
+    public static final String HEADER = "archbuilder-type-index";
+    public static final int VERSION = 2;
+
+    private final Map<String, String> entries = new LinkedHashMap<>();
+
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!roundEnv.errorRaised()) {
+                write();
+            }
+        } else {
+            for (Element element : roundEnv.getRootElements()) {
+                if (element instanceof TypeElement) {
+                    index((TypeElement) element);
+                }
+            }
+        }
+
+        // other processors see all annotations
+        return false;
+    }
+
+    private void index(TypeElement type) {
+        StringBuilder entry = new StringBuilder();
+        entry.append("T\t")
+                .append(binaryName(type))
+                .append('\n');
+
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.METHOD || member.getKind() == ElementKind.CONSTRUCTOR) {
+                ExecutableElement executable = (ExecutableElement) member;
+                entry.append("M\t")
+                        .append(executable.getSimpleName())
+                        .append('\t')
+                        .append(descriptor(executable))
+                        .append('\t')
+                        .append(executable.getParameters().stream()
+                                .map(VariableElement::getSimpleName)
+                                .collect(Collectors.joining(",")))
+                        .append('\n');
+            } else if (member instanceof TypeElement) {
+                index((TypeElement) member);
+            }
+        }
+
+        entries.put(binaryName(type), entry.toString());
+    }
+
+    private void write() {
+        try (Writer writer = processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE)
+                .openWriter()) {
+            writer.write(HEADER + '\t' + VERSION + '\n');
+            for (String entry : entries.values()) {
+                writer.write(entry);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Writing type index failed: " + e.getMessage());
+        }
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private String descriptor(ExecutableElement executable) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (VariableElement parameter : executable.getParameters()) {
+            descriptor.append(descriptor(erasure(parameter.asType())));
+        }
+
+        return descriptor.append(')').append(descriptor(erasure(executable.getReturnType()))).toString();
+    }
+
+    private TypeMirror erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type);
+    }
+
+    private String descriptor(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "Z";
+            case BYTE:
+                return "B";
+            case SHORT:
+                return "S";
+            case CHAR:
+                return "C";
+            case INT:
+                return "I";
+            case LONG:
+                return "J";
+            case FLOAT:
+                return "F";
+            case DOUBLE:
+                return "D";
+            case VOID:
+                return "V";
+            case ARRAY:
+                return "[" + descriptor(((ArrayType) type).getComponentType());
+            case DECLARED:
+                TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+                return "L" + binaryName(element).replace('.', '/') + ";";
+            default:
+                throw new IllegalArgumentException("Unsupported type: " + type);
+        }
+    }
+}
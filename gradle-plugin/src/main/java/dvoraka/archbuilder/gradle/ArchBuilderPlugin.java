@@ -0,0 +1,38 @@
+package dvoraka.archbuilder.gradle;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+
+/**
+ * Plugin registering the architecture generation task. The generator is resolved from the
+ * <code>archbuilder</code> configuration, e.g.:
+ * <pre>
+ * dependencies {
+ *     archbuilder project(':core')
+ * }
+ * </pre>
+ */
+public class ArchBuilderPlugin implements Plugin<Project> {
+
+    public static final String CONFIGURATION_NAME = "archbuilder";
+    public static final String TASK_NAME = "generateArchitecture";
+    public static final String OUTPUT_DIR = "generated/archbuilder";
+
+
+    @Override
+    public void apply(Project project) {
+        Configuration configuration = project.getConfigurations().create(CONFIGURATION_NAME, config -> {
+            config.setVisible(false);
+            config.setCanBeConsumed(false);
+            config.setDescription("Generator and abstractions for the architecture generation.");
+        });
+
+        project.getTasks().register(TASK_NAME, GenerateArchitectureTask.class, task -> {
+            task.setGroup("build");
+            task.setDescription("Generates the project architecture.");
+            task.getGeneratorClasspath().from(configuration);
+            task.getOutputDir().set(project.getLayout().getBuildDirectory().dir(OUTPUT_DIR));
+        });
+    }
+}
@@ -0,0 +1,224 @@
+package dvoraka.archbuilder.gradle;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Task generating a project architecture. All inputs are declared, so the task is up to date while
+ * the blueprint, builder properties, the generator and the abstractions are unchanged, and the generated
+ * tree can be taken from the build cache.
+ * <p>
+ * The generation runs in a worker with an isolated class loader, so generator classes don't clash with
+ * the build classes and generation tasks of several projects run in parallel.
+ */
+@CacheableTask
+public class GenerateArchitectureTask extends DefaultTask {
+
+    private final WorkerExecutor workerExecutor;
+
+    private final ConfigurableFileCollection generatorClasspath;
+    private final ConfigurableFileCollection abstractionClasspath;
+    private final RegularFileProperty blueprint;
+    private final Property<String> module;
+    private final Property<String> rootDirName;
+    private final Property<String> packageName;
+    private final Property<String> serviceName;
+    private final Map<String, String> properties;
+    private final Property<Boolean> verify;
+    private final DirectoryProperty outputDir;
+    private final DirectoryProperty cacheDir;
+    private final Property<Long> classCacheSize;
+    private final Property<Long> projectCacheSize;
+
+
+    @Inject
+    public GenerateArchitectureTask(WorkerExecutor workerExecutor) {
+        this.workerExecutor = workerExecutor;
+
+        ObjectFactory objects = getProject().getObjects();
+        generatorClasspath = getProject().files();
+        abstractionClasspath = getProject().files();
+        blueprint = objects.fileProperty();
+        module = objects.property(String.class);
+        module.set("microservice");
+        rootDirName = objects.property(String.class);
+        packageName = objects.property(String.class);
+        serviceName = objects.property(String.class);
+        properties = new LinkedHashMap<>();
+        verify = objects.property(Boolean.class);
+        verify.set(true);
+        outputDir = objects.directoryProperty();
+        cacheDir = objects.directoryProperty();
+        classCacheSize = objects.property(Long.class);
+        projectCacheSize = objects.property(Long.class);
+    }
+
+    @TaskAction
+    public void generate() {
+        File blueprintFile = blueprint.isPresent() ? blueprint.get().getAsFile() : null;
+        GenerationParameters parameters = new GenerationParameters(
+                blueprintFile,
+                module.get(),
+                rootDirName.getOrNull(),
+                packageName.getOrNull(),
+                serviceName.getOrNull(),
+                properties,
+                verify.get(),
+                outputDir.get().getAsFile(),
+                cacheDir.isPresent() ? cacheDir.get().getAsFile() : null,
+                classCacheSize.getOrNull(),
+                projectCacheSize.getOrNull()
+        );
+
+        workerExecutor.submit(GenerationAction.class, config -> {
+            config.setIsolationMode(IsolationMode.CLASSLOADER);
+            config.setDisplayName("Generating architecture for " + getPath());
+            config.classpath(generatorClasspath.plus(abstractionClasspath));
+            config.params(parameters);
+        });
+    }
+
+    /**
+     * Returns the classpath of the generator, it's the core module with its dependencies.
+     *
+     * @return the classpath
+     */
+    @Classpath
+    public ConfigurableFileCollection getGeneratorClasspath() {
+        return generatorClasspath;
+    }
+
+    /**
+     * Returns the classpath of abstractions used by the blueprint.
+     *
+     * @return the classpath
+     */
+    @Classpath
+    public ConfigurableFileCollection getAbstractionClasspath() {
+        return abstractionClasspath;
+    }
+
+    /**
+     * Returns the blueprint file in the binary blueprint format. If it's set, the module and names
+     * are not used.
+     *
+     * @return the blueprint file
+     */
+    @InputFile
+    @Optional
+    @PathSensitive(PathSensitivity.NONE)
+    public RegularFileProperty getBlueprint() {
+        return blueprint;
+    }
+
+    @Input
+    public Property<String> getModule() {
+        return module;
+    }
+
+    @Input
+    @Optional
+    public Property<String> getRootDirName() {
+        return rootDirName;
+    }
+
+    @Input
+    @Optional
+    public Property<String> getPackageName() {
+        return packageName;
+    }
+
+    @Input
+    @Optional
+    public Property<String> getServiceName() {
+        return serviceName;
+    }
+
+    /**
+     * Returns builder properties by property path, e.g. <code>service.name</code>.
+     *
+     * @return the properties
+     */
+    @Input
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public void setProperties(Map<String, String> properties) {
+        this.properties.clear();
+        this.properties.putAll(properties);
+    }
+
+    /**
+     * Sets a builder property by property path, e.g. <code>service.name</code>. It doesn't overload
+     * <code>Task.property(String)</code> on purpose, so the DSL doesn't mix the two up.
+     *
+     * @param path  the property path
+     * @param value the value
+     */
+    public void builderProperty(String path, String value) {
+        properties.put(path, value);
+    }
+
+    @Input
+    public Property<Boolean> getVerify() {
+        return verify;
+    }
+
+    @OutputDirectory
+    public DirectoryProperty getOutputDir() {
+        return outputDir;
+    }
+
+    /**
+     * Returns the directory of caches shared by generations. Caches don't change the generated tree,
+     * so it's not a task input.
+     *
+     * @return the cache directory, caches are not used if it's not set
+     */
+    @Internal
+    public DirectoryProperty getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * Returns the maximum class cache size in bytes.
+     *
+     * @return the size, the generator default is used if it's not set
+     */
+    @Internal
+    public Property<Long> getClassCacheSize() {
+        return classCacheSize;
+    }
+
+    /**
+     * Returns the maximum project cache size in bytes.
+     *
+     * @return the size, the generator default is used if it's not set
+     */
+    @Internal
+    public Property<Long> getProjectCacheSize() {
+        return projectCacheSize;
+    }
+}
@@ -0,0 +1,107 @@
+package dvoraka.archbuilder.gradle;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import dvoraka.archbuilder.BuilderProperties;
+import dvoraka.archbuilder.CacheProperties;
+import dvoraka.archbuilder.compile.CompilerSession;
+import dvoraka.archbuilder.data.Directory;
+import dvoraka.archbuilder.exception.GeneratorException;
+import dvoraka.archbuilder.generate.GenerationContext;
+import dvoraka.archbuilder.generate.JavaGenerator;
+import dvoraka.archbuilder.generate.MainGenerator;
+import dvoraka.archbuilder.module.GenerationRequest;
+import dvoraka.archbuilder.module.ModuleRegistry;
+import dvoraka.archbuilder.output.AsyncSink;
+import dvoraka.archbuilder.output.FileSystemSink;
+import dvoraka.archbuilder.service.DefaultDirService;
+import dvoraka.archbuilder.service.DirService;
+import dvoraka.archbuilder.springconfig.DefaultSpringConfigGenerator;
+
+import javax.inject.Inject;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+/**
+ * Generation running in a worker. It's loaded by the isolated worker class loader with the generator
+ * classpath, so it's the only class of the plugin using the generator.
+ * <p>
+ * The generation is incremental, only changed files are written and files which are not generated anymore
+ * are removed, so tasks using the generated tree see only real changes.
+ */
+public class GenerationAction implements Runnable {
+
+    private final GenerationParameters parameters;
+
+
+    @Inject
+    public GenerationAction(GenerationParameters parameters) {
+        this.parameters = parameters;
+    }
+
+    @Override
+    public void run() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        DirService dirService = new DefaultDirService(objectMapper);
+        BuilderProperties properties = new BuilderProperties();
+
+        CacheProperties cacheProperties = cacheProperties();
+        MainGenerator generator = new MainGenerator.Builder(dirService, new JavaGenerator())
+                .properties(properties)
+                .verify(parameters.isVerify())
+                .incremental(true)
+                .classCache(cacheProperties.newClassCache())
+                .projectCache(cacheProperties.newProjectCache())
+                .build();
+
+        Directory root = blueprint(dirService, properties);
+        CompilerSession session = new CompilerSession(
+                GenerationAction.class.getClassLoader(), generator.getClassCache());
+        try (GenerationContext context = new GenerationContext(
+                session, new AsyncSink(new FileSystemSink(parameters.getOutputDir().toPath())))) {
+            generator.generate(root, context);
+
+            if (!context.getVerification().isSuccess()) {
+                throw new GeneratorException("Generated sources don't compile: "
+                        + context.getVerification().getErrors());
+            }
+        }
+    }
+
+    private CacheProperties cacheProperties() {
+        CacheProperties cacheProperties = new CacheProperties();
+        if (parameters.getCacheDir() != null) {
+            cacheProperties.setDirectory(parameters.getCacheDir().getPath());
+        }
+        if (parameters.getClassCacheSize() != null) {
+            cacheProperties.setClassCacheSize(parameters.getClassCacheSize());
+        }
+        if (parameters.getProjectCacheSize() != null) {
+            cacheProperties.setProjectCacheSize(parameters.getProjectCacheSize());
+        }
+
+        return cacheProperties;
+    }
+
+    private Directory blueprint(DirService dirService, BuilderProperties properties) {
+        if (parameters.getBlueprint() != null) {
+            try (InputStream input = new BufferedInputStream(
+                    Files.newInputStream(parameters.getBlueprint().toPath()))) {
+                return dirService.fromBinary(input);
+            } catch (IOException e) {
+                throw new GeneratorException("Reading blueprint failed: " + parameters.getBlueprint(), e);
+            }
+        }
+
+        GenerationRequest request = new GenerationRequest();
+        request.setModule(parameters.getModule());
+        request.setRootDirName(parameters.getRootDirName());
+        request.setPackageName(parameters.getPackageName());
+        request.setServiceName(parameters.getServiceName());
+        request.setProperties(parameters.getProperties());
+
+        return ModuleRegistry.defaults(properties, new DefaultSpringConfigGenerator()).build(request);
+    }
+}
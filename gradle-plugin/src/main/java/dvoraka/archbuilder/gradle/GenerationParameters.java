@@ -0,0 +1,134 @@
+package dvoraka.archbuilder.gradle;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parameters of one generation passed to a worker.
+ */
+public class GenerationParameters implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final File blueprint;
+    private final String module;
+    private final String rootDirName;
+    private final String packageName;
+    private final String serviceName;
+    private final HashMap<String, String> properties;
+    private final boolean verify;
+    private final File outputDir;
+    private final File cacheDir;
+    private final Long classCacheSize;
+    private final Long projectCacheSize;
+
+
+    public GenerationParameters(
+            File blueprint,
+            String module,
+            String rootDirName,
+            String packageName,
+            String serviceName,
+            Map<String, String> properties,
+            boolean verify,
+            File outputDir,
+            File cacheDir,
+            Long classCacheSize,
+            Long projectCacheSize
+    ) {
+        this.blueprint = blueprint;
+        this.module = module;
+        this.rootDirName = rootDirName;
+        this.packageName = packageName;
+        this.serviceName = serviceName;
+        this.properties = new HashMap<>(properties);
+        this.verify = verify;
+        this.outputDir = outputDir;
+        this.cacheDir = cacheDir;
+        this.classCacheSize = classCacheSize;
+        this.projectCacheSize = projectCacheSize;
+    }
+
+    /**
+     * Returns the blueprint file. A blueprint is built from the module if there is no file.
+     *
+     * @return the file or null
+     */
+    public File getBlueprint() {
+        return blueprint;
+    }
+
+    public String getModule() {
+        return module;
+    }
+
+    public String getRootDirName() {
+        return rootDirName;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public boolean isVerify() {
+        return verify;
+    }
+
+    public File getOutputDir() {
+        return outputDir;
+    }
+
+    /**
+     * Returns the cache directory shared by generations.
+     *
+     * @return the directory or null for no caches
+     */
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * Returns the maximum class cache size in bytes.
+     *
+     * @return the size or null for the default size
+     */
+    public Long getClassCacheSize() {
+        return classCacheSize;
+    }
+
+    /**
+     * Returns the maximum project cache size in bytes.
+     *
+     * @return the size or null for the default size
+     */
+    public Long getProjectCacheSize() {
+        return projectCacheSize;
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationParameters{" +
+                "blueprint=" + blueprint +
+                ", module='" + module + '\'' +
+                ", rootDirName='" + rootDirName + '\'' +
+                ", packageName='" + packageName + '\'' +
+                ", serviceName='" + serviceName + '\'' +
+                ", properties=" + properties +
+                ", verify=" + verify +
+                ", outputDir=" + outputDir +
+                ", cacheDir=" + cacheDir +
+                ", classCacheSize=" + classCacheSize +
+                ", projectCacheSize=" + projectCacheSize +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+package dvoraka.archbuilder.gradle
+
+import org.gradle.testkit.runner.BuildResult
+import org.gradle.testkit.runner.GradleRunner
+import org.gradle.testkit.runner.TaskOutcome
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+/**
+ * Runs the plugin in a real build with the minimal supported Gradle version, so a use of a newer Gradle API
+ * fails here.
+ */
+class ArchBuilderPluginFunctionalSpec extends Specification {
+
+    File projectDir
+
+
+    def setup() {
+        projectDir = Files.createTempDirectory('archbuilder-plugin').toFile()
+        new File(projectDir, 'settings.gradle') << "rootProject.name = 'functional'\n"
+        new File(projectDir, 'build.gradle') << """
+            plugins {
+                id 'dvoraka.archbuilder'
+            }
+
+            dependencies {
+                archbuilder files(${generatorClasspath()})
+            }
+
+            generateArchitecture {
+                rootDirName = 'budget-service'
+                packageName = 'test.budget'
+                serviceName = 'Budget'
+                builderProperty 'service.string', 'Service'
+            }
+        """
+    }
+
+    def cleanup() {
+        projectDir.deleteDir()
+    }
+
+    def "project is generated and up to date"() {
+        when:
+            BuildResult first = runner().build()
+            BuildResult second = runner().build()
+        then:
+            first.task(":${ArchBuilderPlugin.TASK_NAME}").getOutcome() == TaskOutcome.SUCCESS
+            new File(projectDir, "build/${ArchBuilderPlugin.OUTPUT_DIR}/budget-service/build.gradle")
+                    .exists()
+            second.task(":${ArchBuilderPlugin.TASK_NAME}").getOutcome() == TaskOutcome.UP_TO_DATE
+    }
+
+    def "changed builder property runs the task again"() {
+        given:
+            runner().build()
+            new File(projectDir, 'build.gradle') <<
+                    "generateArchitecture { builderProperty 'service.string', 'Svc' }\n"
+        when:
+            BuildResult result = runner().build()
+        then:
+            result.task(":${ArchBuilderPlugin.TASK_NAME}").getOutcome() == TaskOutcome.SUCCESS
+    }
+
+    GradleRunner runner() {
+        return GradleRunner.create()
+                .withGradleVersion(System.getProperty('archbuilder.gradleVersion'))
+                .withProjectDir(projectDir)
+                .withPluginClasspath()
+                .withArguments(ArchBuilderPlugin.TASK_NAME, '--stacktrace')
+    }
+
+    static String generatorClasspath() {
+        return System.getProperty('archbuilder.generatorClasspath')
+                .split(File.pathSeparator)
+                .collect { "'${it.replace('\\', '/')}'" }
+                .join(', ')
+    }
+}
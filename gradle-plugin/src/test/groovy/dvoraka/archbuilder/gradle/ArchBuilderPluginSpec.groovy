@@ -0,0 +1,61 @@
+package dvoraka.archbuilder.gradle
+
+import org.gradle.api.Project
+import org.gradle.testfixtures.ProjectBuilder
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ArchBuilderPluginSpec extends Specification {
+
+    def "generation task is registered"() {
+        given:
+            Project project = ProjectBuilder.builder().build()
+        when:
+            project.getPluginManager().apply(ArchBuilderPlugin)
+            GenerateArchitectureTask task = (GenerateArchitectureTask) project.getTasks()
+                    .getByName(ArchBuilderPlugin.TASK_NAME)
+        then:
+            project.getConfigurations().findByName(ArchBuilderPlugin.CONFIGURATION_NAME) != null
+            task.getModule().get() == 'microservice'
+            task.getVerify().get()
+            task.getOutputDir().get().getAsFile() ==
+                    new File(project.getBuildDir(), ArchBuilderPlugin.OUTPUT_DIR)
+    }
+
+    def "action generates only changed files"() {
+        given:
+            Path output = Files.createTempDirectory('archbuilder')
+            GenerationParameters parameters = new GenerationParameters(
+                    null, 'microservice', 'plugin-service', 'test.plugin', 'Plugin', [:], false, output.toFile(),
+                    null, null, null)
+            Path buildFile = output.resolve('plugin-service/build.gradle')
+        when:
+            new GenerationAction(parameters).run()
+            buildFile.toFile().setLastModified(1000)
+            new GenerationAction(parameters).run()
+        then:
+            Files.exists(buildFile)
+            buildFile.toFile().lastModified() == 1000
+        cleanup:
+            output.toFile().deleteDir()
+    }
+
+    def "action caches compiled classes and projects"() {
+        given:
+            Path output = Files.createTempDirectory('archbuilder')
+            Path cache = Files.createTempDirectory('archbuilder-cache')
+            GenerationParameters parameters = new GenerationParameters(
+                    null, 'microservice', 'plugin-service', 'test.plugin', 'Plugin', [:], true, output.toFile(),
+                    cache.toFile(), 64L * 1024 * 1024, 64L * 1024 * 1024)
+        when:
+            new GenerationAction(parameters).run()
+        then:
+            cache.resolve('classes').toFile().list().length > 0
+            cache.resolve('projects/entries').toFile().list().length == 1
+        cleanup:
+            output.toFile().deleteDir()
+            cache.toFile().deleteDir()
+    }
+}